@@ -0,0 +1,193 @@
+package org.cis1200.minesweeper;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks for the hot paths of the Minesweeper model at several board
+ * sizes and mine densities. Run through the jmh Maven profile:
+ *
+ * mvn -Pjmh verify
+ *
+ * Each benchmark builds its boards outside the measured region, so the
+ * numbers cover only the operation named by the method. Benchmarks that
+ * only read a game, or undo what they did, share games built once per
+ * trial; only generateMines and randomGame, which use up their game, get a
+ * fresh one for every invocation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MinesweeperBenchmark {
+
+    /**
+     * the board size and mine density being measured
+     */
+    @State(Scope.Thread)
+    public static class Board {
+
+        @Param({ "16x30", "256x256", "2000x2000" })
+        public String size;
+
+        @Param({ "0.05", "0.2" })
+        public double density;
+
+        int rows;
+        int cols;
+        int mines;
+        long seed;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            String[] dims = size.split("x");
+            rows = Integer.parseInt(dims[0]);
+            cols = Integer.parseInt(dims[1]);
+            mines = (int) (rows * cols * density);
+            seed = 1200L;
+        }
+    }
+
+    /**
+     * a game whose mines are not yet placed, rebuilt before every invocation
+     */
+    @State(Scope.Thread)
+    public static class Fresh {
+
+        Minesweeper game;
+
+        @Setup(Level.Invocation)
+        public void setUp(Board board) {
+            game = new Minesweeper(board.rows, board.cols, board.mines, board.seed);
+        }
+    }
+
+    /**
+     * games with their mines placed, built once per trial
+     */
+    @State(Scope.Thread)
+    public static class Placed {
+
+        Minesweeper generated; // mines placed, nothing uncovered
+        Minesweeper zeroStart; // mines placed, (zeroR, zeroC) is a 0 tile
+        Minesweeper indexed; // the same layout, using the zero-region index
+        int zeroR;
+        int zeroC;
+        byte[] layer; // a copy of generated's padded board layer
+        int[] offsets;
+
+        @Setup(Level.Trial)
+        public void setUp(Board board) {
+            generated = new Minesweeper(board.rows, board.cols, board.mines, board.seed);
+            generated.generateMines(board.rows / 2, board.cols / 2);
+
+            zeroStart = new Minesweeper(board.rows, board.cols, board.mines, board.seed);
+            zeroR = board.rows / 2;
+            zeroC = board.cols / 2;
+            zeroStart.generateMines(zeroR, zeroC); // the first click is always a 0 tile
+            zeroStart.setFirstTurn(false);
+            zeroStart.setZeroRegionIndex(false);
+
+            indexed = new Minesweeper(board.rows, board.cols, board.mines, board.seed);
+            indexed.generateMines(zeroR, zeroC);
+            indexed.setFirstTurn(false);
+
+            layer = generated.mineLayer().clone();
+            offsets = NeighbourCounts.offsets(board.cols + 2);
+        }
+    }
+
+    @Benchmark
+    public Minesweeper generateMines(Board board, Fresh fresh) {
+        fresh.game.generateMines(board.rows / 2, board.cols / 2);
+        return fresh.game;
+    }
+
+    @Benchmark
+    public Minesweeper populateBoard(Placed placed) {
+        placed.generated.populateBoard();
+        return placed.generated;
+    }
+
+    /**
+     * recounts every tile by scattering each mine into its neighbours, the
+     * path populateBoard takes on sparse boards
+     */
+    @Benchmark
+    public byte[] rebuildCountsScatter(Placed placed) {
+        NeighbourCounts.rebuild(placed.layer, placed.offsets);
+        return placed.layer;
+    }
+
+    /**
+     * recounts every tile with BitBoard's bit-sliced adders, the path
+     * populateBoard takes on dense boards
+     */
+    @Benchmark
+    public byte[] rebuildCountsBitSliced(Placed placed, Board board) {
+        BitBoard.rebuildCounts(placed.layer, board.cols + 2);
+        return placed.layer;
+    }
+
+    /**
+     * opens the zero region around the centre of the board and undoes it
+     * again, which measures one flood-fill cascade plus one journal rewind.
+     * The zero-region index is off, so every invocation searches the region.
+     */
+    @Benchmark
+    public int cascadeAndUndo(Placed placed) {
+        int opened = placed.zeroStart.playTurn(placed.zeroR, placed.zeroC, true);
+        placed.zeroStart.undo();
+        return opened;
+    }
+
+    /**
+     * the same move with the zero-region index on. The index is built by the
+     * first invocation, so this measures uncovering the region from its list
+     * of tiles plus one journal rewind.
+     */
+    @Benchmark
+    public int regionRevealAndUndo(Placed placed) {
+        int opened = placed.indexed.playTurn(placed.zeroR, placed.zeroC, true);
+        placed.indexed.undo();
+        return opened;
+    }
+
+    @Benchmark
+    public boolean checkWinner(Placed placed) {
+        return placed.generated.checkWinner();
+    }
+
+    /**
+     * flags and unflags a single tile, measuring the bookkeeping cost of
+     * recording and rewinding a one-tile move
+     */
+    @Benchmark
+    public int flagAndUndo(Placed placed) {
+        placed.generated.playFlag(0, 0);
+        placed.generated.undo();
+        return placed.generated.getFlagCount();
+    }
+
+    /**
+     * plays a whole game by uncovering random covered tiles until it ends
+     */
+    @Benchmark
+    public int randomGame(Board board, Fresh fresh) {
+        Minesweeper game = fresh.game;
+        SplittableRandom random = new SplittableRandom(board.seed);
+        int moves = 0;
+        while (game.getActive()) {
+            int r = random.nextInt(board.rows);
+            int c = random.nextInt(board.cols);
+            if (game.getCell(r, c) == -2) {
+                game.playTurn(r, c, true);
+                moves++;
+            }
+        }
+        return moves;
+    }
+}
@@ -0,0 +1,388 @@
+package org.cis1200.minesweeper;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * BitBoard holds the mine, uncovered and flagged layers of a board as bits,
+ * one row of longs per padded row of Minesweeper's layout (bit c of a row is
+ * padded column c). Minesweeper keeps one alongside its byte layers and
+ * updates it tile by tile as mines are placed, tiles are uncovered, flagged
+ * and undone, so whole-board questions are answered 64 tiles at a time with
+ * shifts and bitwise logic instead of tile by tile. The mine and flag counts
+ * are kept as the bits change.
+ *
+ * Neighbour counts are computed bit-sliced: the eight neighbour layers of a
+ * row (the rows above, at and below it, each shifted one column either way)
+ * are summed by a tree of full adders into four bit planes holding the
+ * binary digits of every tile's count. The frontier, the covered tiles next
+ * to an uncovered one, is the covered layer masked by the uncovered layer
+ * dilated in all eight directions. Covered tiles are the real tiles that are
+ * neither uncovered nor flagged, so they need no layer of their own.
+ *
+ * The boolean logic is plain scalar long arithmetic that the JIT keeps in
+ * registers. MinesweeperBenchmark compares the bit-sliced counts with
+ * NeighbourCounts.rebuild.
+ */
+final class BitBoard {
+
+    // writes eight bytes of a byte[] at once, byte k of the long at offset + k
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class,
+            ByteOrder.LITTLE_ENDIAN);
+
+    // SPREAD[b] has bit k of b moved to the lowest bit of byte k
+    private static final long[] SPREAD = new long[256];
+
+    static {
+        for (int b = 0; b < 256; b++) {
+            long spread = 0;
+            for (int k = 0; k < 8; k++) {
+                spread |= (long) (b >>> k & 1) << (8 * k);
+            }
+            SPREAD[b] = spread;
+        }
+    }
+
+    private final int paddedRows;
+    private final int stride; // padded columns, the bits used in each row
+    private final int words; // longs per row
+    private final long[] mines;
+    private final long[] uncovered;
+    private final long[] flagged;
+    private int mineCount;
+    private int flagCount;
+
+    /**
+     * an empty board: no mines, nothing uncovered or flagged
+     *
+     * @param paddedRows rows of the padded layout (rows + 2)
+     * @param stride length of one padded row (cols + 2)
+     */
+    BitBoard(int paddedRows, int stride) {
+        this.paddedRows = paddedRows;
+        this.stride = stride;
+        this.words = (stride + 63) >>> 6;
+        mines = new long[paddedRows * words];
+        uncovered = new long[paddedRows * words];
+        flagged = new long[paddedRows * words];
+    }
+
+    /**
+     * copy constructor
+     */
+    BitBoard(BitBoard other) {
+        paddedRows = other.paddedRows;
+        stride = other.stride;
+        words = other.words;
+        mines = other.mines.clone();
+        uncovered = other.uncovered.clone();
+        flagged = other.flagged.clone();
+        mineCount = other.mineCount;
+        flagCount = other.flagCount;
+    }
+
+    /**
+     * packs Minesweeper's padded layers into a new BitBoard
+     *
+     * @param board internal board layer, -1 for a mine
+     * @param visible visible board layer
+     * @param stride length of one padded row
+     */
+    static BitBoard of(byte[] board, byte[] visible, int stride) {
+        BitBoard bits = new BitBoard(board.length / stride, stride);
+        bits.load(board, visible);
+        return bits;
+    }
+
+    /**
+     * @return whether this BitBoard has the shape of a padded layout
+     */
+    boolean fits(int paddedRows, int stride) {
+        return this.paddedRows == paddedRows && this.stride == stride;
+    }
+
+    /**
+     * replaces every layer with the packed contents of Minesweeper's padded
+     * layers, used when those were rewritten wholesale
+     *
+     * @param board internal board layer, -1 for a mine
+     * @param visible visible board layer
+     */
+    void load(byte[] board, byte[] visible) {
+        mineCount = 0;
+        flagCount = 0;
+        for (int pr = 0; pr < paddedRows; pr++) {
+            int row = pr * stride;
+            for (int w = 0; w < words; w++) {
+                long mine = 0;
+                long open = 0;
+                long flag = 0;
+                for (int col = w << 6, end = Math.min(stride, col + 64); col < end; col++) {
+                    long bit = 1L << col;
+                    if (board[row + col] == -1) {
+                        mine |= bit;
+                    }
+                    byte v = visible[row + col];
+                    if (v >= -1) {
+                        open |= bit;
+                    } else if (v == -3) {
+                        flag |= bit;
+                    }
+                }
+                int k = pr * words + w;
+                mines[k] = mine;
+                uncovered[k] = open;
+                flagged[k] = flag;
+                mineCount += Long.bitCount(mine);
+                flagCount += Long.bitCount(flag);
+            }
+        }
+    }
+
+    /**
+     * @return the word holding padded index i
+     */
+    private int word(int i) {
+        int pr = i / stride;
+        return pr * words + ((i - pr * stride) >>> 6);
+    }
+
+    /**
+     * @return the bit of padded index i within its word
+     */
+    private long bit(int i) {
+        return 1L << (i % stride);
+    }
+
+    /**
+     * places or removes the mine on a tile
+     *
+     * @param i padded index of the tile
+     */
+    void setMine(int i, boolean mine) {
+        int w = word(i);
+        long bit = bit(i);
+        if (((mines[w] & bit) != 0) != mine) {
+            mines[w] ^= bit;
+            mineCount += mine ? 1 : -1;
+        }
+    }
+
+    /**
+     * records a tile's new visible state: uncovered for a number or a mine
+     * (-1 and up), flagged for -3, covered otherwise
+     *
+     * @param i padded index of the tile
+     * @param value new visible value of the tile
+     */
+    void setVisible(int i, byte value) {
+        int w = word(i);
+        long bit = bit(i);
+        if ((flagged[w] & bit) != 0) {
+            flagCount--;
+        }
+        if (value >= -1) {
+            uncovered[w] |= bit;
+            flagged[w] &= ~bit;
+        } else if (value == -3) {
+            uncovered[w] &= ~bit;
+            flagged[w] |= bit;
+            flagCount++;
+        } else {
+            uncovered[w] &= ~bit;
+            flagged[w] &= ~bit;
+        }
+    }
+
+    boolean isMine(int i) {
+        return (mines[word(i)] & bit(i)) != 0;
+    }
+
+    boolean isUncovered(int i) {
+        return (uncovered[word(i)] & bit(i)) != 0;
+    }
+
+    boolean isFlagged(int i) {
+        return (flagged[word(i)] & bit(i)) != 0;
+    }
+
+    /**
+     * recomputes every count of a padded board layer from its mines, giving
+     * the same layer as NeighbourCounts.rebuild
+     *
+     * @param board internal board layer, updated in place
+     * @param stride length of one padded row
+     */
+    static void rebuildCounts(byte[] board, int stride) {
+        int paddedRows = board.length / stride;
+        int words = (stride + 63) >>> 6;
+        long[] mines = new long[paddedRows * words];
+        for (int pr = 0; pr < paddedRows; pr++) {
+            for (int w = 0; w < words; w++) {
+                int offset = pr * stride + (w << 6);
+                int bitsInWord = Math.min(64, stride - (w << 6));
+                long mine = 0;
+                int j = 0;
+                for (; j + 8 <= bitsInWord; j += 8) {
+                    mine |= mineBits((long) LONGS.get(board, offset + j)) << j;
+                }
+                for (; j < bitsInWord; j++) {
+                    if (board[offset + j] == -1) {
+                        mine |= 1L << j;
+                    }
+                }
+                mines[pr * words + w] = mine;
+            }
+        }
+        long[] planes = new long[4];
+        for (int pr = 0; pr < paddedRows; pr++) {
+            for (int w = 0; w < words; w++) {
+                countWord(mines, words, paddedRows, pr, w, planes);
+                long mine = mines[pr * words + w];
+                int offset = pr * stride + (w << 6);
+                int bitsInWord = Math.min(64, stride - (w << 6));
+                int j = 0;
+                for (; j + 8 <= bitsInWord; j += 8) {
+                    // eight counts at once, their digits spread into bytes
+                    long counts = SPREAD[(int) (planes[0] >>> j) & 0xFF]
+                            | SPREAD[(int) (planes[1] >>> j) & 0xFF] << 1
+                            | SPREAD[(int) (planes[2] >>> j) & 0xFF] << 2
+                            | SPREAD[(int) (planes[3] >>> j) & 0xFF] << 3;
+                    long mineBytes = SPREAD[(int) (mine >>> j) & 0xFF] * 0xFF;
+                    LONGS.set(board, offset + j, counts & ~mineBytes | mineBytes);
+                }
+                for (; j < bitsInWord; j++) {
+                    if ((mine >>> j & 1) != 0) {
+                        board[offset + j] = -1;
+                    } else {
+                        board[offset + j] = (byte) ((planes[0] >>> j & 1)
+                                | (planes[1] >>> j & 1) << 1
+                                | (planes[2] >>> j & 1) << 2
+                                | (planes[3] >>> j & 1) << 3);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @param bytes eight tiles, tile k in byte k
+     * @return bit k set if tile k is a mine (-1)
+     */
+    private static long mineBits(long bytes) {
+        long v = ~bytes; // mine bytes become 0
+        long low = 0x7F7F7F7F7F7F7F7FL;
+        long zero = ~((v & low) + low | v | low); // high bit of each zero byte
+        return (zero >>> 7) * 0x0102040810204080L >>> 56;
+    }
+
+    /**
+     * sums the eight neighbour bits of the 64 tiles in word w of padded row
+     * pr into the binary digits planes[0..3]
+     */
+    private static void countWord(long[] layer, int words, int paddedRows, int pr, int w,
+            long[] planes) {
+        long above = pr > 0 ? layer[(pr - 1) * words + w] : 0;
+        long at = layer[pr * words + w];
+        long below = pr + 1 < paddedRows ? layer[(pr + 1) * words + w] : 0;
+        long aw = west(layer, words, paddedRows, pr - 1, w, above);
+        long ae = east(layer, words, paddedRows, pr - 1, w, above);
+        long bw = west(layer, words, paddedRows, pr, w, at);
+        long be = east(layer, words, paddedRows, pr, w, at);
+        long cw = west(layer, words, paddedRows, pr + 1, w, below);
+        long ce = east(layer, words, paddedRows, pr + 1, w, below);
+
+        // three full adders and a half adder reduce eight bits to weights 1 and 2
+        long s1 = aw ^ above ^ ae;
+        long c1 = (aw & above) | (ae & (aw ^ above));
+        long s2 = bw ^ be ^ cw;
+        long c2 = (bw & be) | (cw & (bw ^ be));
+        long s3 = below ^ ce;
+        long c3 = below & ce;
+        long ones = s1 ^ s2 ^ s3;
+        long c4 = (s1 & s2) | (s3 & (s1 ^ s2));
+        // four carries of weight 2
+        long t = c1 ^ c2 ^ c3;
+        long c5 = (c1 & c2) | (c3 & (c1 ^ c2));
+        long twos = t ^ c4;
+        long c6 = t & c4;
+        planes[0] = ones;
+        planes[1] = twos;
+        planes[2] = c5 ^ c6;
+        planes[3] = c5 & c6;
+    }
+
+    /**
+     * @return word w of row pr shifted so that each tile sees its western
+     *         neighbour (column - 1)
+     */
+    private static long west(long[] layer, int words, int paddedRows, int pr, int w, long word) {
+        if (pr < 0 || pr >= paddedRows) {
+            return 0;
+        }
+        long carry = w > 0 ? layer[pr * words + w - 1] >>> 63 : 0;
+        return word << 1 | carry;
+    }
+
+    /**
+     * @return word w of row pr shifted so that each tile sees its eastern
+     *         neighbour (column + 1)
+     */
+    private static long east(long[] layer, int words, int paddedRows, int pr, int w, long word) {
+        if (pr < 0 || pr >= paddedRows) {
+            return 0;
+        }
+        long carry = w + 1 < words ? layer[pr * words + w + 1] << 63 : 0;
+        return word >>> 1 | carry;
+    }
+
+    /**
+     * @return the bits of word w that are real tiles in a padded row that
+     *         is not the top or bottom padding
+     */
+    private long inside(int w) {
+        long inside = w == 0 ? ~1L : -1L;
+        int last = stride - 2 - (w << 6); // the last real column, within this word
+        if (last < 63) {
+            inside &= last < 0 ? 0 : -1L >>> (63 - last);
+        }
+        return inside;
+    }
+
+    /**
+     * @return number of covered, unflagged tiles that have an uncovered
+     *         neighbour
+     */
+    int frontierSize() {
+        int count = 0;
+        for (int pr = 1; pr < paddedRows - 1; pr++) {
+            for (int w = 0; w < words; w++) {
+                long near = 0;
+                for (int r = pr - 1; r <= pr + 1; r++) {
+                    long word = uncovered[r * words + w];
+                    near |= word | west(uncovered, words, paddedRows, r, w, word)
+                            | east(uncovered, words, paddedRows, r, w, word);
+                }
+                int k = pr * words + w;
+                long covered = inside(w) & ~uncovered[k] & ~flagged[k];
+                count += Long.bitCount(near & covered);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return number of mines on the board
+     */
+    int mineCount() {
+        return mineCount;
+    }
+
+    /**
+     * @return number of flags on the board
+     */
+    int flagCount() {
+        return flagCount;
+    }
+}
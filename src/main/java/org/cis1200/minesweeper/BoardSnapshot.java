@@ -0,0 +1,138 @@
+package org.cis1200.minesweeper;
+
+/**
+ * A BoardSnapshot is an immutable record of what a view needs to know after
+ * the GameEngine has applied a batch of moves: the game's status and the
+ * visible state of the tiles that changed. A full snapshot carries every
+ * tile and is published when the board is created, replaced or reset; every
+ * other snapshot carries only the tiles changed since the previous one.
+ *
+ * Snapshots hold their own copies of the tile data, so they can be read on
+ * any thread while the engine keeps playing.
+ */
+public final class BoardSnapshot {
+
+    private final long version;
+    private final int rows;
+    private final int cols;
+    private final int numMines;
+    private final int minesRemaining;
+    private final boolean active;
+    private final boolean won;
+    private final boolean noGuessFallback;
+    private final boolean full;
+    private final int[] cells; // row-major tile indices, r * cols + c
+    private final byte[] values; // visible state of each listed tile
+
+    BoardSnapshot(long version, int rows, int cols, int numMines, int minesRemaining,
+            boolean active, boolean won, boolean noGuessFallback, boolean full, int[] cells,
+            byte[] values) {
+        this.version = version;
+        this.rows = rows;
+        this.cols = cols;
+        this.numMines = numMines;
+        this.minesRemaining = minesRemaining;
+        this.active = active;
+        this.won = won;
+        this.noGuessFallback = noGuessFallback;
+        this.full = full;
+        this.cells = cells;
+        this.values = values;
+    }
+
+    /**
+     * @return position of this snapshot in the sequence published by its
+     *         engine, starting at 0
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    public int getNumMines() {
+        return numMines;
+    }
+
+    public int getMinesRemaining() {
+        return minesRemaining;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    public boolean isWon() {
+        return won;
+    }
+
+    /**
+     * @return true if no-guess mode is on but the search for a guess-free
+     *         layout ran out of time, so the game may need a guess
+     */
+    public boolean isNoGuessFallback() {
+        return noGuessFallback;
+    }
+
+    /**
+     * @return true if this snapshot lists every tile of the board, in which
+     *         case tiles are listed in row-major order
+     */
+    public boolean isFull() {
+        return full;
+    }
+
+    /**
+     * @return number of tiles listed in this snapshot. A tile may be listed
+     *         more than once, always with the same value.
+     */
+    public int getChangedCellCount() {
+        return values.length;
+    }
+
+    /**
+     * @param k position in the list of tiles
+     * @return row of the k-th tile
+     */
+    public int getChangedRow(int k) {
+        return full ? k / cols : cells[k] / cols;
+    }
+
+    /**
+     * @param k position in the list of tiles
+     * @return column of the k-th tile
+     */
+    public int getChangedCol(int k) {
+        return full ? k % cols : cells[k] % cols;
+    }
+
+    /**
+     * @param k position in the list of tiles
+     * @return visible state of the k-th tile
+     */
+    public int getChangedValue(int k) {
+        return values[k];
+    }
+
+    /**
+     * writes the tiles listed in this snapshot into a row-major copy of the
+     * visible board
+     *
+     * @param view array of rows * cols visible states
+     */
+    public void applyTo(byte[] view) {
+        if (full) {
+            System.arraycopy(values, 0, view, 0, values.length);
+        } else {
+            for (int k = 0; k < cells.length; k++) {
+                view[cells[k]] = values[k];
+            }
+        }
+    }
+}
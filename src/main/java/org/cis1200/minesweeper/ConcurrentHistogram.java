@@ -0,0 +1,55 @@
+package org.cis1200.minesweeper;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ConcurrentHistogram is a LatencyHistogram that many threads can record
+ * into at once. It uses the same log-linear buckets, kept in an atomic
+ * array; the sum and maximum are striped so that threads recording at the
+ * same time do not contend on them. Percentiles are read from a snapshot.
+ */
+public class ConcurrentHistogram {
+
+    private final AtomicLongArray counts = new AtomicLongArray(LatencyHistogram.bucketCount());
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * records one value. Negative values are recorded as 0.
+     */
+    public void record(long value) {
+        long v = Math.max(value, 0);
+        counts.incrementAndGet(LatencyHistogram.bucketOf(v));
+        sum.add(v);
+        max.accumulate(v);
+    }
+
+    /**
+     * copies the values recorded so far. Values recorded while the copy is
+     * taken may or may not be included.
+     *
+     * @return a histogram holding the recorded values
+     */
+    public LatencyHistogram snapshot() {
+        long[] copy = new long[counts.length()];
+        for (int i = 0; i < copy.length; i++) {
+            copy[i] = counts.get(i);
+        }
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.addBuckets(copy, sum.sum(), max.get());
+        return histogram;
+    }
+
+    /**
+     * forgets every recorded value
+     */
+    public void clear() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+        sum.reset();
+        max.reset();
+    }
+}
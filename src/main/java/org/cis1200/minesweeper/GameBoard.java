@@ -12,29 +12,66 @@ import java.awt.event.KeyAdapter;
  * As the user clicks the game board, the model is updated. Whenever the model
  * is updated, the game board repaints itself and updates its status JLabel to
  * reflect the current state of the model.
- * 
+ *
  * This game adheres to a Model-View-Controller design framework.
- * 
- * In a Model-View-Controller framework, GameBoard stores the model as a field
- * and acts as both the controller (with a MouseListener) and the view (with
- * its paintComponent method and the status JLabel).
+ *
+ * In a Model-View-Controller framework, GameBoard acts as both the controller
+ * (with a MouseListener) and the view (with its paintComponent method and the
+ * status JLabel). The model itself is run by a GameEngine on its own thread:
+ * clicks are submitted to the engine as moves, and the engine publishes
+ * snapshots of the changed tiles, which are copied into this board's own view
+ * of the tiles on the event dispatch thread. A long cascade or mine
+ * generation therefore never freezes the window, and clicks made while the
+ * engine is busy are played as one batch with a single repaint.
+ *
+ * The board is meant to live inside a JScrollPane. Like a JTable, it only
+ * paints the tiles inside the clip rectangle Swing hands it, so paint time
+ * depends on the size of the viewport and not the size of the board. At the
+ * closer zoom levels tiles are copied from pre-rendered sprites; at the
+ * farther ones each 8x8 pixel block stands for a square of tiles and is
+ * filled with a colour summarising a fixed sample of them. After each move
+ * only the rectangle around the tiles the model reports as changed is
+ * repainted.
  */
 @SuppressWarnings("serial")
-public class GameBoard extends JPanel {
+public class GameBoard extends JPanel implements Scrollable {
 
-    private Minesweeper grid; // model for the game
+    private final GameEngine engine; // runs the model for the game
     private JLabel status; // current status text
 
+    // view of the model, updated from the engine's snapshots on the EDT
+    private int rows;
+    private int cols;
+    private byte[] tiles = new byte[0]; // visible state of each tile, row-major
+
     // Game constants
-    public static final int BOARD_WIDTH = 500;
-    public static final int BOARD_HEIGHT = 500;
+    public static final int TILE_SIZE = 50;
+    private static final int[] TILE_SIZES = { 50, 32, 16, 8 }; // sprite zoom levels
+    private static final int BLOCK_SIZE = 8; // pixels per block when zoomed further out
+    private static final int BLOCK_SAMPLES = 4; // tiles sampled per block side
+    private static final int MAX_VIEWPORT = 800;
+
+    private static final Color COVERED = new Color(200, 200, 200);
+    private static final Color UNCOVERED = new Color(235, 235, 235);
+
+    private final TileSprites[] sprites = new TileSprites[TILE_SIZES.length];
+    private int zoomLevel = 0; // index into TILE_SIZES, or beyond it for block levels
 
     boolean isCtrlPressed = false;
+    private boolean chording = false; // whether a two-button chord is being released
 
     /**
-     * Initializes the game board.
+     * Initializes the game board with the default 10x10 game.
      */
     public GameBoard(JLabel statusInit) {
+        this(statusInit, new Minesweeper());
+    }
+
+    /**
+     * Initializes the game board around the given model, which is handed
+     * over to the board's engine and must not be touched again by the caller.
+     */
+    public GameBoard(JLabel statusInit, Minesweeper model) {
         // creates border around the court area, JComponent method
         setBorder(BorderFactory.createLineBorder(Color.BLACK));
 
@@ -42,8 +79,11 @@ public class GameBoard extends JPanel {
         // keyboard focus, key events are handled by its key listener.
         setFocusable(true);
 
-        grid = new Minesweeper(); // initializes model for the game
         status = statusInit; // initializes the status JLabel
+        rows = model.getRows();
+        cols = model.getCols();
+        // the engine thread publishes snapshots; apply them on the EDT
+        engine = new GameEngine(model, snapshot -> SwingUtilities.invokeLater(() -> apply(snapshot)));
 
         /*
          * Listens for mouseclicks. Updates the model, then updates the game
@@ -53,20 +93,43 @@ public class GameBoard extends JPanel {
             @Override
             public void mouseReleased(MouseEvent e) {
                 Point p = e.getPoint();
-                if (e.getButton() == MouseEvent.BUTTON1) { // left click
+                if (isBlockLevel()) { // tiles too small to click, zoom in instead
+                    zoom(-1, p);
+                    return;
+                }
+                int r = p.y / tileSize();
+                int c = p.x / tileSize();
+                int others = e.getModifiersEx()
+                        & (MouseEvent.BUTTON1_DOWN_MASK | MouseEvent.BUTTON3_DOWN_MASK);
+                if (chording) { // second button of a two-button chord, already played
+                    chording = others != 0;
+                    return;
+                }
+                if (e.getButton() == MouseEvent.BUTTON2) { // middle click chords
+                    engine.submit(Move.chord(r, c));
+                } else if (others != 0) { // left and right pressed together
+                    chording = true;
+                    engine.submit(Move.chord(r, c));
+                } else if (e.getButton() == MouseEvent.BUTTON1) { // left click
                     // updates the model given the coordinates of the mouseclick
                     if (isCtrlPressed) { // click + ctrl is flag
-                        grid.playFlag(p.y / 50, p.x / 50);
+                        engine.submit(Move.flag(r, c));
                     } else { // uncover
-                        grid.playTurn(p.y / 50, p.x / 50, true);
+                        engine.submit(Move.reveal(r, c));
                     }
                 } else if (e.getButton() == MouseEvent.BUTTON3) { // right click
-                    grid.playFlag(p.y / 50, p.x / 50);
+                    engine.submit(Move.flag(r, c));
                 }
+                // the status and tiles are updated when the engine's snapshot arrives
+            }
+        });
 
-
-                updateStatus(); // updates the status JLabel
-                repaint(); // repaints the game board
+        // ctrl + wheel zooms around the mouse, plain wheel scrolls as usual
+        addMouseWheelListener(e -> {
+            if (e.isControlDown()) {
+                zoom(e.getWheelRotation() > 0 ? 1 : -1, e.getPoint());
+            } else if (getParent() != null) {
+                getParent().dispatchEvent(SwingUtilities.convertMouseEvent(this, e, getParent()));
             }
         });
 
@@ -91,82 +154,315 @@ public class GameBoard extends JPanel {
      * (Re-)sets the game to its initial state.
      */
     public void reset() {
-        grid.reset();
-        status.setText("Player 1's Turn"); // change to number of bombs left
-        status.setText("Total Mines: 20");
-        repaint();
+        engine.submit(Move.reset());
 
         // Makes sure this component has keyboard/mouse focus
         requestFocusInWindow();
     }
 
+    /**
+     * Replaces the model with a new game of the given size, keeping the
+     * no-guess setting.
+     */
+    public void newGame(int rows, int cols, int mines) {
+        engine.newGame(rows, cols, mines);
+        requestFocusInWindow();
+    }
+
+    /**
+     * turns no-guess layouts on or off, starting from the next new game
+     */
+    public void setNoGuess(boolean noGuess) {
+        engine.setNoGuess(noGuess);
+        requestFocusInWindow();
+    }
+
     /**
      * calls back previous board
      */
     public void undo() {
-        grid.undo();
+        engine.submit(Move.undo());
+        requestFocusInWindow();
+    }
+
+    /**
+     * re-applies the most recently undone move
+     */
+    public void redo() {
+        engine.submit(Move.redo());
+        requestFocusInWindow();
+    }
+
+    /**
+     * Zooms in (negative steps) or out (positive steps), keeping the point
+     * anchor (in board coordinates) under the same spot of the viewport.
+     */
+    public void zoom(int steps, Point anchor) {
+        int level = Math.max(0, Math.min(zoomLevel + steps, maxZoomLevel()));
+        if (level == zoomLevel) {
+            return;
+        }
+        double before = cellPixels();
+        zoomLevel = level;
+        double ratio = cellPixels() / before;
+
+        Rectangle view = getVisibleRect();
+        Point focus = anchor != null ? anchor
+                : new Point(view.x + view.width / 2, view.y + view.height / 2);
+        int offsetX = focus.x - view.x;
+        int offsetY = focus.y - view.y;
+        revalidate();
+        Dimension size = getPreferredSize();
+        setSize(size); // so that scrollRectToVisible sees the new size right away
+        view.x = (int) (focus.x * ratio) - offsetX;
+        view.y = (int) (focus.y * ratio) - offsetY;
+        scrollRectToVisible(view);
         repaint();
-        updateStatus();
         requestFocusInWindow();
     }
 
+    /**
+     * Copies a snapshot from the engine into the view, then updates the
+     * status and repaints what changed. A snapshot of a board with new
+     * dimensions also picks a zoom level at which the board fits the window.
+     */
+    private void apply(BoardSnapshot snapshot) {
+        if (snapshot.getRows() != rows || snapshot.getCols() != cols
+                || tiles.length != rows * cols) {
+            rows = snapshot.getRows();
+            cols = snapshot.getCols();
+            tiles = new byte[rows * cols];
+            zoomLevel = 0;
+            while (zoomLevel < maxZoomLevel()
+                    && cellPixels() * Math.max(rows, cols) > MAX_VIEWPORT) {
+                zoomLevel++;
+            }
+            revalidate();
+        }
+        snapshot.applyTo(tiles);
+        updateStatus(snapshot);
+        repaintChanged(snapshot);
+    }
+
     /**
      * Updates the JLabel to reflect the current state of the game.
      */
-    private void updateStatus() {
-        if (grid.checkWinner()) {
+    private void updateStatus(BoardSnapshot snapshot) {
+        if (snapshot.isWon()) {
             status.setText("You won!");
-        } else if (!grid.getActive()) {
+        } else if (!snapshot.isActive()) {
             status.setText("You lost.. Reset or Undo to continue");
         } else {
-            status.setText("Total Mines: 20");
+            status.setText("Mines Left: " + snapshot.getMinesRemaining()
+                    + (snapshot.isNoGuessFallback() ? " (no guess-free layout found)" : ""));
         }
     }
 
+    private boolean isBlockLevel() {
+        return zoomLevel >= TILE_SIZES.length;
+    }
+
+    /**
+     * @return sprite size in pixels at the current (sprite) zoom level
+     */
+    private int tileSize() {
+        return TILE_SIZES[zoomLevel];
+    }
+
+    /**
+     * @return number of tiles along each side of a block at the current
+     *         (block) zoom level
+     */
+    private int tilesPerBlock() {
+        return 1 << (zoomLevel - TILE_SIZES.length + 1);
+    }
+
     /**
-     * Draws the game board.
+     * @return width and height of one tile on screen, which is below one
+     *         pixel at the farthest zoom levels
+     */
+    private double cellPixels() {
+        return isBlockLevel() ? (double) BLOCK_SIZE / tilesPerBlock() : tileSize();
+    }
+
+    /**
+     * @return the farthest zoom level, at which the whole board fits in a
+     *         single maximum-sized viewport
+     */
+    private int maxZoomLevel() {
+        int level = TILE_SIZES.length - 1;
+        int longest = Math.max(rows, cols);
+        while ((double) longest * BLOCK_SIZE / (1 << (level - TILE_SIZES.length + 1))
+                > MAX_VIEWPORT && level < 30) {
+            level++;
+        }
+        return level;
+    }
+
+    /**
+     * Schedules a repaint of the bounding box of the tiles listed in a
+     * snapshot, or of the whole board for a full snapshot.
+     */
+    private void repaintChanged(BoardSnapshot snapshot) {
+        int count = snapshot.getChangedCellCount();
+        if (snapshot.isFull()) {
+            repaint();
+            return;
+        } else if (count == 0) {
+            return;
+        }
+        int minR = Integer.MAX_VALUE;
+        int minC = Integer.MAX_VALUE;
+        int maxR = -1;
+        int maxC = -1;
+        for (int k = 0; k < count; k++) {
+            int r = snapshot.getChangedRow(k);
+            int c = snapshot.getChangedCol(k);
+            minR = Math.min(minR, r);
+            maxR = Math.max(maxR, r);
+            minC = Math.min(minC, c);
+            maxC = Math.max(maxC, c);
+        }
+        double cell = cellPixels();
+        int x = (int) Math.floor(minC * cell);
+        int y = (int) Math.floor(minR * cell);
+        int width = (int) Math.ceil((maxC + 1) * cell) - x + BLOCK_SIZE;
+        int height = (int) Math.ceil((maxR + 1) * cell) - y + BLOCK_SIZE;
+        repaint(x, y, width, height);
+    }
+
+    /**
+     * Draws the part of the game board inside the clip rectangle.
      */
     @Override
     public void paintComponent(Graphics g) {
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
         super.paintComponent(g);
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) {
+            clip = new Rectangle(0, 0, getWidth(), getHeight());
+        }
+        if (isBlockLevel()) {
+            paintBlocks(g, clip);
+        } else {
+            paintTiles(g, clip);
+        }
+        if (Metrics.ENABLED) {
+            Metrics.global().recordRepaint(System.nanoTime() - start);
+        }
+    }
 
-        // Draws board grid
-        for (int i = 50; i <= 500; i += 50) {
-            g.drawLine(i, 0, i, 500);
-            g.drawLine(0, i, 500, i);
+    private void paintTiles(Graphics g, Rectangle clip) {
+        int size = tileSize();
+        if (sprites[zoomLevel] == null) {
+            Font font = getFont().deriveFont(Math.max(6f, size * 12f / TILE_SIZE));
+            sprites[zoomLevel] = new TileSprites(size, getBackground(), font);
+        }
+        TileSprites images = sprites[zoomLevel];
+        int firstR = Math.max(clip.y / size, 0);
+        int lastR = Math.min((clip.y + clip.height - 1) / size, rows - 1);
+        int firstC = Math.max(clip.x / size, 0);
+        int lastC = Math.min((clip.x + clip.width - 1) / size, cols - 1);
+        for (int r = firstR; r <= lastR; r++) {
+            for (int c = firstC; c <= lastC; c++) {
+                g.drawImage(images.get(tileAt(r, c)), c * size, r * size, null);
+            }
         }
+    }
 
-        // draw numbers on grid
-        for (int i = 0; i < 10; i++) {
-            for (int j = 0; j < 10; j++) {
-                int state = grid.getCell(j, i);
-                if (state == -1) { // MINE
-                    g.setColor(Color.RED);
-                    g.fillRect(50 * i + 1, 50 * j + 1, 48, 48);
-                    g.setColor(Color.BLACK);
-                    g.drawString("(M)", 15 + 50 * i, 28 + 50 * j);
-                } else if (state == -3) { // FLAG
-                    g.setColor(Color.red);
-                    g.drawOval(15 + 50 * i, 15 + 50 * j, 20, 20);
-                    g.setColor(Color.BLACK);
-                } else if (state != -2) { // NUMBERED TILE
-                    g.setColor(Color.lightGray);
-                    g.fillRect(50 * i + 1, 50 * j + 1, 48, 48);
-                    g.setColor(Color.BLACK);
-                    if (state == 0) { // leave 0 tiles blank
-                        continue;
-                    }
-                    g.drawString(Integer.toString(state), 21 + 50 * i, 28 + 50 * j);
+    private void paintBlocks(Graphics g, Rectangle clip) {
+        int per = tilesPerBlock();
+        int blockRows = (rows + per - 1) / per;
+        int blockCols = (cols + per - 1) / per;
+        int firstR = Math.max(clip.y / BLOCK_SIZE, 0);
+        int lastR = Math.min((clip.y + clip.height - 1) / BLOCK_SIZE, blockRows - 1);
+        int firstC = Math.max(clip.x / BLOCK_SIZE, 0);
+        int lastC = Math.min((clip.x + clip.width - 1) / BLOCK_SIZE, blockCols - 1);
+        for (int br = firstR; br <= lastR; br++) {
+            for (int bc = firstC; bc <= lastC; bc++) {
+                g.setColor(blockColour(br * per, bc * per, per));
+                g.fillRect(bc * BLOCK_SIZE, br * BLOCK_SIZE, BLOCK_SIZE, BLOCK_SIZE);
+            }
+        }
+    }
+
+    /**
+     * Summarises a square of tiles from an evenly spread sample of at most
+     * BLOCK_SAMPLES x BLOCK_SAMPLES of them: red if a mine is showing,
+     * otherwise a mix of the covered and uncovered colours weighted by how
+     * much of the sample is uncovered, tinted orange if any of it is flagged.
+     */
+    private Color blockColour(int r0, int c0, int per) {
+        int step = Math.max(1, per / BLOCK_SAMPLES);
+        int uncovered = 0;
+        int flagged = 0;
+        int sampled = 0;
+        for (int r = r0 + step / 2; r < Math.min(r0 + per, rows); r += step) {
+            for (int c = c0 + step / 2; c < Math.min(c0 + per, cols); c += step) {
+                int state = tileAt(r, c);
+                if (state == -1) {
+                    return Color.RED;
+                } else if (state == -3) {
+                    flagged++;
+                } else if (state >= 0) {
+                    uncovered++;
                 }
+                sampled++;
             }
         }
+        if (flagged > 0) {
+            return Color.ORANGE;
+        }
+        float share = sampled == 0 ? 0 : (float) uncovered / sampled;
+        int shade = (int) (COVERED.getRed() + share * (UNCOVERED.getRed() - COVERED.getRed()));
+        return new Color(shade, shade, shade);
     }
 
     /**
-     * Returns the size of the game board.
+     * @return visible state of a tile, or covered if the first snapshot has
+     *         not arrived yet
+     */
+    private int tileAt(int r, int c) {
+        int i = r * cols + c;
+        return i < tiles.length ? tiles[i] : -2;
+    }
+
+    /**
+     * Returns the size of the game board at the current zoom level.
      */
     @Override
     public Dimension getPreferredSize() {
-        return new Dimension(BOARD_WIDTH, BOARD_HEIGHT);
+        double cell = cellPixels();
+        return new Dimension((int) Math.ceil(cols * cell),
+                (int) Math.ceil(rows * cell));
+    }
+
+    @Override
+    public Dimension getPreferredScrollableViewportSize() {
+        Dimension size = getPreferredSize();
+        return new Dimension(Math.min(size.width, MAX_VIEWPORT), Math.min(size.height, MAX_VIEWPORT));
+    }
+
+    @Override
+    public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return isBlockLevel() ? BLOCK_SIZE : tileSize();
+    }
+
+    @Override
+    public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction) {
+        int unit = getScrollableUnitIncrement(visibleRect, orientation, direction);
+        int extent = orientation == SwingConstants.VERTICAL ? visibleRect.height
+                : visibleRect.width;
+        return Math.max(unit, extent - unit);
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportWidth() {
+        return false;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportHeight() {
+        return false;
     }
 }
@@ -0,0 +1,177 @@
+package org.cis1200.minesweeper;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.Arrays;
+
+/**
+ * GameClient plays a game on a GameServer over the protocol described
+ * there. Each move blocks until the server's reply has been applied to the
+ * client's own copy of the visible tiles, which can then be read with
+ * getCell like a local Minesweeper game.
+ */
+public class GameClient implements Closeable {
+
+    private final Socket socket;
+    private final DataInputStream in;
+    private final DataOutputStream out;
+
+    private int rows;
+    private int cols;
+    private int numMines;
+    private byte[] tiles = new byte[0]; // visible state of each tile, row-major
+    private boolean active;
+    private boolean won;
+    private int minesRemaining;
+    private int lastChangeCount;
+
+    /**
+     * connects to a server
+     *
+     * @param host host name of the server
+     * @param port port of the server
+     * @throws IOException if the connection fails
+     */
+    public GameClient(String host, int port) throws IOException {
+        socket = new Socket(host, port);
+        socket.setTcpNoDelay(true);
+        in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+    }
+
+    /**
+     * starts a new game of the given size on the server
+     *
+     * @throws IOException if the connection fails or the server refuses the size
+     */
+    public void newGame(int rows, int cols, int mines, long seed) throws IOException {
+        out.writeByte(GameServer.NEW_GAME);
+        out.writeInt(rows);
+        out.writeInt(cols);
+        out.writeInt(mines);
+        out.writeLong(seed);
+        exchange();
+    }
+
+    public void reveal(int r, int c) throws IOException {
+        move(GameServer.REVEAL, r, c);
+    }
+
+    public void flag(int r, int c) throws IOException {
+        move(GameServer.FLAG, r, c);
+    }
+
+    public void chord(int r, int c) throws IOException {
+        move(GameServer.CHORD, r, c);
+    }
+
+    public void undo() throws IOException {
+        out.writeByte(GameServer.UNDO);
+        exchange();
+    }
+
+    public void redo() throws IOException {
+        out.writeByte(GameServer.REDO);
+        exchange();
+    }
+
+    public void reset() throws IOException {
+        out.writeByte(GameServer.RESET);
+        exchange();
+    }
+
+    private void move(byte opcode, int r, int c) throws IOException {
+        out.writeByte(opcode);
+        out.writeInt(r);
+        out.writeInt(c);
+        exchange();
+    }
+
+    /**
+     * sends the buffered request and applies the reply
+     */
+    private void exchange() throws IOException {
+        out.flush();
+        byte reply = in.readByte();
+        if (reply == GameServer.ERROR) {
+            throw new IOException("server refused the request, error " + in.readByte());
+        }
+        int status = in.readByte();
+        active = (status & GameServer.STATUS_ACTIVE) != 0;
+        won = (status & GameServer.STATUS_WON) != 0;
+        if (reply == GameServer.BOARD) {
+            rows = in.readInt();
+            cols = in.readInt();
+            numMines = in.readInt();
+            minesRemaining = numMines;
+            tiles = new byte[rows * cols];
+            Arrays.fill(tiles, (byte) -2);
+            lastChangeCount = tiles.length;
+            return;
+        } else if (reply != GameServer.DELTA) {
+            throw new IOException("unknown reply " + reply);
+        }
+        minesRemaining = in.readInt();
+        lastChangeCount = in.readInt();
+        for (int k = 0; k < lastChangeCount; k++) {
+            int tile = 0;
+            int shift = 0;
+            int b;
+            do {
+                b = in.readByte();
+                tile |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            tiles[tile] = in.readByte();
+        }
+    }
+
+    /**
+     * @return visible state of the tile at r, c, as in Minesweeper.getCell
+     */
+    public int getCell(int r, int c) {
+        return tiles[r * cols + c];
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    public int getNumMines() {
+        return numMines;
+    }
+
+    public int getMinesRemaining() {
+        return minesRemaining;
+    }
+
+    public boolean getActive() {
+        return active;
+    }
+
+    public boolean isWon() {
+        return won;
+    }
+
+    /**
+     * @return number of tiles listed in the last reply, or every tile after
+     *         a new game or reset
+     */
+    public int getLastChangeCount() {
+        return lastChangeCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+}
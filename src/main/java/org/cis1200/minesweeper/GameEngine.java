@@ -0,0 +1,174 @@
+package org.cis1200.minesweeper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+
+/**
+ * GameEngine plays a Minesweeper game on its own thread so that views never
+ * run the model themselves. Moves are handed over through a queue; the engine
+ * takes every move waiting in the queue as one batch, plays them in order and
+ * then publishes a single BoardSnapshot describing the tiles the batch
+ * changed. A burst of clicks therefore costs one snapshot and one repaint
+ * rather than one per click, and a long cascade or mine generation never
+ * blocks the thread that submitted it.
+ *
+ * Once an engine has been created, its game must only be touched through the
+ * engine. Snapshots are passed to the listener on the engine thread; a Swing
+ * view should hand them over to the event dispatch thread itself.
+ */
+public class GameEngine {
+
+    private final BlockingQueue<Runnable> queue = new LinkedBlockingQueue<>();
+    private final Consumer<BoardSnapshot> listener;
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    // owned by the engine thread
+    private Minesweeper game;
+    private final IntQueue batchCells = new IntQueue(); // tiles changed by the batch
+    private boolean batchReplaced = true; // whether the batch needs a full snapshot
+    private long version;
+
+    /**
+     * Creates an engine that takes ownership of the given game. The engine
+     * thread starts right away and publishes a full snapshot of the game.
+     *
+     * @param game game to play, which the caller must not touch again
+     * @param listener receives each snapshot on the engine thread
+     */
+    public GameEngine(Minesweeper game, Consumer<BoardSnapshot> listener) {
+        this.game = game;
+        this.listener = listener;
+        thread = new Thread(this::run, "minesweeper-engine");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * queues a move to be played on the engine thread
+     */
+    public void submit(Move move) {
+        queue.add(() -> move.applyTo(game));
+    }
+
+    /**
+     * queues the replacement of the game with a new one of the given size,
+     * keeping the no-guess setting
+     */
+    public void newGame(int rows, int cols, int mines) {
+        queue.add(() -> {
+            Minesweeper next = new Minesweeper(rows, cols, mines);
+            next.setNoGuess(game.isNoGuess());
+            game = next;
+            batchReplaced = true;
+        });
+    }
+
+    /**
+     * queues a change of the no-guess setting, which applies from the next
+     * new game
+     */
+    public void setNoGuess(boolean noGuess) {
+        queue.add(() -> game.setNoGuess(noGuess));
+    }
+
+    /**
+     * stops the engine thread once the batch it is playing is finished.
+     * Moves still in the queue are dropped.
+     */
+    public void shutdown() {
+        running = false;
+        thread.interrupt();
+    }
+
+    /**
+     * waits for the engine thread to stop after shutdown
+     */
+    public void awaitTermination() throws InterruptedException {
+        thread.join();
+    }
+
+    private void run() {
+        List<Runnable> batch = new ArrayList<>();
+        try {
+            publish(); // the initial full snapshot
+            while (running) {
+                batch.add(queue.take());
+                queue.drainTo(batch);
+                for (Runnable task : batch) {
+                    try {
+                        task.run();
+                    } catch (RuntimeException e) {
+                        // report a bad move without stopping the engine
+                        thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+                    }
+                    collectChanges();
+                }
+                batch.clear();
+                publish();
+            }
+        } catch (InterruptedException e) {
+            // shut down
+        }
+    }
+
+    /**
+     * adds the tiles changed by the last task to the batch. Once the batch
+     * has touched half of the board, a full snapshot is cheaper than the
+     * list of tiles, so the list is dropped.
+     */
+    private void collectChanges() {
+        if (game.isBoardReplaced()) {
+            batchReplaced = true;
+        }
+        if (batchReplaced) {
+            batchCells.clear();
+            return;
+        }
+        int cols = game.getCols();
+        int count = game.getChangedCellCount();
+        for (int k = 0; k < count; k++) {
+            batchCells.add(game.getChangedRow(k) * cols + game.getChangedCol(k));
+        }
+        if (batchCells.size() > game.getRows() * cols / 2) {
+            batchReplaced = true;
+            batchCells.clear();
+        }
+    }
+
+    /**
+     * publishes a snapshot of the tiles changed by the batch, or of the whole
+     * board if the batch replaced it, then starts a new batch
+     */
+    private void publish() {
+        int rows = game.getRows();
+        int cols = game.getCols();
+        int[] cells = null;
+        byte[] values;
+        if (batchReplaced) {
+            values = new byte[rows * cols];
+            for (int r = 0; r < rows; r++) {
+                for (int c = 0; c < cols; c++) {
+                    values[r * cols + c] = (byte) game.getCell(r, c);
+                }
+            }
+        } else {
+            cells = new int[batchCells.size()];
+            values = new byte[cells.length];
+            for (int k = 0; k < cells.length; k++) {
+                cells[k] = batchCells.get(k);
+                values[k] = (byte) game.getCell(cells[k] / cols, cells[k] % cols);
+            }
+        }
+        BoardSnapshot snapshot = new BoardSnapshot(version++, rows, cols, game.getNumMines(),
+                game.getMinesRemaining(), game.getActive(), game.checkWinner(),
+                game.isNoGuess() && !game.isFirstTurn() && !game.isGuaranteedSolvable(),
+                batchReplaced, cells, values);
+        batchCells.clear();
+        batchReplaced = false;
+        listener.accept(snapshot);
+    }
+}
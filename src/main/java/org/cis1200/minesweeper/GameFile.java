@@ -0,0 +1,344 @@
+package org.cis1200.minesweeper;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * GameFile reads and writes the binary save format for a Minesweeper game.
+ * All numbers are big-endian. A file is a fixed header followed by four
+ * sections, each starting right after the previous one:
+ *
+ * header (44 bytes): magic "MSWP", version (short), flags (short: bit 0 set
+ * if the mines have not been placed yet, bit 1 for no-guess mode, bit 2 if
+ * the no-guess search found the layout), rows,
+ * cols, mines, seed (long), undo capacity, journal moves, applied journal
+ * moves, journal entries.
+ *
+ * mines: one bit per tile in row-major order, packed into longs with tile
+ * 64 * j + k stored in bit k of long j.
+ *
+ * visible: four bits per tile in row-major order, holding the visible
+ * state plus 3, with the even tile of each pair in the low half of the byte.
+ *
+ * journal: the first entry of each move followed by the entry count (ints),
+ * the row-major tile of each entry (ints) and its value (bytes).
+ *
+ * A 100 million tile board takes about 60 MB. Reading maps each section of
+ * the file into memory and copies it out in bulk, row by row, straight into
+ * the game's padded layers; the numbers are then counted from the mines in
+ * one pass. Inconsistent files are rejected: a mine count that does not
+ * match the header, an uncovered tile that disagrees with the mines under
+ * and around it, or a journal entry that is not a tile state.
+ */
+final class GameFile {
+
+    static final int MAGIC = 0x4D535750; // "MSWP"
+    static final short VERSION = 1;
+    static final int HEADER_BYTES = 44;
+
+    private static final int FLAG_FIRST_TURN = 1;
+    private static final int FLAG_NO_GUESS = 2;
+    private static final int FLAG_GUARANTEED = 4;
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    private GameFile() {
+    }
+
+    /**
+     * writes the game to the file, replacing anything already there
+     */
+    static void write(Minesweeper game, Path file) throws IOException {
+        int rows = game.getRows();
+        int cols = game.getCols();
+        int stride = cols + 2;
+        byte[] board = game.mineLayer();
+        byte[] visible = game.visibleLayer();
+        UndoJournal journal = game.journal();
+        int moves = journal.moveCount();
+        int entries = journal.moveStart(moves);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer out = ByteBuffer.allocateDirect(BUFFER_BYTES);
+            out.putInt(MAGIC);
+            out.putShort(VERSION);
+            out.putShort((short) ((game.isFirstTurn() ? FLAG_FIRST_TURN : 0)
+                    | (game.isNoGuess() ? FLAG_NO_GUESS : 0)
+                    | (game.isGuaranteedSolvable() ? FLAG_GUARANTEED : 0)));
+            out.putInt(rows);
+            out.putInt(cols);
+            out.putInt(game.getNumMines());
+            out.putLong(game.getSeed());
+            out.putInt(journal.getMaxEntries());
+            out.putInt(moves);
+            out.putInt(journal.undoDepth());
+            out.putInt(entries);
+
+            // mines, 64 tiles per long
+            long bits = 0;
+            int k = 0;
+            for (int r = 0; r < rows; r++) {
+                int i = (r + 1) * stride + 1;
+                for (int c = 0; c < cols; c++, i++) {
+                    if (board[i] == -1) {
+                        bits |= 1L << k;
+                    }
+                    if (++k == 64) {
+                        ensure(channel, out, Long.BYTES).putLong(bits);
+                        bits = 0;
+                        k = 0;
+                    }
+                }
+            }
+            if (k > 0) {
+                ensure(channel, out, Long.BYTES).putLong(bits);
+            }
+
+            // visible tiles, two per byte
+            int pair = 0;
+            boolean high = false;
+            for (int r = 0; r < rows; r++) {
+                int i = (r + 1) * stride + 1;
+                for (int c = 0; c < cols; c++, i++) {
+                    int nibble = visible[i] + 3;
+                    if (high) {
+                        ensure(channel, out, 1).put((byte) (pair | nibble << 4));
+                    } else {
+                        pair = nibble;
+                    }
+                    high = !high;
+                }
+            }
+            if (high) {
+                ensure(channel, out, 1).put((byte) pair);
+            }
+
+            // journal, with padded indices converted to row-major tiles
+            for (int m = 0; m <= moves; m++) {
+                ensure(channel, out, Integer.BYTES).putInt(journal.moveStart(m));
+            }
+            for (int e = 0; e < entries; e++) {
+                int cell = journal.cellAt(e);
+                int tile = (cell / stride - 1) * cols + cell % stride - 1;
+                ensure(channel, out, Integer.BYTES).putInt(tile);
+            }
+            for (int e = 0; e < entries; e++) {
+                ensure(channel, out, 1).put(journal.valueAt(e));
+            }
+            flush(channel, out);
+        }
+    }
+
+    /**
+     * @return out, after writing it to the channel first if it has fewer than
+     *         the given number of bytes left
+     */
+    private static ByteBuffer ensure(FileChannel channel, ByteBuffer out, int bytes)
+            throws IOException {
+        if (out.remaining() < bytes) {
+            flush(channel, out);
+        }
+        return out;
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer out) throws IOException {
+        out.flip();
+        while (out.hasRemaining()) {
+            channel.write(out);
+        }
+        out.clear();
+    }
+
+    /**
+     * reads a game written by write()
+     *
+     * @throws IOException if the file cannot be read, is not a save file, has
+     *                     an unknown version or is truncated
+     */
+    static Minesweeper read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length < HEADER_BYTES) {
+                throw new IOException("not a Minesweeper save file: " + file);
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+            if (header.getInt() != MAGIC) {
+                throw new IOException("not a Minesweeper save file: " + file);
+            }
+            short version = header.getShort();
+            if (version != VERSION) {
+                throw new IOException("unsupported save file version " + version);
+            }
+            int flags = header.getShort();
+            int rows = header.getInt();
+            int cols = header.getInt();
+            int numMines = header.getInt();
+            long seed = header.getLong();
+            int capacity = header.getInt();
+            int moves = header.getInt();
+            int applied = header.getInt();
+            int entries = header.getInt();
+
+            Minesweeper game;
+            try {
+                game = new Minesweeper(rows, cols, numMines, seed);
+                game.setUndoCapacity(capacity);
+            } catch (IllegalArgumentException e) {
+                throw new IOException("corrupt save file header", e);
+            }
+            if (moves < 0 || entries < 0 || applied < 0 || applied > moves) {
+                throw new IOException("corrupt save file header");
+            }
+            game.setNoGuess((flags & FLAG_NO_GUESS) != 0);
+
+            long tiles = (long) rows * cols;
+            long minesAt = HEADER_BYTES;
+            long visibleAt = minesAt + (tiles + 63) / 64 * Long.BYTES;
+            long journalAt = visibleAt + (tiles + 1) / 2;
+            long expected = journalAt + (moves + 1L) * Integer.BYTES
+                    + (long) entries * (Integer.BYTES + 1);
+            if (length != expected) {
+                throw new IOException("save file is " + length + " bytes, expected " + expected);
+            }
+
+            readMines(channel, minesAt, game, (flags & FLAG_FIRST_TURN) != 0);
+            readVisible(channel, visibleAt, game, (flags & FLAG_FIRST_TURN) != 0);
+            readJournal(channel, journalAt, moves, applied, entries, game);
+            game.restored((flags & FLAG_FIRST_TURN) != 0);
+            game.setGuaranteedSolvable((flags & FLAG_GUARANTEED) != 0);
+            return game;
+        }
+    }
+
+    /**
+     * copies the mine bits into the board layer a row of words at a time,
+     * then counts the numbers around them in one pass
+     *
+     * @param firstTurn whether the header says the mines are not placed yet
+     */
+    private static void readMines(FileChannel channel, long at, Minesweeper game,
+            boolean firstTurn) throws IOException {
+        int rows = game.getRows();
+        int cols = game.getCols();
+        int stride = cols + 2;
+        long tiles = (long) rows * cols;
+        byte[] board = game.mineLayer();
+        LongBuffer words = channel.map(FileChannel.MapMode.READ_ONLY, at,
+                (tiles + 63) / 64 * Long.BYTES).asLongBuffer();
+        long[] chunk = new long[Math.min(words.limit(), BUFFER_BYTES / Long.BYTES)];
+        int placed = 0;
+        for (int from = 0; from < words.limit(); from += chunk.length) {
+            int count = Math.min(chunk.length, words.limit() - from);
+            words.get(from, chunk, 0, count);
+            for (int j = 0; j < count; j++) {
+                long bits = chunk[j];
+                while (bits != 0) {
+                    long tile = (long) (from + j) * 64 + Long.numberOfTrailingZeros(bits);
+                    bits &= bits - 1;
+                    if (tile >= tiles) {
+                        throw new IOException("mine outside the board");
+                    }
+                    int r = (int) (tile / cols);
+                    board[(r + 1) * stride + (int) (tile - (long) r * cols) + 1] = -1;
+                    placed++;
+                }
+            }
+        }
+        if (placed != game.getNumMines() && (placed != 0 || !firstTurn)) {
+            throw new IOException("save file has " + placed + " mines, expected "
+                    + game.getNumMines());
+        }
+        if (placed > 0) {
+            game.populateBoard();
+        }
+    }
+
+    /**
+     * copies each row's packed bytes out of the mapped section in bulk and
+     * unpacks them straight into the padded visible layer. Every uncovered
+     * tile is checked against the board layer counted by readMines.
+     *
+     * @param firstTurn whether the header says the mines are not placed yet,
+     *                  in which case nothing may be uncovered
+     */
+    private static void readVisible(FileChannel channel, long at, Minesweeper game,
+            boolean firstTurn) throws IOException {
+        int rows = game.getRows();
+        int cols = game.getCols();
+        int stride = cols + 2;
+        byte[] board = game.mineLayer();
+        byte[] visible = game.visibleLayer();
+        MappedByteBuffer packed = channel.map(FileChannel.MapMode.READ_ONLY, at,
+                ((long) rows * cols + 1) / 2);
+        byte[] row = new byte[cols / 2 + 2];
+        long tile = 0;
+        for (int r = 0; r < rows; r++, tile += cols) {
+            int first = (int) (tile >>> 1);
+            int length = (int) ((tile + cols + 1) >>> 1) - first;
+            packed.get(first, row, 0, length);
+            int nibble = (int) (tile & 1); // the row may start in a high half
+            int i = (r + 1) * stride + 1;
+            for (int c = 0; c < cols; c++, nibble++) {
+                int value = row[nibble >>> 1] >> ((nibble & 1) << 2) & 0xF;
+                if (value > 11) {
+                    throw new IOException("invalid tile state " + (value - 3));
+                }
+                byte state = (byte) (value - 3);
+                if (state >= -1 && (firstTurn || state != board[i + c])) {
+                    throw new IOException("uncovered tile " + r + ", " + c + " shows " + state
+                            + " but the board has " + board[i + c]);
+                }
+                visible[i + c] = state;
+            }
+        }
+    }
+
+    private static void readJournal(FileChannel channel, long at, int moves, int applied,
+            int entries, Minesweeper game) throws IOException {
+        int cols = game.getCols();
+        int stride = cols + 2;
+        long tiles = (long) game.getRows() * cols;
+        ByteBuffer section = channel.map(FileChannel.MapMode.READ_ONLY, at,
+                (moves + 1L) * Integer.BYTES + (long) entries * (Integer.BYTES + 1));
+
+        int[] starts = new int[moves + 2];
+        section.asIntBuffer().get(starts, 0, moves + 1);
+        if (starts[0] != 0 || starts[moves] != entries) {
+            throw new IOException("corrupt journal");
+        }
+        for (int m = 0; m < moves; m++) {
+            if (starts[m] > starts[m + 1]) {
+                throw new IOException("corrupt journal");
+            }
+        }
+        section.position((moves + 1) * Integer.BYTES);
+        int[] cells = new int[entries];
+        section.asIntBuffer().get(cells);
+        for (int e = 0; e < entries; e++) {
+            int tile = cells[e];
+            if (tile < 0 || tile >= tiles) {
+                throw new IOException("corrupt journal");
+            }
+            int r = tile / cols;
+            cells[e] = (r + 1) * stride + tile - r * cols + 1;
+        }
+        section.position((moves + 1) * Integer.BYTES + entries * Integer.BYTES);
+        byte[] values = new byte[entries];
+        section.get(values);
+        for (byte value : values) {
+            if (value < -3 || value > 8) {
+                throw new IOException("invalid tile state " + value + " in journal");
+            }
+        }
+        try {
+            game.journal().load(starts, moves, applied, cells, values);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("corrupt journal", e);
+        }
+    }
+}
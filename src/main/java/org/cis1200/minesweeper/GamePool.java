@@ -0,0 +1,158 @@
+package org.cis1200.minesweeper;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * GamePool hands out Minesweeper games for workloads that play many games
+ * one after another, such as simulations and the game server. A released
+ * game keeps its layers, undo journal, reveal queues, mine placer and random
+ * generator, and the next acquire of the same size resets it in place, so a
+ * steady stream of games allocates close to nothing.
+ *
+ * Acquire prefers an idle game of the requested size, then any idle game
+ * (which is resized and so reallocates its layers), and only creates a game
+ * when none is idle. At most maxIdle games are kept; further releases are
+ * dropped for the garbage collector. The pool is thread-safe, but a game
+ * must only be used by one thread at a time while it is acquired.
+ */
+public class GamePool {
+
+    public static final int DEFAULT_MAX_IDLE = 64;
+
+    private final List<Minesweeper> idle = new ArrayList<>();
+    private final int maxIdle;
+    private volatile int undoCapacity = UndoJournal.DEFAULT_MAX_ENTRIES;
+    private long created;
+    private long reused;
+    private long resized;
+
+    public GamePool() {
+        this(DEFAULT_MAX_IDLE);
+    }
+
+    /**
+     * @param maxIdle largest number of released games to keep for reuse
+     */
+    public GamePool(int maxIdle) {
+        if (maxIdle < 0) {
+            throw new IllegalArgumentException("maxIdle must not be negative");
+        }
+        this.maxIdle = maxIdle;
+    }
+
+    /**
+     * gets a fresh game, as if from new Minesweeper(rows, cols, numMines, seed)
+     * followed by setUndoCapacity with the pool's undo capacity
+     *
+     * @throws IllegalArgumentException if the size or number of mines is invalid
+     */
+    public Minesweeper acquire(int rows, int cols, int numMines, long seed) {
+        Minesweeper game = null;
+        synchronized (this) {
+            for (int k = idle.size() - 1; k >= 0; k--) {
+                Minesweeper candidate = idle.get(k);
+                if (candidate.getRows() == rows && candidate.getCols() == cols) {
+                    game = candidate;
+                    idle.set(k, idle.get(idle.size() - 1));
+                    idle.remove(idle.size() - 1);
+                    reused++;
+                    break;
+                }
+            }
+            if (game == null && !idle.isEmpty()) {
+                game = idle.remove(idle.size() - 1);
+                resized++;
+            } else if (game == null) {
+                created++;
+            }
+        }
+        if (game == null) {
+            game = new Minesweeper(rows, cols, numMines, seed);
+        } else {
+            game.reuse(rows, cols, numMines, seed);
+        }
+        game.setUndoCapacity(undoCapacity);
+        return game;
+    }
+
+    /**
+     * sets the undo capacity of every game acquired from now on, for pools
+     * whose games should hold less history than the default
+     *
+     * @param maxCells maximum number of tile changes a game's undo history
+     *            may hold
+     * @throws IllegalArgumentException if maxCells is not positive
+     */
+    public void setUndoCapacity(int maxCells) {
+        if (maxCells <= 0) {
+            throw new IllegalArgumentException("undo capacity must be positive");
+        }
+        undoCapacity = maxCells;
+    }
+
+    /**
+     * returns a game to the pool. The caller must not use it afterwards.
+     *
+     * @param game game obtained from acquire, or null
+     */
+    public void release(Minesweeper game) {
+        if (game == null) {
+            return;
+        }
+        game.setRecorder(null); // a released game must not report to its old owner
+        synchronized (this) {
+            if (idle.size() < maxIdle) {
+                idle.add(game);
+            }
+        }
+    }
+
+    /**
+     * @return number of games waiting to be reused
+     */
+    public synchronized int getIdleCount() {
+        return idle.size();
+    }
+
+    /**
+     * @return number of acquires that had to create a new game
+     */
+    public synchronized long getCreatedCount() {
+        return created;
+    }
+
+    /**
+     * @return number of acquires served by an idle game of the same size
+     */
+    public synchronized long getReusedCount() {
+        return reused;
+    }
+
+    /**
+     * @return number of acquires served by an idle game of another size
+     */
+    public synchronized long getResizedCount() {
+        return resized;
+    }
+
+    /**
+     * reads the number of bytes the current thread has allocated so far,
+     * for measuring the allocation rate of a piece of code. Relies on the
+     * HotSpot extension of ThreadMXBean.
+     *
+     * @return bytes allocated by this thread, or -1 if the JVM does not
+     *         measure allocation per thread
+     */
+    public static long threadAllocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean hotspot
+                && hotspot.isThreadAllocatedMemorySupported()
+                && hotspot.isThreadAllocatedMemoryEnabled()) {
+            return hotspot.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+}
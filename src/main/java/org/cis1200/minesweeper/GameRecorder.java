@@ -0,0 +1,51 @@
+package org.cis1200.minesweeper;
+
+/**
+ * A GameRecorder is told about every move played on the Minesweeper game it
+ * is attached to, in the order the moves are played, so that the game can be
+ * reproduced later. Calls are made on the thread playing the game while the
+ * move is being played, so a recorder must not call back into the game.
+ */
+public interface GameRecorder {
+
+    /**
+     * called before the first reveal of a game places its mines
+     *
+     * @param seed seed the mine layout is generated from
+     */
+    void seed(long seed);
+
+    /**
+     * called for playTurn on a tile of an active game
+     *
+     * @param r row of the tile
+     * @param c column of the tile
+     * @param newMove whether the turn starts a new undoable move
+     */
+    void reveal(int r, int c, boolean newMove);
+
+    /**
+     * called for playFlag on a tile of an active game
+     */
+    void flag(int r, int c);
+
+    /**
+     * called for playChord on a numbered tile whose flags match its number
+     */
+    void chord(int r, int c);
+
+    /**
+     * called when undo reverts a move
+     */
+    void undo();
+
+    /**
+     * called when redo re-applies a move
+     */
+    void redo();
+
+    /**
+     * called when the game is reset
+     */
+    void reset();
+}
@@ -0,0 +1,380 @@
+package org.cis1200.minesweeper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+
+/**
+ * GameServer hosts one Minesweeper game per TCP connection. A single thread
+ * serves every connection through an NIO selector, so an idle session costs
+ * nothing but its game and two small buffers.
+ *
+ * Requests are one opcode byte followed by big-endian ints:
+ * NEW_GAME rows cols mines seed(long); REVEAL, FLAG and CHORD row col;
+ * UNDO, REDO and RESET have no arguments. Each request gets one reply:
+ *
+ * BOARD status rows(int) cols(int) mines(int), after NEW_GAME or RESET,
+ * meaning every tile is covered;
+ * DELTA status minesRemaining(int) count(int), followed by count pairs of
+ * a varint row-major tile index and the tile's new visible state (byte);
+ * ERROR code(byte), if the request could not be played.
+ *
+ * The status byte has bit 0 set while the game is active and bit 1 once it
+ * is won. Only the tiles a move changed are sent. A large delta is streamed
+ * through the session's fixed output buffer, and no further requests are
+ * read from that session until it has been sent, so a session never holds
+ * more than its buffers and its game however much it sends or receives.
+ * Session games keep a short undo history (DEFAULT_UNDO_CELLS tile changes
+ * unless configured), instead of the default of millions.
+ * Games of closed sessions and replaced games go back to a GamePool for
+ * the next NEW_GAME.
+ */
+public class GameServer implements Closeable {
+
+    // requests
+    static final byte NEW_GAME = 1;
+    static final byte REVEAL = 2;
+    static final byte FLAG = 3;
+    static final byte CHORD = 4;
+    static final byte UNDO = 5;
+    static final byte REDO = 6;
+    static final byte RESET = 7;
+
+    // replies
+    static final byte BOARD = 1;
+    static final byte DELTA = 2;
+    static final byte ERROR = 3;
+
+    // error codes
+    static final byte NO_GAME = 1;
+    static final byte BAD_SIZE = 2;
+
+    static final int STATUS_ACTIVE = 1;
+    static final int STATUS_WON = 2;
+
+    public static final int DEFAULT_MAX_CELLS = 1 << 20;
+    public static final int DEFAULT_UNDO_CELLS = 1 << 14; // about 80 KB of history
+    private static final int IN_BYTES = 64; // fits the longest request twice over
+    private static final int OUT_BYTES = 4096;
+    private static final int MAX_ENTRY_BYTES = 6; // 5-byte varint and a value
+
+    private final ServerSocketChannel server;
+    private final Selector selector;
+    private final Thread thread;
+    private final int maxCells;
+    private final GamePool pool = new GamePool();
+    private volatile boolean running = true;
+    private volatile int sessions;
+
+    /**
+     * starts a server listening on the given address with the default limit
+     * on board size
+     *
+     * @param address address to bind, port 0 for any free port
+     * @throws IOException if the address cannot be bound
+     */
+    public GameServer(InetSocketAddress address) throws IOException {
+        this(address, DEFAULT_MAX_CELLS);
+    }
+
+    /**
+     * starts a server listening on the given address
+     *
+     * @param address address to bind, port 0 for any free port
+     * @param maxCells largest board (rows * cols) a session may create
+     * @throws IOException if the address cannot be bound
+     */
+    public GameServer(InetSocketAddress address, int maxCells) throws IOException {
+        this(address, maxCells, DEFAULT_UNDO_CELLS);
+    }
+
+    /**
+     * starts a server listening on the given address
+     *
+     * @param address address to bind, port 0 for any free port
+     * @param maxCells largest board (rows * cols) a session may create
+     * @param undoCells tile changes each session's undo history may hold;
+     *            older moves are forgotten
+     * @throws IOException if the address cannot be bound
+     */
+    public GameServer(InetSocketAddress address, int maxCells, int undoCells)
+            throws IOException {
+        this.maxCells = maxCells;
+        pool.setUndoCapacity(undoCells);
+        selector = Selector.open();
+        server = ServerSocketChannel.open();
+        server.bind(address);
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+        thread = new Thread(this::run, "minesweeper-server");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * @return the port the server listens on
+     */
+    public int getPort() {
+        return server.socket().getLocalPort();
+    }
+
+    /**
+     * @return number of connected sessions
+     */
+    public int getSessionCount() {
+        return sessions;
+    }
+
+    /**
+     * closes every session and stops the server thread
+     */
+    @Override
+    public void close() throws IOException {
+        running = false;
+        selector.wakeup();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        try {
+            while (running) {
+                selector.select();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    try {
+                        if (key.isAcceptable()) {
+                            accept();
+                        } else {
+                            Session session = (Session) key.attachment();
+                            if (key.isReadable()) {
+                                session.read();
+                            } else if (key.isWritable()) {
+                                session.write();
+                            }
+                        }
+                    } catch (IOException e) {
+                        close(key); // the connection failed or broke the protocol
+                    }
+                }
+            }
+        } catch (IOException e) {
+            // the selector failed, shut down
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                close(key);
+            }
+            try {
+                selector.close();
+            } catch (IOException e) {
+                // nothing left to release
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = server.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        channel.socket().setTcpNoDelay(true);
+        SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+        key.attach(new Session(key, channel));
+        sessions++;
+    }
+
+    private void close(SelectionKey key) {
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException e) {
+            // already gone
+        }
+        if (key.attachment() instanceof Session session) {
+            pool.release(session.game);
+            key.attach(null);
+            sessions--;
+        }
+    }
+
+    /**
+     * @return length of the request starting with the given opcode
+     * @throws IOException if the opcode is unknown
+     */
+    private static int requestLength(byte opcode) throws IOException {
+        return switch (opcode) {
+            case NEW_GAME -> 1 + 3 * Integer.BYTES + Long.BYTES;
+            case REVEAL, FLAG, CHORD -> 1 + 2 * Integer.BYTES;
+            case UNDO, REDO, RESET -> 1;
+            default -> throw new IOException("unknown request " + opcode);
+        };
+    }
+
+    /**
+     * One connection and its game.
+     */
+    private final class Session {
+        private final SelectionKey key;
+        private final SocketChannel channel;
+        private final ByteBuffer in = ByteBuffer.allocate(IN_BYTES);
+        private final ByteBuffer out = ByteBuffer.allocate(OUT_BYTES);
+        private Minesweeper game;
+        private int cursor; // next changed tile of the delta being sent
+        private int total; // tiles in the delta being sent
+
+        Session(SelectionKey key, SocketChannel channel) {
+            this.key = key;
+            this.channel = channel;
+        }
+
+        void read() throws IOException {
+            if (channel.read(in) < 0) {
+                throw new IOException("connection closed");
+            }
+            process();
+        }
+
+        /**
+         * plays every complete request in the input buffer, stopping early
+         * if a reply does not fit in the output buffer
+         */
+        private void process() throws IOException {
+            in.flip();
+            while (in.hasRemaining() && !pending()) {
+                int length = requestLength(in.get(in.position()));
+                if (in.remaining() < length) {
+                    break;
+                }
+                handle(in.get());
+                flush();
+            }
+            in.compact();
+            key.interestOps(pending() ? SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+        }
+
+        private boolean pending() {
+            return out.position() > 0 || cursor < total;
+        }
+
+        private void handle(byte opcode) {
+            if (opcode == NEW_GAME) {
+                int rows = in.getInt();
+                int cols = in.getInt();
+                int mines = in.getInt();
+                long seed = in.getLong();
+                if (rows <= 0 || cols <= 0 || (long) rows * cols > maxCells
+                        || mines < 0 || mines >= rows * cols) {
+                    error(BAD_SIZE);
+                    return;
+                }
+                pool.release(game);
+                game = pool.acquire(rows, cols, mines, seed);
+                board();
+                return;
+            }
+            int r = 0;
+            int c = 0;
+            if (opcode == REVEAL || opcode == FLAG || opcode == CHORD) {
+                r = in.getInt();
+                c = in.getInt();
+            }
+            if (game == null) {
+                error(NO_GAME);
+                return;
+            }
+            switch (opcode) {
+                case REVEAL -> game.playTurn(r, c, true);
+                case FLAG -> game.playFlag(r, c);
+                case CHORD -> game.playChord(r, c);
+                case UNDO -> game.undo();
+                case REDO -> game.redo();
+                default -> {
+                    game.reset();
+                    board();
+                    return;
+                }
+            }
+            out.put(DELTA);
+            out.put(status());
+            out.putInt(game.getMinesRemaining());
+            out.putInt(game.getChangedCellCount());
+            cursor = 0;
+            total = game.getChangedCellCount();
+            fill();
+        }
+
+        private byte status() {
+            return (byte) ((game.getActive() ? STATUS_ACTIVE : 0)
+                    | (game.checkWinner() ? STATUS_WON : 0));
+        }
+
+        private void board() {
+            out.put(BOARD);
+            out.put(status());
+            out.putInt(game.getRows());
+            out.putInt(game.getCols());
+            out.putInt(game.getNumMines());
+        }
+
+        private void error(byte code) {
+            out.put(ERROR);
+            out.put(code);
+        }
+
+        /**
+         * copies as many changed tiles of the current delta into the output
+         * buffer as fit. The game does not change until the whole delta has
+         * been sent, because no requests are read in the meantime.
+         */
+        private void fill() {
+            if (cursor >= total) {
+                return; // no delta, or a board or error reply
+            }
+            int cols = game.getCols();
+            while (cursor < total && out.remaining() >= MAX_ENTRY_BYTES) {
+                int r = game.getChangedRow(cursor);
+                int c = game.getChangedCol(cursor);
+                int tile = r * cols + c;
+                while ((tile & ~0x7F) != 0) {
+                    out.put((byte) (tile & 0x7F | 0x80));
+                    tile >>>= 7;
+                }
+                out.put((byte) tile);
+                out.put((byte) game.getCell(r, c));
+                cursor++;
+            }
+        }
+
+        private void flush() throws IOException {
+            while (pending()) {
+                out.flip();
+                channel.write(out);
+                boolean stalled = out.hasRemaining();
+                out.compact();
+                if (stalled) {
+                    return; // the socket is full, wait until it is writable
+                }
+                fill();
+            }
+        }
+
+        void write() throws IOException {
+            flush();
+            if (!pending()) {
+                process(); // requests that arrived while the reply was sent
+            }
+        }
+    }
+}
@@ -0,0 +1,501 @@
+package org.cis1200.minesweeper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * InfiniteMinesweeper is a board without edges. The plane is divided into
+ * CHUNK_SIZE x CHUNK_SIZE chunks, and the mines of a chunk are placed only
+ * when the chunk is first touched, from a seed derived from the world seed
+ * and the chunk's coordinates alone. The same world therefore always has
+ * the same mines, whatever order it is explored in.
+ *
+ * Chunks live in an LRU cache of a fixed number of chunks. When it overflows
+ * the least recently used chunks are evicted: a chunk nobody has played on is
+ * simply dropped, since it can be generated again, and a chunk with uncovered
+ * tiles or flags is spilled to a file of four bits per tile and read back
+ * the next time it is touched. The chunks in memory therefore stay bounded
+ * however far the player explores. The keys of spilled chunks are kept in
+ * a primitive hash set of 16 to 32 bytes per chunk, next to the chunk's
+ * 2 KB file on disk, so they take under 2% of what was spilled.
+ *
+ * The chunk of the previous lookup is remembered, so the neighbour walks of
+ * a cascade, which stay in one chunk almost all the time, skip the cache.
+ * Interior tiles count their mines from the chunk's mine rows directly.
+ *
+ * Cascades flow across chunk borders. A single reveal stops after
+ * maxCascade tiles; the 0 tiles at its edge stay uncovered with covered
+ * neighbours, and clicking next to them continues it. The player starts at
+ * (START, START), whose neighbourhood is always free of mines. Hitting a
+ * mine ends the game.
+ *
+ * Instances are not thread-safe.
+ */
+public class InfiniteMinesweeper implements Closeable {
+
+    public static final int CHUNK_BITS = 6;
+    public static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    public static final int START = CHUNK_SIZE / 2;
+    public static final double DEFAULT_DENSITY = 0.16;
+    public static final int DEFAULT_CACHE_CHUNKS = 256;
+    public static final int DEFAULT_MAX_CASCADE = 1 << 20;
+
+    private static final int CHUNK_TILES = CHUNK_SIZE * CHUNK_SIZE;
+    private static final int MASK = CHUNK_SIZE - 1;
+    // never a chunk key: chunk rows fit in 26 bits
+    private static final long NO_KEY = Long.MIN_VALUE;
+
+    private final long seed;
+    private final int minesPerChunk;
+    private final int cacheChunks;
+    private final Path spillDir;
+    private final boolean ownsSpillDir;
+    private int maxCascade = DEFAULT_MAX_CASCADE;
+
+    // access-ordered, so iteration starts at the least recently used chunk
+    private final LinkedHashMap<Long, Chunk> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private final LongSet spilled = new LongSet(); // keys of chunks with a file on disk
+    // the chunk returned by the previous lookup. It is the most recently used
+    // entry of the cache until the next lookup, and trim() forgets it.
+    private long lastKey = NO_KEY;
+    private Chunk lastChunk;
+
+    private final MinePlacer minePlacer = new MinePlacer();
+    private final SplitMix64 random = new SplitMix64(0);
+    private long[] queue = new long[64]; // packed tiles waiting in a cascade
+
+    private boolean active = true;
+    private long uncovered;
+    private long flags;
+
+    /**
+     * starts a world with the default mine density and cache size, spilling
+     * to a temporary directory that close() deletes
+     *
+     * @param seed world seed
+     * @throws IOException if the temporary directory cannot be created
+     */
+    public InfiniteMinesweeper(long seed) throws IOException {
+        this(seed, DEFAULT_DENSITY, DEFAULT_CACHE_CHUNKS, null);
+    }
+
+    /**
+     * @param seed world seed
+     * @param density fraction of tiles holding a mine, below one half
+     * @param cacheChunks chunks kept in memory between moves
+     * @param spillDir directory for evicted chunks, or null for a temporary
+     *                 directory that close() deletes
+     * @throws IOException if the temporary directory cannot be created
+     */
+    public InfiniteMinesweeper(long seed, double density, int cacheChunks, Path spillDir)
+            throws IOException {
+        if (!(density >= 0 && density < 0.5)) {
+            throw new IllegalArgumentException("invalid mine density " + density);
+        }
+        if (cacheChunks <= 0) {
+            throw new IllegalArgumentException("cache must hold at least one chunk");
+        }
+        this.seed = seed;
+        this.minesPerChunk = (int) Math.round(density * CHUNK_TILES);
+        this.cacheChunks = cacheChunks;
+        this.ownsSpillDir = spillDir == null;
+        this.spillDir = ownsSpillDir ? Files.createTempDirectory("minesweeper-chunks") : spillDir;
+    }
+
+    /**
+     * uncovers a tile, and if it has no neighbouring mines every connected
+     * 0 tile and its border, up to maxCascade tiles
+     *
+     * @param r row of the tile, any int
+     * @param c column of the tile, any int
+     * @return number of tiles uncovered
+     * @throws UncheckedIOException if a spilled chunk cannot be read or written
+     */
+    public int reveal(int r, int c) {
+        if (!active || chunk(r, c).visible[local(r, c)] != -2) {
+            return 0;
+        }
+        if (isMine(r, c)) {
+            chunk(r, c).set(local(r, c), (byte) -1);
+            active = false;
+            trim();
+            return 0;
+        }
+        int head = 0;
+        int tail = 0;
+        int opened = 0;
+        queue[tail++] = pack(r, c);
+        chunk(r, c).set(local(r, c), (byte) -5); // queued, replaced by its number
+        while (head < tail) {
+            long tile = queue[head++];
+            int tr = (int) (tile >> 32);
+            int tc = (int) tile;
+            byte number = (byte) countMines(tr, tc);
+            chunk(tr, tc).set(local(tr, tc), number);
+            opened++;
+            if (number != 0) {
+                continue;
+            }
+            for (int dr = -1; dr <= 1; dr++) {
+                for (int dc = -1; dc <= 1; dc++) {
+                    int nr = tr + dr;
+                    int nc = tc + dc;
+                    Chunk n = chunk(nr, nc);
+                    int i = local(nr, nc);
+                    if (n.visible[i] == -2 && opened + (tail - head) < maxCascade) {
+                        n.set(i, (byte) -5);
+                        if (tail == queue.length) {
+                            long[] grown = new long[queue.length * 2];
+                            System.arraycopy(queue, head, grown, 0, tail - head);
+                            tail -= head;
+                            head = 0;
+                            queue = grown;
+                        }
+                        queue[tail++] = pack(nr, nc);
+                    }
+                }
+            }
+        }
+        uncovered += opened;
+        trim();
+        return opened;
+    }
+
+    /**
+     * places a flag on a covered tile or removes one
+     *
+     * @return true if the tile was covered or flagged
+     * @throws UncheckedIOException if a spilled chunk cannot be read or written
+     */
+    public boolean toggleFlag(int r, int c) {
+        if (!active) {
+            return false;
+        }
+        Chunk chunk = chunk(r, c);
+        int i = local(r, c);
+        boolean changed = true;
+        if (chunk.visible[i] == -2) {
+            chunk.set(i, (byte) -3);
+            flags++;
+        } else if (chunk.visible[i] == -3) {
+            chunk.set(i, (byte) -2);
+            flags--;
+        } else {
+            changed = false;
+        }
+        trim();
+        return changed;
+    }
+
+    /**
+     * @return visible state of the tile, as in Minesweeper.getCell
+     * @throws UncheckedIOException if a spilled chunk cannot be read
+     */
+    public int getCell(int r, int c) {
+        int cell = chunk(r, c).visible[local(r, c)];
+        trim();
+        return cell;
+    }
+
+    /**
+     * @return whether a mine lies under the tile
+     */
+    boolean isMine(int r, int c) {
+        Chunk chunk = chunk(r, c);
+        return (chunk.mines[r & MASK] >>> (c & MASK) & 1) != 0;
+    }
+
+    private int countMines(int r, int c) {
+        int lr = r & MASK;
+        int lc = c & MASK;
+        if (lr > 0 && lr < MASK && lc > 0 && lc < MASK) {
+            // all eight neighbours are in this chunk: three rows of three bits
+            long[] mines = chunk(r, c).mines;
+            long window = 7L << (lc - 1);
+            return Long.bitCount(mines[lr - 1] & window)
+                    + Long.bitCount(mines[lr] & window & ~(1L << lc))
+                    + Long.bitCount(mines[lr + 1] & window);
+        }
+        int count = 0;
+        for (int dr = -1; dr <= 1; dr++) {
+            for (int dc = -1; dc <= 1; dc++) {
+                if ((dr != 0 || dc != 0) && isMine(r + dr, c + dc)) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    /**
+     * @return number of safe tiles uncovered so far
+     */
+    public long getTilesUncovered() {
+        return uncovered;
+    }
+
+    public long getFlagCount() {
+        return flags;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * @return number of chunks currently held in memory
+     */
+    public int getCachedChunkCount() {
+        return cache.size();
+    }
+
+    /**
+     * @return number of chunks with a copy on disk
+     */
+    public int getSpilledChunkCount() {
+        return spilled.size();
+    }
+
+    /**
+     * setter for the most tiles one reveal may uncover
+     */
+    public void setMaxCascade(int maxCascade) {
+        if (maxCascade <= 0) {
+            throw new IllegalArgumentException("maxCascade must be positive");
+        }
+        this.maxCascade = maxCascade;
+    }
+
+    /**
+     * deletes the spilled chunks, and the spill directory if it was created
+     * by this game
+     */
+    @Override
+    public void close() throws IOException {
+        long[] keys = spilled.toArray();
+        for (long key : keys) {
+            Files.deleteIfExists(spillFile(key));
+        }
+        spilled.clear();
+        cache.clear();
+        lastKey = NO_KEY;
+        lastChunk = null;
+        if (ownsSpillDir) {
+            Files.deleteIfExists(spillDir);
+        }
+    }
+
+    private static long pack(int r, int c) {
+        return (long) r << 32 | (c & 0xFFFFFFFFL);
+    }
+
+    private static int local(int r, int c) {
+        return (r & MASK) << CHUNK_BITS | (c & MASK);
+    }
+
+    /**
+     * looks up the chunk holding a tile, reading it from disk or generating
+     * it if it is not cached. A lookup of the same chunk as the previous one
+     * returns it without touching the cache; since no other chunk has been
+     * looked up in between, it is still the most recently used. Never evicts,
+     * so a chunk obtained during a move stays valid until the move calls
+     * trim().
+     */
+    private Chunk chunk(int r, int c) {
+        long key = pack(r >> CHUNK_BITS, c >> CHUNK_BITS);
+        if (key == lastKey) {
+            return lastChunk;
+        }
+        Chunk chunk = cache.get(key);
+        if (chunk == null) {
+            chunk = generate(r >> CHUNK_BITS, c >> CHUNK_BITS);
+            if (spilled.contains(key)) {
+                readSpill(key, chunk);
+            }
+            cache.put(key, chunk);
+        }
+        lastKey = key;
+        lastChunk = chunk;
+        return chunk;
+    }
+
+    /**
+     * places the mines of a chunk from the world seed and its coordinates
+     */
+    private Chunk generate(int cr, int cc) {
+        Chunk chunk = new Chunk();
+        random.reseed(seed + cr * 0x9E3779B97F4A7C15L + cc * 0xC2B2AE3D27D4EB4FL);
+        random.reseed(random.nextLong()); // decorrelate neighbouring chunks
+        boolean origin = cr == 0 && cc == 0;
+        int clicked = origin ? START : -2; // -2 keeps no tile clear
+        int[] mines = minePlacer.place(CHUNK_SIZE, CHUNK_SIZE, minesPerChunk, clicked, clicked,
+                random);
+        for (int k = 0; k < minesPerChunk; k++) {
+            chunk.mines[mines[k] >> CHUNK_BITS] |= 1L << (mines[k] & MASK);
+        }
+        return chunk;
+    }
+
+    /**
+     * evicts least recently used chunks until the cache fits, writing the
+     * ones that changed since they were last written
+     */
+    private void trim() {
+        if (cache.size() <= cacheChunks) {
+            return;
+        }
+        lastKey = NO_KEY;
+        lastChunk = null;
+        Iterator<Map.Entry<Long, Chunk>> entries = cache.entrySet().iterator();
+        while (cache.size() > cacheChunks) {
+            Map.Entry<Long, Chunk> eldest = entries.next();
+            Chunk chunk = eldest.getValue();
+            if (chunk.dirty) {
+                writeSpill(eldest.getKey(), chunk);
+            }
+            entries.remove();
+        }
+    }
+
+    private Path spillFile(long key) {
+        return spillDir.resolve((int) (key >> 32) + "_" + (int) key + ".chunk");
+    }
+
+    /**
+     * writes the visible tiles of a chunk at four bits each (value + 3)
+     */
+    private void writeSpill(long key, Chunk chunk) {
+        byte[] packed = new byte[CHUNK_TILES / 2];
+        for (int i = 0; i < packed.length; i++) {
+            packed[i] = (byte) ((chunk.visible[2 * i] + 3) | (chunk.visible[2 * i + 1] + 3) << 4);
+        }
+        try {
+            Files.write(spillFile(key), packed);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        spilled.add(key);
+        chunk.dirty = false;
+    }
+
+    private void readSpill(long key, Chunk chunk) {
+        byte[] packed;
+        try {
+            packed = Files.readAllBytes(spillFile(key));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (packed.length != CHUNK_TILES / 2) {
+            throw new UncheckedIOException(new IOException("corrupt chunk file " + spillFile(key)));
+        }
+        for (int i = 0; i < packed.length; i++) {
+            chunk.visible[2 * i] = (byte) ((packed[i] & 0xF) - 3);
+            chunk.visible[2 * i + 1] = (byte) ((packed[i] >>> 4 & 0xF) - 3);
+        }
+    }
+
+    /**
+     * One chunk: its mines, one long per row with bit c for column c, and
+     * its visible tiles in row-major order.
+     */
+    private static final class Chunk {
+        final long[] mines = new long[CHUNK_SIZE];
+        final byte[] visible = new byte[CHUNK_TILES];
+        boolean dirty; // changed since it was generated or last spilled
+
+        Chunk() {
+            Arrays.fill(visible, (byte) -2);
+        }
+
+        void set(int i, byte value) {
+            visible[i] = value;
+            dirty = true;
+        }
+    }
+
+    /**
+     * An open-addressing hash set of chunk keys, eight bytes a slot and at
+     * most half full. NO_KEY marks an empty slot.
+     */
+    private static final class LongSet {
+        private long[] slots = newSlots(16);
+        private int size;
+
+        private static long[] newSlots(int length) {
+            long[] slots = new long[length];
+            Arrays.fill(slots, NO_KEY);
+            return slots;
+        }
+
+        private static int slot(long key, int mask) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ h >>> 32) & mask;
+        }
+
+        boolean contains(long key) {
+            int mask = slots.length - 1;
+            for (int i = slot(key, mask); slots[i] != NO_KEY; i = (i + 1) & mask) {
+                if (slots[i] == key) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void add(long key) {
+            int mask = slots.length - 1;
+            int i = slot(key, mask);
+            for (; slots[i] != NO_KEY; i = (i + 1) & mask) {
+                if (slots[i] == key) {
+                    return;
+                }
+            }
+            slots[i] = key;
+            if (++size * 2 > slots.length) {
+                long[] old = slots;
+                slots = newSlots(old.length * 2);
+                mask = slots.length - 1;
+                for (long k : old) {
+                    if (k != NO_KEY) {
+                        int j = slot(k, mask);
+                        while (slots[j] != NO_KEY) {
+                            j = (j + 1) & mask;
+                        }
+                        slots[j] = k;
+                    }
+                }
+            }
+        }
+
+        int size() {
+            return size;
+        }
+
+        long[] toArray() {
+            long[] keys = new long[size];
+            int k = 0;
+            for (long key : slots) {
+                if (key != NO_KEY) {
+                    keys[k++] = key;
+                }
+            }
+            return keys;
+        }
+
+        void clear() {
+            slots = newSlots(16);
+            size = 0;
+        }
+    }
+}
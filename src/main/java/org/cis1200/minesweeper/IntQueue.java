@@ -0,0 +1,98 @@
+package org.cis1200.minesweeper;
+
+/**
+ * IntQueue is a growable first-in first-out queue of primitive ints, used for
+ * work lists of cell indices without boxing. It can also be walked by
+ * position with get() and truncated with retain(), which lets callers use it
+ * as a compactable list.
+ */
+class IntQueue {
+
+    private int[] items;
+    private int head;
+    private int tail;
+
+    IntQueue() {
+        this(16);
+    }
+
+    IntQueue(int capacity) {
+        items = new int[Math.max(capacity, 1)];
+    }
+
+    void add(int value) {
+        if (tail == items.length) {
+            int pending = tail - head;
+            if (head >= items.length / 2) {
+                System.arraycopy(items, head, items, 0, pending);
+            } else {
+                int[] grown = new int[items.length * 2];
+                System.arraycopy(items, head, grown, 0, pending);
+                items = grown;
+            }
+            head = 0;
+            tail = pending;
+        }
+        items[tail++] = value;
+    }
+
+    /**
+     * adds count values from src starting at from, in order
+     */
+    void addAll(int[] src, int from, int count) {
+        if (tail + count > items.length) {
+            int pending = tail - head;
+            int[] grown = items;
+            if (pending + count > items.length) {
+                grown = new int[Math.max(items.length * 2, pending + count)];
+            }
+            System.arraycopy(items, head, grown, 0, pending);
+            items = grown;
+            head = 0;
+            tail = pending;
+        }
+        System.arraycopy(src, from, items, tail, count);
+        tail += count;
+    }
+
+    /**
+     * removes and returns the oldest value. The queue must not be empty.
+     */
+    int poll() {
+        return items[head++];
+    }
+
+    boolean isEmpty() {
+        return head == tail;
+    }
+
+    int size() {
+        return tail - head;
+    }
+
+    /**
+     * @return the value at position k, counted from the oldest value
+     */
+    int get(int k) {
+        return items[head + k];
+    }
+
+    /**
+     * overwrites the value at position k, counted from the oldest value
+     */
+    void set(int k, int value) {
+        items[head + k] = value;
+    }
+
+    /**
+     * keeps only the oldest n values
+     */
+    void retain(int n) {
+        tail = head + n;
+    }
+
+    void clear() {
+        head = 0;
+        tail = 0;
+    }
+}
@@ -0,0 +1,135 @@
+package org.cis1200.minesweeper;
+
+import java.util.Arrays;
+
+/**
+ * LatencyHistogram records non-negative values (normally nanoseconds) in
+ * log-linear buckets, in the style of an HDR histogram: values below 32 get a
+ * bucket each, and every power-of-two range above that is split into 32
+ * equal buckets. Percentiles are therefore accurate to about 3% over the
+ * whole range of a long, using a fixed array of counters and no allocation
+ * per recorded value.
+ *
+ * Instances are not thread-safe; record into one histogram per thread and
+ * combine them with add().
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BITS = 5;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int BUCKETS = (64 - SUB_BITS + 1) * SUB_COUNT;
+
+    private final long[] counts = new long[BUCKETS];
+    private long total;
+    private long sum;
+    private long max;
+
+    /**
+     * records one value. Negative values are recorded as 0.
+     */
+    public void record(long value) {
+        long v = Math.max(value, 0);
+        counts[bucketOf(v)]++;
+        total++;
+        sum += v;
+        if (v > max) {
+            max = v;
+        }
+    }
+
+    /**
+     * adds every value recorded in other to this histogram
+     */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] += other.counts[i];
+        }
+        total += other.total;
+        sum += other.sum;
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * adds counts that were recorded elsewhere bucket by bucket, as by
+     * ConcurrentHistogram
+     *
+     * @param bucketCounts number of values in each bucket
+     * @param bucketSum sum of those values
+     * @param bucketMax largest of those values
+     */
+    void addBuckets(long[] bucketCounts, long bucketSum, long bucketMax) {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] += bucketCounts[i];
+            total += bucketCounts[i];
+        }
+        sum += bucketSum;
+        max = Math.max(max, bucketMax);
+    }
+
+    static int bucketCount() {
+        return BUCKETS;
+    }
+
+    /**
+     * forgets every recorded value
+     */
+    public void clear() {
+        Arrays.fill(counts, 0);
+        total = 0;
+        sum = 0;
+        max = 0;
+    }
+
+    public long getCount() {
+        return total;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public double getMean() {
+        return total == 0 ? 0 : (double) sum / total;
+    }
+
+    /**
+     * @param percentile percentile between 0 and 100
+     * @return the largest value that could be in the bucket holding the
+     *         given percentile, capped at the maximum recorded value
+     */
+    public long valueAtPercentile(double percentile) {
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(percentile / 100.0 * total);
+        rank = Math.max(1, Math.min(rank, total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(upperBound(i), max);
+            }
+        }
+        return max;
+    }
+
+    static int bucketOf(long v) {
+        if (v < SUB_COUNT) {
+            return (int) v;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(v);
+        int mantissa = (int) (v >>> (exponent - SUB_BITS)) & (SUB_COUNT - 1);
+        return (exponent - SUB_BITS + 1) * SUB_COUNT + mantissa;
+    }
+
+    static long upperBound(int bucket) {
+        if (bucket < SUB_COUNT) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_COUNT + SUB_BITS - 1;
+        long mantissa = bucket % SUB_COUNT;
+        long width = 1L << (exponent - SUB_BITS);
+        long lower = (1L << exponent) + mantissa * width;
+        return lower + width - 1;
+    }
+}
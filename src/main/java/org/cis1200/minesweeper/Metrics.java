@@ -0,0 +1,305 @@
+package org.cis1200.minesweeper;
+
+import java.io.Closeable;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Metrics counts and times the hot paths of the model and the board: turns
+ * and the size of their cascades, flags, chords, undos and redos, winner
+ * checks, mine layouts and repaints. Counters are LongAdders and times go
+ * into ConcurrentHistograms, so any number of games on any number of threads
+ * can record at once without contending.
+ *
+ * Recording is switched on by starting the JVM with -Dminesweeper.metrics=true.
+ * Every call site checks the static final ENABLED flag first, which the JIT
+ * treats as a constant, so with metrics off the instrumentation compiles away
+ * and costs nothing.
+ *
+ * The numbers can be read through the global() instance, through JMX once
+ * register() has been called, or as a text report printed periodically by
+ * startDump(). The entry points call start(), which does both when metrics
+ * are on; -Dminesweeper.metrics.dumpSeconds sets the period of the report
+ * (10 seconds by default, 0 for none).
+ */
+public final class Metrics implements MetricsMXBean {
+
+    public static final boolean ENABLED = Boolean.getBoolean("minesweeper.metrics");
+    public static final String OBJECT_NAME = "org.cis1200.minesweeper:type=Metrics";
+    public static final long DUMP_SECONDS = Long.getLong("minesweeper.metrics.dumpSeconds", 10);
+
+    private static final Metrics GLOBAL = new Metrics();
+
+    private final LongAdder turns = new LongAdder();
+    private final LongAdder tilesOpened = new LongAdder();
+    private final LongAdder flags = new LongAdder();
+    private final LongAdder chords = new LongAdder();
+    private final LongAdder undos = new LongAdder();
+    private final LongAdder redos = new LongAdder();
+    private final LongAdder checkWinnerCalls = new LongAdder();
+    private final ConcurrentHistogram turnNanos = new ConcurrentHistogram();
+    private final ConcurrentHistogram cascadeSize = new ConcurrentHistogram();
+    private final ConcurrentHistogram generateMinesNanos = new ConcurrentHistogram();
+    private final ConcurrentHistogram undoDepth = new ConcurrentHistogram();
+    private final ConcurrentHistogram repaintNanos = new ConcurrentHistogram();
+
+    Metrics() {
+    }
+
+    /**
+     * @return the instance the model and board record into
+     */
+    public static Metrics global() {
+        return GLOBAL;
+    }
+
+    /**
+     * registers the global instance with the platform MBean server under
+     * OBJECT_NAME, unless it is registered already
+     *
+     * @throws IllegalStateException if the MBean server refuses it
+     */
+    public static void register() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(GLOBAL, name);
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("cannot register metrics", e);
+        }
+    }
+
+    /**
+     * registers the global instance with JMX and starts printing its report
+     * to out every DUMP_SECONDS seconds, if metrics are on
+     *
+     * @param out stream to print to
+     * @return closing it stops the reports; does nothing if none were started
+     */
+    public static Closeable start(PrintStream out) {
+        if (!ENABLED) {
+            return () -> {
+            };
+        }
+        register();
+        if (DUMP_SECONDS <= 0) {
+            return () -> {
+            };
+        }
+        return startDump(out, DUMP_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * prints the global report to out at a fixed rate on a daemon thread
+     *
+     * @param out stream to print to
+     * @param period time between reports
+     * @param unit unit of period
+     * @return closing it stops the reports
+     */
+    public static Closeable startDump(PrintStream out, long period, TimeUnit unit) {
+        ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "minesweeper-metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer.scheduleAtFixedRate(() -> out.println(GLOBAL.getReport()), period, period, unit);
+        return timer::shutdownNow;
+    }
+
+    /**
+     * records a call to playTurn
+     *
+     * @param nanos time the call took
+     * @param opened number of tiles it uncovered
+     */
+    void recordTurn(long nanos, int opened) {
+        turns.increment();
+        tilesOpened.add(opened);
+        turnNanos.record(nanos);
+        cascadeSize.record(opened);
+    }
+
+    void recordFlag() {
+        flags.increment();
+    }
+
+    void recordChord(int opened) {
+        chords.increment();
+        tilesOpened.add(opened);
+    }
+
+    /**
+     * @param depth number of moves that could be undone before the undo
+     */
+    void recordUndo(int depth) {
+        undos.increment();
+        undoDepth.record(depth);
+    }
+
+    void recordRedo() {
+        redos.increment();
+    }
+
+    void recordCheckWinner() {
+        checkWinnerCalls.increment();
+    }
+
+    void recordGenerateMines(long nanos) {
+        generateMinesNanos.record(nanos);
+    }
+
+    void recordRepaint(long nanos) {
+        repaintNanos.record(nanos);
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return ENABLED;
+    }
+
+    @Override
+    public long getTurns() {
+        return turns.sum();
+    }
+
+    @Override
+    public long getTilesOpened() {
+        return tilesOpened.sum();
+    }
+
+    @Override
+    public long getFlags() {
+        return flags.sum();
+    }
+
+    @Override
+    public long getChords() {
+        return chords.sum();
+    }
+
+    @Override
+    public long getUndos() {
+        return undos.sum();
+    }
+
+    @Override
+    public long getRedos() {
+        return redos.sum();
+    }
+
+    @Override
+    public long getCheckWinnerCalls() {
+        return checkWinnerCalls.sum();
+    }
+
+    @Override
+    public long getMineLayouts() {
+        return generateMinesNanos.snapshot().getCount();
+    }
+
+    @Override
+    public long getTurnNanosP50() {
+        return turnNanos.snapshot().valueAtPercentile(50);
+    }
+
+    @Override
+    public long getTurnNanosP99() {
+        return turnNanos.snapshot().valueAtPercentile(99);
+    }
+
+    @Override
+    public long getTurnNanosMax() {
+        return turnNanos.snapshot().getMax();
+    }
+
+    @Override
+    public long getCascadeSizeP50() {
+        return cascadeSize.snapshot().valueAtPercentile(50);
+    }
+
+    @Override
+    public long getCascadeSizeP99() {
+        return cascadeSize.snapshot().valueAtPercentile(99);
+    }
+
+    @Override
+    public long getCascadeSizeMax() {
+        return cascadeSize.snapshot().getMax();
+    }
+
+    @Override
+    public long getGenerateMinesNanosP99() {
+        return generateMinesNanos.snapshot().valueAtPercentile(99);
+    }
+
+    @Override
+    public long getUndoDepthMax() {
+        return undoDepth.snapshot().getMax();
+    }
+
+    @Override
+    public long getRepaints() {
+        return repaintNanos.snapshot().getCount();
+    }
+
+    @Override
+    public long getRepaintNanosP50() {
+        return repaintNanos.snapshot().valueAtPercentile(50);
+    }
+
+    @Override
+    public long getRepaintNanosP99() {
+        return repaintNanos.snapshot().valueAtPercentile(99);
+    }
+
+    @Override
+    public String getReport() {
+        LatencyHistogram turn = turnNanos.snapshot();
+        LatencyHistogram cascade = cascadeSize.snapshot();
+        LatencyHistogram mines = generateMinesNanos.snapshot();
+        LatencyHistogram depth = undoDepth.snapshot();
+        LatencyHistogram repaint = repaintNanos.snapshot();
+        return String.format(
+                "turns: %d, tiles opened: %d, flags: %d, chords: %d, checkWinner: %d%n"
+                        + "turn (ns): p50 %d, p99 %d, max %d%n"
+                        + "cascade (tiles): p50 %d, p99 %d, max %d%n"
+                        + "generateMines (ns): %d layouts, p50 %d, p99 %d, max %d%n"
+                        + "undo: %d, redo: %d, depth p50 %d, max %d%n"
+                        + "repaint (ns): %d, p50 %d, p99 %d, max %d",
+                turns.sum(), tilesOpened.sum(), flags.sum(), chords.sum(),
+                checkWinnerCalls.sum(),
+                turn.valueAtPercentile(50), turn.valueAtPercentile(99), turn.getMax(),
+                cascade.valueAtPercentile(50), cascade.valueAtPercentile(99), cascade.getMax(),
+                mines.getCount(), mines.valueAtPercentile(50), mines.valueAtPercentile(99),
+                mines.getMax(),
+                undos.sum(), redos.sum(), depth.valueAtPercentile(50), depth.getMax(),
+                repaint.getCount(), repaint.valueAtPercentile(50),
+                repaint.valueAtPercentile(99), repaint.getMax());
+    }
+
+    @Override
+    public void reset() {
+        turns.reset();
+        tilesOpened.reset();
+        flags.reset();
+        chords.reset();
+        undos.reset();
+        redos.reset();
+        checkWinnerCalls.reset();
+        turnNanos.clear();
+        cascadeSize.clear();
+        generateMinesNanos.clear();
+        undoDepth.clear();
+        repaintNanos.clear();
+    }
+}
@@ -0,0 +1,58 @@
+package org.cis1200.minesweeper;
+
+/**
+ * Management interface of Metrics, as seen through JMX under
+ * Metrics.OBJECT_NAME. Times are in nanoseconds.
+ */
+public interface MetricsMXBean {
+
+    boolean isEnabled();
+
+    long getTurns();
+
+    long getTilesOpened();
+
+    long getFlags();
+
+    long getChords();
+
+    long getUndos();
+
+    long getRedos();
+
+    long getCheckWinnerCalls();
+
+    long getMineLayouts();
+
+    long getTurnNanosP50();
+
+    long getTurnNanosP99();
+
+    long getTurnNanosMax();
+
+    long getCascadeSizeP50();
+
+    long getCascadeSizeP99();
+
+    long getCascadeSizeMax();
+
+    long getGenerateMinesNanosP99();
+
+    long getUndoDepthMax();
+
+    long getRepaints();
+
+    long getRepaintNanosP50();
+
+    long getRepaintNanosP99();
+
+    /**
+     * @return every metric as text, one line per group
+     */
+    String getReport();
+
+    /**
+     * forgets everything recorded so far
+     */
+    void reset();
+}
@@ -0,0 +1,165 @@
+package org.cis1200.minesweeper;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * MinePlacer chooses mine locations with a partial Fisher-Yates shuffle over
+ * the tiles outside the first-click safe zone. Only the first numMines steps
+ * of the shuffle are performed, and the shuffled array is never materialised:
+ * positions that have been swapped are remembered in a small open-addressing
+ * map, so placement costs O(numMines) time and memory no matter how large the
+ * board is or how dense the mines are.
+ *
+ * The map and output buffer are reused between games, unless they have
+ * grown past MAX_RETAINED entries; trim() then lets them go, so a single
+ * huge layout does not keep several bytes per mine alive for the rest of
+ * the game.
+ */
+class MinePlacer {
+
+    static final int MAX_RETAINED = 1 << 20;
+
+    private int[] mines = new int[0];
+
+    // open-addressing map from shuffle position to the value stored there.
+    // A slot is in use only if its stamp equals the current generation, so
+    // the map is cleared by bumping the generation.
+    private int[] keys = new int[0];
+    private int[] values = new int[0];
+    private int[] stamps = new int[0];
+    private int generation;
+    private int shift;
+
+    private final int[] excluded = new int[9];
+
+    /**
+     * chooses numMines distinct tiles, none of which lie within one tile of
+     * the clicked tile. If the board is too crowded to keep that whole 3x3
+     * zone clear, only the clicked tile itself is kept free of mines.
+     *
+     * @param rows number of rows on the board
+     * @param cols number of columns on the board
+     * @param numMines number of mines to place
+     * @param clickedR row of the first click
+     * @param clickedC column of the first click
+     * @param rng source of randomness
+     * @return buffer whose first numMines entries are the row-major indices of
+     *         the mines. The buffer is reused by the next call.
+     */
+    int[] place(int rows, int cols, int numMines, int clickedR, int clickedC,
+            RandomGenerator rng) {
+        int cells = rows * cols;
+        int zone = excludeZone(rows, cols, clickedR, clickedC, 1);
+        if (cells - zone < numMines) {
+            zone = excludeZone(rows, cols, clickedR, clickedC, 0);
+        }
+        int candidates = cells - zone;
+        if (candidates < numMines) {
+            throw new IllegalStateException("cannot fit " + numMines + " mines on the board");
+        }
+
+        if (mines.length < numMines) {
+            mines = new int[numMines];
+        }
+        clearMap(numMines);
+        for (int i = 0; i < numMines; i++) {
+            int j = i + rng.nextInt(candidates - i);
+            int atI = get(i);
+            int atJ = get(j);
+            put(j, atI); // position i is never read again
+            mines[i] = toCell(atJ, zone);
+        }
+        return mines;
+    }
+
+    /**
+     * fills excluded with the sorted indices of the tiles within radius of
+     * the clicked tile
+     *
+     * @return number of excluded tiles
+     */
+    private int excludeZone(int rows, int cols, int clickedR, int clickedC, int radius) {
+        int count = 0;
+        for (int r = clickedR - radius; r <= clickedR + radius; r++) {
+            for (int c = clickedC - radius; c <= clickedC + radius; c++) {
+                if (r >= 0 && r < rows && c >= 0 && c < cols) {
+                    excluded[count++] = r * cols + c;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * maps the rank of a candidate tile to its board index by stepping over
+     * the excluded tiles
+     */
+    private int toCell(int rank, int zone) {
+        int cell = rank;
+        for (int k = 0; k < zone; k++) {
+            if (cell >= excluded[k]) {
+                cell++;
+            }
+        }
+        return cell;
+    }
+
+    /**
+     * drops the map and output buffer if a large layout grew them past
+     * MAX_RETAINED entries. The buffer returned by the last place() call is
+     * then no longer the one the next call fills.
+     */
+    void trim() {
+        if (mines.length > MAX_RETAINED) {
+            mines = new int[0];
+        }
+        if (keys.length > MAX_RETAINED) {
+            keys = new int[0];
+            values = new int[0];
+            stamps = new int[0];
+            generation = 0;
+        }
+    }
+
+    private void clearMap(int numMines) {
+        int capacity = Integer.highestOneBit(Math.max(numMines, 1) * 2 - 1) << 1;
+        if (keys.length < capacity) {
+            keys = new int[capacity];
+            values = new int[capacity];
+            stamps = new int[capacity];
+            generation = 0;
+        }
+        shift = 32 - Integer.numberOfTrailingZeros(keys.length);
+        generation++;
+        if (generation == 0) { // wrapped around, stale stamps could match
+            Arrays.fill(stamps, 0);
+            generation = 1;
+        }
+    }
+
+    private int slot(int key) {
+        return (key * 0x9E3779B9) >>> shift;
+    }
+
+    private int get(int key) {
+        int mask = keys.length - 1;
+        for (int s = slot(key); stamps[s] == generation; s = (s + 1) & mask) {
+            if (keys[s] == key) {
+                return values[s];
+            }
+        }
+        return key;
+    }
+
+    private void put(int key, int value) {
+        int mask = keys.length - 1;
+        int s = slot(key);
+        while (stamps[s] == generation && keys[s] != key) {
+            s = (s + 1) & mask;
+        }
+        stamps[s] = generation;
+        keys[s] = key;
+        values[s] = value;
+    }
+}
@@ -1,7 +1,14 @@
 package org.cis1200.minesweeper;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.OptionalLong;
 import java.util.Random;
-import java.util.Stack;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongFunction;
+import java.util.random.RandomGenerator;
 
 /**
  * This class is a model for Minesweeper.
@@ -16,92 +23,244 @@ public class Minesweeper {
     -2 -> empty (non-visible)
     -3 -> flagged (visible)
      */
-    private int[][] board;
-    private int[][] visibleBoard;
+    public static final int DEFAULT_ROWS = 10;
+    public static final int DEFAULT_COLS = 10;
+    public static final int DEFAULT_MINES = 20;
+
+    /*
+    Both layers are stored as flat, row-major byte arrays so that a board costs
+    one byte per cell per layer rather than an int[] row object per row plus
+    four bytes per cell. The layers are padded with one extra row/column on
+    every side (index = (r + 1) * stride + c + 1, stride = cols + 2); padding
+    tiles are never mines and show as -4 in visibleBoard, so walking to a
+    neighbour never needs a bounds check. A BitBoard holds the mines, the
+    uncovered tiles and the flags once more as bits, three bits per tile, and
+    is updated with every tile the layers change; the frontier and the flag
+    count are read from it. In all a game holds about 2.4 bytes per tile:
+    a 10,000 x 10,000 board takes about 240 MB, plus its undo journal (at
+    most about 20 MB by default) and the queue of a running cascade. A saved
+    game packs the same board into about 60 MB.
+     */
+    private static final byte OUTSIDE = -4;
+
+    // the default generator factory; games using it reseed their own
+    // SplitMix64 instead of calling it, which gives the same sequence
+    private static final LongFunction<RandomGenerator> DEFAULT_RANDOM = SplittableRandom::new;
+
+    private int rows;
+    private int cols;
+    private int stride; // cols + 2
+    private int[] neighbours; // offsets of the eight neighbours of a tile
+    private byte[] board;
+    private byte[] visibleBoard;
+    private BitBoard bits; // mines, uncovered and flagged tiles, kept in step with the layers
     private int numMines;
     private boolean gameActive;
-    private Stack<int[][]> boardStack;
+    private final UndoJournal journal = new UndoJournal(); // undo/redo history
+    private final UndoJournal.CellWriter journalWriter = this::swapVisible;
     private boolean firstTurn; // whether the grid has been "broken" yet
+    private int safeCellsRemaining; // safe tiles that are still covered or flagged
+    private boolean mineShowing; // whether an uncovered mine has ended the game
+    private final RevealEngine revealEngine = new RevealEngine();
+    private final ZeroRegions zeroRegions = new ZeroRegions(); // built on the first 0 click
+    private boolean useZeroRegions = true;
+    private final MinePlacer minePlacer = new MinePlacer();
+    private long seed; // seed of the current game's mine layout
+    private LongFunction<RandomGenerator> randomFactory = DEFAULT_RANDOM;
+    private final SplitMix64 random = new SplitMix64(0); // reseeded for each layout
+    private boolean noGuess; // whether the first turn must produce a layout solvable by logic
+    private boolean guaranteedSolvable; // whether the no-guess search found this layout
+    private final IntQueue changedCells = new IntQueue(); // tiles changed by the last call
+    private boolean boardReplaced; // whether the last call changed the whole board
+    private GameRecorder recorder; // receives every move, or null
+    private boolean metered = true; // whether moves are recorded in Metrics
 
     /**
-     * Constructor sets up game state.
+     * Constructor sets up game state for the default 10x10 board with 20 mines.
      */
     public Minesweeper() {
+        this(DEFAULT_ROWS, DEFAULT_COLS, DEFAULT_MINES);
+    }
+
+    /**
+     * Constructor sets up game state for a board of arbitrary size.
+     *
+     * @param rows number of rows on the board
+     * @param cols number of columns on the board
+     * @param numMines number of mines to place on the first turn
+     */
+    public Minesweeper(int rows, int cols, int numMines) {
+        checkSize(rows, cols, numMines);
+        this.rows = rows;
+        this.cols = cols;
+        this.numMines = numMines;
         reset();
     }
 
+    /**
+     * Constructor sets up game state for a board whose mine layout is
+     * reproducible from the given seed.
+     *
+     * @param rows number of rows on the board
+     * @param cols number of columns on the board
+     * @param numMines number of mines to place on the first turn
+     * @param seed seed for the mine layout
+     */
+    public Minesweeper(int rows, int cols, int numMines, long seed) {
+        this(rows, cols, numMines);
+        this.seed = seed;
+    }
+
+    /**
+     * Copy constructor: the new game has the same board, visible tiles,
+     * history, seed and settings as other, and is independent of it
+     * afterwards. A recorder attached to other is not copied.
+     *
+     * @param other game to copy
+     */
+    public Minesweeper(Minesweeper other) {
+        rows = other.rows;
+        cols = other.cols;
+        stride = other.stride;
+        neighbours = other.neighbours.clone();
+        board = other.board.clone();
+        visibleBoard = other.visibleBoard.clone();
+        numMines = other.numMines;
+        gameActive = other.gameActive;
+        journal.copyFrom(other.journal);
+        firstTurn = other.firstTurn;
+        safeCellsRemaining = other.safeCellsRemaining;
+        bits = new BitBoard(other.bits);
+        mineShowing = other.mineShowing;
+        seed = other.seed;
+        randomFactory = other.randomFactory;
+        noGuess = other.noGuess;
+        guaranteedSolvable = other.guaranteedSolvable;
+        revealEngine.setParallel(other.revealEngine.isParallel());
+        useZeroRegions = other.useZeroRegions;
+        metered = other.metered;
+        boardReplaced = true;
+    }
+
+    /**
+     * @throws IllegalArgumentException if no board can have the given size
+     *         and number of mines
+     */
+    private static void checkSize(int rows, int cols, int numMines) {
+        if (rows <= 0 || cols <= 0 || (rows + 2L) * (cols + 2L) > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("invalid board size " + rows + "x" + cols);
+        }
+        if (numMines < 0 || numMines >= rows * cols) {
+            throw new IllegalArgumentException("invalid mine count " + numMines);
+        }
+    }
+
+    /**
+     * converts a row/column pair into an index into the padded cell layers
+     */
+    private int index(int r, int c) {
+        return (r + 1) * stride + c + 1;
+    }
+
+    /**
+     * checks whether a row/column pair lies on the board
+     */
+    private boolean inBounds(int r, int c) {
+        return r >= 0 && r < rows && c >= 0 && c < cols;
+    }
+
     /**
      * playTurn allows player to clear a tile. If the tile has value 0
-     * the method recurses through nearby tiles, uncovering all 0 tiles
+     * every connected 0 tile (and the numbered tiles bordering them) is
+     * uncovered in a single pass by the reveal engine.
      *
      * @param c column to play in
      * @param r row to play in
-     * @param newBoard whether to save the current board to the stack
+     * @param newBoard whether this turn is a new undoable move, or whether
+     *                 its changes belong to the previous move
+     * @return number of tiles uncovered by this turn
+     */
+    public int playTurn(int r, int c, boolean newBoard) {
+        if (!Metrics.ENABLED || !metered) {
+            return turn(r, c, newBoard);
+        }
+        long start = System.nanoTime();
+        int opened = turn(r, c, newBoard);
+        Metrics.global().recordTurn(System.nanoTime() - start, opened);
+        return opened;
+    }
+
+    /**
+     * plays a turn as described in playTurn
      */
-    public void playTurn(int r, int c, boolean newBoard) {
+    private int turn(int r, int c, boolean newBoard) {
+        clearChanges();
         // check valid coords and game status
-        if (r < 0 || r >= board.length || c < 0 || c >= board[0].length) {
-            return;
+        if (!inBounds(r, c)) {
+            return 0;
         } else if (!gameActive) {
-            return;
+            return 0;
         }
 
         // create board layout if first turn
         if (firstTurn) {
+            if (noGuess) {
+                OptionalLong found = NoGuessGenerator.findSeed(rows, cols, numMines, r, c, seed,
+                        randomFactory, NoGuessGenerator.DEFAULT_TIME_BUDGET_NANOS);
+                guaranteedSolvable = found.isPresent();
+                seed = found.orElse(seed);
+            }
+            if (recorder != null) {
+                recorder.seed(seed);
+            }
             generateMines(r, c);
-            populateBoard();
             firstTurn = false;
         }
+        if (recorder != null) {
+            recorder.reveal(r, c, newBoard);
+        }
 
-        int currTile = board[r][c];
+        int i = index(r, c);
 
         // check if already revealed or if flagged remove flag
-        if (visibleBoard[r][c] == currTile) {
-            return;
-        } else if (visibleBoard[r][c] == -3) {
-            visibleBoard[r][c] = -2;
-            return;
+        if (visibleBoard[i] == -3) {
+            visibleBoard[i] = -2;
+            bits.setVisible(i, (byte) -2);
+            changedCells.add(i);
+            return 0;
+        } else if (visibleBoard[i] != -2) {
+            return 0;
         }
 
-        // add current board onto board history stack
-        if (newBoard) {
-            saveBoardToStack();
-        }
-
-        visibleBoard[r][c] = currTile;
-        if (currTile == -1) {
-            gameActive = false;
-        // base case: currTile != 0
-        } else if (currTile == 0) { // DFS and uncover other 0 numbered tiles
-            for (int i = -1; i <= 1; i++) {
-                for (int j = -1; j <= 1; j++) {
-                    if (i != 0 || j != 0) {
-                        playTurn(r + i, c + j, false);
-                    }
-
-                }
+        // record uncovered tiles in the undo journal
+        journal.begin(!newBoard);
+        int opened = -1;
+        if (board[i] == 0 && useZeroRegions && rows * cols <= ZeroRegions.MAX_TILES) {
+            if (!zeroRegions.isValid()) {
+                zeroRegions.build(board, visibleBoard, neighbours);
             }
+            opened = revealEngine.revealRegion(board, visibleBoard, zeroRegions, i, journal,
+                    changedCells);
         }
-
-        if (checkWinner()) {
-            gameActive = false;
+        if (opened < 0) {
+            opened = revealEngine.reveal(board, visibleBoard, neighbours, i, journal,
+                    changedCells);
         }
-    }
-
-
-    /**
-     * takes the current visibleBoard and saves a copy to the stack
-     */
-    public void saveBoardToStack() {
-        int[][] boardCopy = new int[10][10];
-        for (int i = 0; i < 10; i++) {
-            for (int j = 0; j < 10; j++) {
-                boardCopy[i][j] = visibleBoard[i][j];
+        journal.end();
+        markChanged();
+        if (board[i] == -1) {
+            gameActive = false; // the only tile uncovered was the mine
+            mineShowing = true;
+        } else {
+            safeCellsRemaining -= opened;
+            if (checkWinner()) {
+                gameActive = false;
             }
         }
-        boardStack.push(boardCopy);
+        return opened;
     }
 
+
     /**
      * places a flag on the visibleBoard if the clicked tile is uncovered
      *
@@ -109,117 +268,304 @@ public class Minesweeper {
      * @param r row to play in
      */
     public void playFlag(int r, int c) {
+        clearChanges();
         // check valid coords and game status
-        if (r < 0 || r >= board.length || c < 0 || c >= board[0].length) {
+        if (!inBounds(r, c)) {
             return;
         } else if (!gameActive) {
             return;
         }
 
-        if (visibleBoard[r][c] == -2) {
-            saveBoardToStack();
-            visibleBoard[r][c] = -3;
+        if (recorder != null) {
+            recorder.flag(r, c);
+        }
+        int i = index(r, c);
+        if (visibleBoard[i] == -2) {
+            journal.begin(false);
+            journal.record(i, visibleBoard[i]);
+            visibleBoard[i] = -3;
+            bits.setVisible(i, (byte) -3);
+            changedCells.add(i);
+            journal.end();
+            if (Metrics.ENABLED && metered) {
+                Metrics.global().recordFlag();
+            }
         }
     }
 
     /**
-     * checkWinner checks whether the game has reached a win condition.
-     * Checks to see if tile does not contain bomb, it must be uncovered.
+     * playChord uncovers every covered neighbour of a numbered tile whose
+     * number of neighbouring flags matches its number. All of them are
+     * uncovered as one undoable move with a single cascade over the 0 tiles
+     * among them. If a flag was wrong, the mine under the tile it should have
+     * been on is uncovered and the game is lost.
+     *
+     * @param r row of the numbered tile
+     * @param c column of the numbered tile
+     * @return number of tiles uncovered by this chord
+     */
+    public int playChord(int r, int c) {
+        clearChanges();
+        // check valid coords and game status
+        if (!inBounds(r, c)) {
+            return 0;
+        } else if (!gameActive) {
+            return 0;
+        }
+
+        int i = index(r, c);
+        byte number = visibleBoard[i];
+        if (number <= 0) {
+            return 0; // only uncovered numbered tiles can be chorded
+        }
+        int flags = 0;
+        for (int off : neighbours) {
+            if (visibleBoard[i + off] == -3) {
+                flags++;
+            }
+        }
+        if (flags != number) {
+            return 0;
+        }
+        if (recorder != null) {
+            recorder.chord(r, c);
+        }
+
+        journal.begin(false);
+        int opened = revealEngine.revealAround(board, visibleBoard, neighbours, i, journal,
+                changedCells);
+        journal.end();
+        markChanged();
+        int minesHit = 0;
+        for (int off : neighbours) {
+            if (visibleBoard[i + off] == -1) {
+                minesHit++;
+            }
+        }
+        safeCellsRemaining -= opened - minesHit;
+        if (minesHit > 0) {
+            gameActive = false;
+            mineShowing = true;
+        } else if (checkWinner()) {
+            gameActive = false;
+        }
+        if (Metrics.ENABLED && metered) {
+            Metrics.global().recordChord(opened);
+        }
+        return opened;
+    }
+
+    /**
+     * checkWinner checks whether the game has reached a win condition:
+     * every tile that does not contain a bomb has been uncovered. This is a
+     * constant-time check against the running count of covered safe tiles.
      *
      * @return true if game is won, false if game is still going
      */
     public boolean checkWinner() {
-        int curr;
-        int hidden;
-        for (int r = 0; r < 10; r++) {
-            for (int c = 0; c < 10; c++) {
-                curr = visibleBoard[r][c];
-                hidden = board[r][c];
-                if ((curr == -2 || curr == -3) && hidden != -1) {
-                    return false;
-                }
+        if (Metrics.ENABLED && metered) {
+            Metrics.global().recordCheckWinner();
+        }
+        return safeCellsRemaining == 0;
+    }
+
+    /**
+     * copies the visible state of every tile changed by the last reveal into
+     * the bit layers
+     */
+    private void markChanged() {
+        for (int k = 0, n = changedCells.size(); k < n; k++) {
+            int cell = changedCells.get(k);
+            bits.setVisible(cell, visibleBoard[cell]);
+        }
+    }
+
+    /**
+     * recounts the covered safe tiles from scratch and repacks the bit
+     * layers, used when the internal board is replaced wholesale
+     */
+    private void recountCells() {
+        bits.load(board, visibleBoard);
+        safeCellsRemaining = 0;
+        mineShowing = false;
+        for (int i = 0; i < board.length; i++) {
+            byte curr = visibleBoard[i];
+            if (curr == -1) {
+                mineShowing = true;
+            }
+            if ((curr == -2 || curr == -3) && board[i] != -1) {
+                safeCellsRemaining++;
             }
         }
-        return true;
     }
 
     /**
-     * undos move by calling back board from stack
+     * writes a value into the visibleBoard while keeping the tile counters
+     * up to date. Used when the undo journal rewinds or replays a move.
+     *
+     * @param i index of the tile
+     * @param value new visible value of the tile
+     * @return the previous visible value of the tile
+     */
+    private byte swapVisible(int i, byte value) {
+        byte old = visibleBoard[i];
+        visibleBoard[i] = value;
+        bits.setVisible(i, value);
+        changedCells.add(i);
+        if (board[i] != -1) {
+            if (old >= 0) {
+                safeCellsRemaining++;
+            }
+            if (value >= 0) {
+                safeCellsRemaining--;
+            }
+        } else {
+            mineShowing = value == -1;
+        }
+        return old;
+    }
+
+    /**
+     * undos the most recent move. Only the tiles changed by that move are
+     * touched, so this costs O(tiles changed) regardless of board size.
      */
     public void undo() {
-        if (!boardStack.empty()) {
-            visibleBoard = boardStack.pop();
-            if (!gameActive) {
-                gameActive = true;
+        clearChanges();
+        int depth = journal.undoDepth();
+        if (journal.undo(journalWriter)) {
+            if (Metrics.ENABLED && metered) {
+                Metrics.global().recordUndo(depth);
+            }
+            gameActive = !checkWinner() && !mineShowing;
+            if (recorder != null) {
+                recorder.undo();
             }
         }
     }
 
     /**
-     * reset (re-)sets the game state to start a new game.
+     * redoes the most recently undone move, if no new move has been made since
      */
-    public void reset() {
-        board = new int[10][10];
-        visibleBoard = new int[10][10];
-        for (int r = 0; r < 10; r++) {
-            for (int c = 0; c < 10; c++) {
-                visibleBoard[r][c] = -2; // -2 denotes non-visible
+    public void redo() {
+        clearChanges();
+        if (journal.redo(journalWriter)) {
+            if (Metrics.ENABLED && metered) {
+                Metrics.global().recordRedo();
+            }
+            gameActive = !checkWinner() && !mineShowing;
+            if (recorder != null) {
+                recorder.redo();
             }
         }
-        numMines = 20;
+    }
+
+    /**
+     * reset (re-)sets the game state to start a new game. The layers are
+     * cleared in place when the board keeps its size, so starting another
+     * game of the same size allocates nothing.
+     */
+    public void reset() {
+        int length = (rows + 2) * (cols + 2);
+        if (stride != cols + 2) {
+            stride = cols + 2;
+            neighbours = NeighbourCounts.offsets(stride);
+        }
+        if (board == null || board.length != length) {
+            board = new byte[length];
+            visibleBoard = new byte[length];
+        } else {
+            Arrays.fill(board, (byte) 0);
+        }
+        Arrays.fill(visibleBoard, OUTSIDE);
+        for (int r = 0; r < rows; r++) {
+            int start = index(r, 0);
+            Arrays.fill(visibleBoard, start, start + cols, (byte) -2); // -2 denotes non-visible
+        }
         gameActive = true;
-        boardStack = new Stack<>();
+        journal.clear();
+        zeroRegions.invalidate();
         firstTurn = true;
+        guaranteedSolvable = false;
+        seed = ThreadLocalRandom.current().nextLong();
+        safeCellsRemaining = rows * cols - numMines;
+        if (bits == null || !bits.fits(rows + 2, stride)) {
+            bits = new BitBoard(rows + 2, stride);
+        }
+        bits.load(board, visibleBoard);
+        mineShowing = false;
+        clearChanges();
+        boardReplaced = true;
+        if (recorder != null) {
+            recorder.reset();
+        }
     }
 
     /**
-     * generates and adds 20 mines to game board.
+     * turns this game into a fresh game of the given size and seed, as if it
+     * had just been constructed, reusing its buffers where it can. Used by
+     * GamePool. The recorder is dropped, and the random factory, no-guess
+     * mode, undo capacity, parallel cascade and zero-region index go back to
+     * their defaults.
+     *
+     * @param rows number of rows on the board
+     * @param cols number of columns on the board
+     * @param numMines number of mines to place on the first turn
+     * @param seed seed for the mine layout
      */
-    public void generateMines(int clickedR, int clickedC) {
-        Random rand = new Random();
-        int[][] mineCoords = new int[numMines][2];
-        int generatedR;
-        int generatedC;
-        boolean loop;
-
-        for (int i = 0; i < numMines; i++) {
-            loop = true;
-            while (loop) { // find new coord pair
-                loop = false;
-                generatedR = rand.nextInt(10);
-                generatedC = rand.nextInt(10);
-                if (Math.abs(clickedR - generatedR) <= 1 && Math.abs(clickedC - generatedC) <= 1) {
-                    loop = true;
-                    continue;
-                }
-                for (int c = 0; c < i; c++) {
-                    if (mineCoords[c][0] == generatedR && mineCoords[c][1] == generatedC) {
-                        loop = true; // must keep trying if coords already exist
-                    }
-                }
+    void reuse(int rows, int cols, int numMines, long seed) {
+        checkSize(rows, cols, numMines);
+        recorder = null;
+        randomFactory = DEFAULT_RANDOM;
+        noGuess = false;
+        journal.setMaxEntries(UndoJournal.DEFAULT_MAX_ENTRIES);
+        revealEngine.setParallel(true);
+        useZeroRegions = true;
+        metered = true;
+        this.rows = rows;
+        this.cols = cols;
+        this.numMines = numMines;
+        reset();
+        this.seed = seed;
+    }
 
-                if (!loop) { // loop is false if found no coords previously exist (new pair)
-                    mineCoords[i][0] = generatedR;
-                    mineCoords[i][1] = generatedC;
-                    // add mine to board
-                    board[generatedR][generatedC] = -1; // -1 is symbol for mine
-                }
-            }
+    /**
+     * generates and adds numMines mines to game board, keeping the tiles
+     * around the clicked tile clear. The layout depends only on the board
+     * size, the clicked tile and the game's seed. Tile numbers are filled in
+     * as each mine is placed.
+     */
+    public void generateMines(int clickedR, int clickedC) {
+        long start = Metrics.ENABLED && metered ? System.nanoTime() : 0;
+        zeroRegions.invalidate();
+        RandomGenerator rand = randomFactory == DEFAULT_RANDOM
+                ? random.reseed(seed) : randomFactory.apply(seed);
+        int[] mines = minePlacer.place(rows, cols, numMines, clickedR, clickedC, rand);
+        for (int k = 0; k < numMines; k++) {
+            int r = mines[k] / cols;
+            int i = index(r, mines[k] - r * cols);
+            NeighbourCounts.addMine(board, neighbours, i);
+            bits.setMine(i, true);
+        }
+        minePlacer.trim();
+        if (Metrics.ENABLED && metered) {
+            Metrics.global().recordGenerateMines(System.nanoTime() - start);
         }
     }
 
     /**
-     * generates tile numbers by iterating through board and counting mines
+     * generates tile numbers from scratch by scattering each mine's count
+     * into its neighbours. Mines placed through generateMines, setBoard or
+     * moveMine already keep the numbers up to date, so this is only needed if
+     * the layout was changed some other way. Dense boards, with a mine on more
+     * than one tile in eight, are counted 64 tiles at a time by BitBoard.
      */
     public void populateBoard() {
-        for (int r = 0; r < 10; r++) {
-            for (int c = 0; c < 10; c++) {
-                if (board[r][c] == -1) {
-                    continue;
-                }
-                board[r][c] = countSurroundingMines(r, c);
-            }
+        if (numMines * 8L > (long) rows * cols) {
+            BitBoard.rebuildCounts(board, stride);
+        } else {
+            NeighbourCounts.rebuild(board, neighbours);
         }
+        zeroRegions.invalidate();
     }
 
     /**
@@ -230,20 +576,36 @@ public class Minesweeper {
      * @return number of mines in 1-tile radius
      */
     public int countSurroundingMines(int r, int c) {
-        int count = 0;
-        for (int i = r - 1; i <= r + 1; i++) {
-            for (int j = c - 1; j <= c + 1; j++) {
-                if (i < 0 || i >= board.length || j < 0 || j >= board[0].length) {
-                    continue;
-                }
-                if (board[i][j] == -1) {
-                    count++;
-                }
-            }
-        }
-        return count;
+        return NeighbourCounts.count(board, neighbours, index(r, c));
     }
 
+    /**
+     * moves a mine from one covered tile to another covered tile that has no
+     * mine, updating only the numbers around the two tiles
+     *
+     * @param fromR row of the mine
+     * @param fromC column of the mine
+     * @param toR row of the destination
+     * @param toC column of the destination
+     * @return true if the mine was moved
+     */
+    public boolean moveMine(int fromR, int fromC, int toR, int toC) {
+        if (!inBounds(fromR, fromC) || !inBounds(toR, toC)) {
+            return false;
+        }
+        int from = index(fromR, fromC);
+        int to = index(toR, toC);
+        if (board[from] != -1 || board[to] == -1
+                || visibleBoard[from] >= -1 || visibleBoard[to] >= -1) {
+            return false;
+        }
+        NeighbourCounts.removeMine(board, neighbours, from);
+        NeighbourCounts.addMine(board, neighbours, to);
+        bits.setMine(from, false);
+        bits.setMine(to, true);
+        zeroRegions.invalidate();
+        return true;
+    }
 
     /**
      * getCell is a getter for the contents of the cell specified by the method
@@ -255,7 +617,74 @@ public class Minesweeper {
      *         game board. 0 = empty, -1 = mine, -2 = non-visible
      */
     public int getCell(int r, int c) {
-        return visibleBoard[r][c];
+        return visibleBoard[index(r, c)];
+    }
+
+    /**
+     * counts the frontier: covered, unflagged tiles next to at least one
+     * uncovered tile. It is read from the bit layers with word-wide shifts,
+     * 64 tiles at a time.
+     *
+     * @return number of tiles on the frontier
+     */
+    public int getFrontierSize() {
+        return bits.frontierSize();
+    }
+
+    /**
+     * getter for the number of rows on the board
+     *
+     * @return number of rows
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * getter for the number of columns on the board
+     *
+     * @return number of columns
+     */
+    public int getCols() {
+        return cols;
+    }
+
+    /**
+     * getter for the number of mines placed on the first turn
+     *
+     * @return number of mines
+     */
+    public int getNumMines() {
+        return numMines;
+    }
+
+    /**
+     * getter for the number of safe tiles that still have to be uncovered
+     * to win the game
+     *
+     * @return number of covered (or flagged) tiles that do not hold a mine
+     */
+    public int getSafeCellsRemaining() {
+        return safeCellsRemaining;
+    }
+
+    /**
+     * getter for the number of flags currently placed on the board
+     *
+     * @return number of flags
+     */
+    public int getFlagCount() {
+        return bits.flagCount();
+    }
+
+    /**
+     * getter for the number of mines not yet accounted for by a flag. This
+     * can be negative if the player has placed more flags than there are mines.
+     *
+     * @return numMines minus the number of flags
+     */
+    public int getMinesRemaining() {
+        return numMines - bits.flagCount();
     }
 
     /**
@@ -277,21 +706,320 @@ public class Minesweeper {
     }
 
     /**
-     * setter to manually set the board for testing
+     * setter to manually set the board for testing. Only the mine positions
+     * (-1 entries) of b are used; the numbers around every tile whose mine
+     * status changes are updated incrementally. If the dimensions of b differ
+     * from the current board the game is reset to the new size.
      *
      * @param b 2D array board to be set
      */
     public void setBoard(int[][] b) {
-        board = b;
+        if (b.length != rows || b[0].length != cols) {
+            rows = b.length;
+            cols = b[0].length;
+            reset();
+        }
+        guaranteedSolvable = false;
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                int i = index(r, c);
+                boolean mine = b[r][c] == -1;
+                if (mine && board[i] != -1) {
+                    NeighbourCounts.addMine(board, neighbours, i);
+                } else if (!mine && board[i] == -1) {
+                    NeighbourCounts.removeMine(board, neighbours, i);
+                }
+            }
+        }
+        recountCells();
+        numMines = bits.mineCount();
+        zeroRegions.invalidate();
+        clearChanges();
+        boardReplaced = true;
+    }
+
+    /**
+     * forgets the tiles changed by the previous call
+     */
+    private void clearChanges() {
+        changedCells.clear();
+        boardReplaced = false;
+    }
+
+    /**
+     * getter for the number of tiles whose visible state was changed by the
+     * most recent call to playTurn, playFlag, undo or redo. Views can use this
+     * together with getChangedRow and getChangedCol to redraw only those tiles.
+     * A tile may be listed more than once.
+     *
+     * @return number of changed tiles
+     */
+    public int getChangedCellCount() {
+        return changedCells.size();
+    }
+
+    /**
+     * @param k position in the list of changed tiles
+     * @return row of the k-th changed tile
+     */
+    public int getChangedRow(int k) {
+        return changedCells.get(k) / stride - 1;
+    }
+
+    /**
+     * @param k position in the list of changed tiles
+     * @return column of the k-th changed tile
+     */
+    public int getChangedCol(int k) {
+        return changedCells.get(k) % stride - 1;
+    }
+
+    /**
+     * getter for whether the most recent call (reset or setBoard) replaced
+     * the whole board, in which case views should redraw every tile
+     *
+     * @return true if every tile may have changed
+     */
+    public boolean isBoardReplaced() {
+        return boardReplaced;
+    }
+
+    /**
+     * getter for the seed that the current game's mines are generated from.
+     * Replaying the same first click on a game with this seed reproduces the
+     * mine layout exactly.
+     *
+     * @return seed of the current game
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * setter for the seed used to generate the mine layout. Only has an
+     * effect before the first turn; reset() picks a new random seed.
+     *
+     * @param seed seed for the mine layout
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * setter for the random number generator used to place mines. The factory
+     * is given the game's seed and must return a generator whose output
+     * depends only on that seed. Defaults to SplittableRandom (played by a
+     * reusable SplitMix64 that gives the same sequence).
+     *
+     * @param factory creates a generator from a seed
+     */
+    public void setRandomFactory(LongFunction<RandomGenerator> factory) {
+        randomFactory = factory;
+    }
+
+    /**
+     * turns no-guess mode on or off. In no-guess mode the first turn searches
+     * for a mine layout that can be solved from the clicked tile without any
+     * guessing. The search gives up after a short time budget and keeps an
+     * ordinary layout in that case, which isGuaranteedSolvable() reports.
+     * getSeed() reports the seed of the layout
+     * actually used, so the game can still be reproduced.
+     *
+     * @param noGuess whether to generate guess-free layouts
+     */
+    public void setNoGuess(boolean noGuess) {
+        this.noGuess = noGuess;
+    }
+
+    /**
+     * turns the parallel cascade on or off. When it is on (the default), a
+     * cascade on a board of more than about a million tiles that reaches a
+     * large frontier is finished on every core. The tiles uncovered are the
+     * same either way, though getChangedRow and getChangedCol may list them
+     * in a different order.
+     *
+     * @param parallel whether large cascades may run in parallel
+     */
+    public void setParallelCascade(boolean parallel) {
+        revealEngine.setParallel(parallel);
+    }
+
+    /**
+     * @return whether large cascades may run in parallel
+     */
+    public boolean isParallelCascade() {
+        return revealEngine.isParallel();
+    }
+
+    /**
+     * turns the zero-region index on or off. When it is on (the default),
+     * the first click on a 0 tile labels every zero region of the layout,
+     * on boards of up to about four million tiles. Later clicks on a 0 tile
+     * whose region is still wholly covered then uncover the region from its
+     * list of tiles instead of searching for it.
+     *
+     * @param enabled whether to use the index
+     */
+    public void setZeroRegionIndex(boolean enabled) {
+        useZeroRegions = enabled;
+    }
+
+    /**
+     * @return whether the zero-region index is used
+     */
+    public boolean isZeroRegionIndex() {
+        return useZeroRegions;
+    }
+
+    /**
+     * getter for whether no-guess mode is on
+     *
+     * @return true if first turns generate guess-free layouts
+     */
+    public boolean isNoGuess() {
+        return noGuess;
+    }
+
+    /**
+     * tells a guess-free layout apart from one kept because the no-guess
+     * search ran out of time
+     *
+     * @return true if the mines were placed by a no-guess search that found
+     *         a layout solvable by logic alone; false before the first turn,
+     *         outside no-guess mode, and when the search gave up
+     */
+    public boolean isGuaranteedSolvable() {
+        return guaranteedSolvable;
     }
 
     /**
-     * allows testing to see the size of stack;
+     * allows testing to see the number of moves that can be undone
      *
-     * @return size of stack
+     * @return number of moves in the undo history
      */
     public int getStackSize() {
-        return boardStack.size();
+        return journal.undoDepth();
+    }
+
+    /**
+     * getter for the number of undone moves that can be redone
+     *
+     * @return number of moves in the redo history
+     */
+    public int getRedoSize() {
+        return journal.redoDepth();
+    }
+
+    /**
+     * attaches a recorder that is told about every move played on this game
+     * from now on: reveals, flags, effective undos and redos, resets and the
+     * seed of each mine layout. Boards replaced through setBoard or load are
+     * not recorded.
+     *
+     * @param recorder recorder to attach, or null to detach
+     */
+    public void setRecorder(GameRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    /**
+     * turns recording into Metrics on or off for this game. Internal games,
+     * such as the probes NoGuessGenerator plays to test a layout, turn it off
+     * so that only games a player or a strategy plays are counted.
+     *
+     * @param metered whether this game's moves are recorded
+     */
+    void setMetered(boolean metered) {
+        this.metered = metered;
+    }
+
+    /**
+     * sets how many changed tiles the undo history may hold. Each tile costs
+     * five bytes; when a move pushes the history over the limit the oldest
+     * moves are forgotten.
+     *
+     * @param maxCells maximum number of tile changes to remember
+     */
+    public void setUndoCapacity(int maxCells) {
+        journal.setMaxEntries(maxCells);
+    }
+
+    /**
+     * @return how many changed tiles the undo history may hold
+     */
+    public int getUndoCapacity() {
+        return journal.getMaxEntries();
+    }
+
+    /**
+     * writes this game to a file in the compact binary format described in
+     * GameFile: the board size, seed, mine layout, visible tiles and the
+     * undo history.
+     *
+     * @param file file to write, replaced if it exists
+     * @throws IOException if the file cannot be written
+     */
+    public void save(Path file) throws IOException {
+        GameFile.write(this, file);
+    }
+
+    /**
+     * reads a game written by save(). The file is memory-mapped, so even a
+     * very large board is read in a few sequential passes.
+     *
+     * @param file file to read
+     * @return the saved game, ready to be played, undone or redone
+     * @throws IOException if the file cannot be read or is not a valid save
+     */
+    public static Minesweeper load(Path file) throws IOException {
+        return GameFile.read(file);
+    }
+
+    /*
+    Package-private access to the padded layers for GameFile, which reads
+    and writes them directly. After changing them, restored() must be called
+    to bring the counters back in line.
+     */
+    byte[] mineLayer() {
+        return board;
+    }
+
+    byte[] visibleLayer() {
+        return visibleBoard;
+    }
+
+    UndoJournal journal() {
+        return journal;
+    }
+
+    BitBoard bitBoard() {
+        return bits;
+    }
+
+    boolean isFirstTurn() {
+        return firstTurn;
+    }
+
+    void setGuaranteedSolvable(boolean solvable) {
+        guaranteedSolvable = solvable;
+    }
+
+    /**
+     * recomputes the counters and game status after the layers have been
+     * written directly
+     *
+     * @param ft whether the mines have yet to be placed
+     */
+    void restored(boolean ft) {
+        firstTurn = ft;
+        zeroRegions.invalidate();
+        recountCells();
+        if (firstTurn) { // no mines yet, so every safe tile is still to come
+            safeCellsRemaining = rows * cols - numMines;
+        }
+        gameActive = !checkWinner() && !mineShowing;
+        clearChanges();
+        boardReplaced = true;
     }
 
     /**
@@ -300,10 +1028,10 @@ public class Minesweeper {
      * @return 2D array of copied board
      */
     public int[][] getBoard() {
-        int[][] boardCopy = new int[10][10];
-        for (int i = 0; i < 10; i++) {
-            for (int j = 0; j < 10; j++) {
-                boardCopy[i][j] = board[i][j];
+        int[][] boardCopy = new int[rows][cols];
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                boardCopy[i][j] = board[index(i, j)];
             }
         }
         return boardCopy;
@@ -323,12 +1051,12 @@ public class Minesweeper {
     public static void main(String[] args) {
         Minesweeper t = new Minesweeper();
         Random random = new Random();
-        int clickedR = random.nextInt(10);
-        int clickedC = random.nextInt(10);
+        int clickedR = random.nextInt(t.getRows());
+        int clickedC = random.nextInt(t.getCols());
         t.playTurn(clickedR, clickedC, true);
 
         System.out.println("Clicked: [" + clickedR + "] [" + clickedC + "]");
-        for (int[] row : t.board) {
+        for (int[] row : t.getBoard()) {
             for (int tile : row) {
                 if (tile != -1) {
                     System.out.print(" ");
@@ -0,0 +1,111 @@
+package org.cis1200.minesweeper;
+
+/**
+ * A Move is a single player action on a Minesweeper game: uncovering,
+ * flagging or chording the tile at a row and column, or undoing, redoing or
+ * resetting.
+ * Moves are immutable so they can be handed between strategies, runners and
+ * threads freely.
+ */
+public final class Move {
+
+    /**
+     * the kinds of action a move can perform
+     */
+    public enum Type {
+        REVEAL, FLAG, CHORD, UNDO, REDO, RESET
+    }
+
+    private static final Move UNDO = new Move(Type.UNDO, -1, -1);
+    private static final Move REDO = new Move(Type.REDO, -1, -1);
+    private static final Move RESET = new Move(Type.RESET, -1, -1);
+
+    private final Type type;
+    private final int row;
+    private final int col;
+
+    private Move(Type type, int row, int col) {
+        this.type = type;
+        this.row = row;
+        this.col = col;
+    }
+
+    /**
+     * @return a move that uncovers (or unflags) the tile at r, c
+     */
+    public static Move reveal(int r, int c) {
+        return new Move(Type.REVEAL, r, c);
+    }
+
+    /**
+     * @return a move that flags the tile at r, c
+     */
+    public static Move flag(int r, int c) {
+        return new Move(Type.FLAG, r, c);
+    }
+
+    /**
+     * @return a move that uncovers the unflagged neighbours of the numbered
+     *         tile at r, c if its flags match its number
+     */
+    public static Move chord(int r, int c) {
+        return new Move(Type.CHORD, r, c);
+    }
+
+    /**
+     * @return a move that undoes the most recent move
+     */
+    public static Move undo() {
+        return UNDO;
+    }
+
+    /**
+     * @return a move that redoes the most recently undone move
+     */
+    public static Move redo() {
+        return REDO;
+    }
+
+    /**
+     * @return a move that starts a new game
+     */
+    public static Move reset() {
+        return RESET;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public int getRow() {
+        return row;
+    }
+
+    public int getCol() {
+        return col;
+    }
+
+    /**
+     * plays this move on the given game, as a new undoable move for REVEAL,
+     * FLAG and CHORD
+     */
+    public void applyTo(Minesweeper game) {
+        switch (type) {
+            case REVEAL -> game.playTurn(row, col, true);
+            case FLAG -> game.playFlag(row, col);
+            case CHORD -> game.playChord(row, col);
+            case UNDO -> game.undo();
+            case REDO -> game.redo();
+            case RESET -> game.reset();
+            default -> throw new IllegalStateException("unknown move type " + type);
+        }
+    }
+
+    @Override
+    public String toString() {
+        if (row < 0) {
+            return type.toString();
+        }
+        return type + " [" + row + "] [" + col + "]";
+    }
+}
@@ -0,0 +1,215 @@
+package org.cis1200.minesweeper;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * MoveLogReplay reads a log written by MoveLogWriter and rebuilds the
+ * recorded game as it stood after any number of moves. The log must have been
+ * attached to the game before its first move.
+ *
+ * The whole log is decoded up front into primitive arrays. Replaying keeps a
+ * copy of the game every checkpointInterval moves, so jumping to a move
+ * replays at most checkpointInterval moves from the nearest checkpoint rather
+ * than the whole log. Checkpoints are taken the first time replay passes
+ * them; each one costs a full copy of the game.
+ */
+public class MoveLogReplay {
+
+    public static final int DEFAULT_CHECKPOINT_INTERVAL = 4096;
+
+    private final int rows;
+    private final int cols;
+    private final int numMines;
+    private final int interval;
+
+    // move k has opcode ops[k] and tile tiles[k]; SEED events are kept apart
+    private byte[] ops = new byte[64];
+    private int[] tiles = new int[64];
+    private int moveCount;
+    private long[] seeds = new long[4];
+    private int[] seedMove = new int[4]; // the move each seed applies to, ascending
+    private int seedCount;
+
+    private final List<Minesweeper> checkpoints = new ArrayList<>();
+
+    /**
+     * reads a log with the default checkpoint interval
+     *
+     * @param file log written by MoveLogWriter
+     * @throws IOException if the file cannot be read or is not a valid log
+     */
+    public MoveLogReplay(Path file) throws IOException {
+        this(file, DEFAULT_CHECKPOINT_INTERVAL);
+    }
+
+    /**
+     * reads a log
+     *
+     * @param file log written by MoveLogWriter
+     * @param checkpointInterval number of moves between checkpoints
+     * @throws IOException if the file cannot be read or is not a valid log
+     */
+    public MoveLogReplay(Path file, int checkpointInterval) throws IOException {
+        if (checkpointInterval <= 0) {
+            throw new IllegalArgumentException("checkpoint interval must be positive");
+        }
+        interval = checkpointInterval;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length < MoveLogWriter.HEADER_BYTES || length > Integer.MAX_VALUE) {
+                throw new IOException("not a Minesweeper move log: " + file);
+            }
+            MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            if (in.getInt() != MoveLogWriter.MAGIC) {
+                throw new IOException("not a Minesweeper move log: " + file);
+            }
+            short version = in.getShort();
+            if (version != MoveLogWriter.VERSION) {
+                throw new IOException("unsupported move log version " + version);
+            }
+            in.getShort();
+            rows = in.getInt();
+            cols = in.getInt();
+            numMines = in.getInt();
+            try {
+                checkpoints.add(new Minesweeper(rows, cols, numMines));
+            } catch (IllegalArgumentException e) {
+                throw new IOException("corrupt move log header", e);
+            }
+            decode(in);
+        }
+    }
+
+    private void decode(MappedByteBuffer in) throws IOException {
+        long tileCount = (long) rows * cols;
+        while (in.hasRemaining()) {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                if (!in.hasRemaining() || shift > 63) {
+                    throw new IOException("truncated event in move log");
+                }
+                b = in.get();
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+
+            int opcode = (int) (value & ((1 << MoveLogWriter.OPCODE_BITS) - 1));
+            long tile = value >>> MoveLogWriter.OPCODE_BITS;
+            if (opcode == MoveLogWriter.SEED) {
+                if (in.remaining() < Long.BYTES) {
+                    throw new IOException("truncated seed in move log");
+                }
+                if (seedCount == seeds.length) {
+                    seeds = Arrays.copyOf(seeds, seedCount * 2);
+                    seedMove = Arrays.copyOf(seedMove, seedCount * 2);
+                }
+                seeds[seedCount] = in.getLong();
+                seedMove[seedCount++] = moveCount;
+                continue;
+            } else if (tile >= tileCount) {
+                throw new IOException("invalid event in move log");
+            }
+            if (moveCount == ops.length) {
+                ops = Arrays.copyOf(ops, moveCount * 2);
+                tiles = Arrays.copyOf(tiles, moveCount * 2);
+            }
+            ops[moveCount] = (byte) opcode;
+            tiles[moveCount++] = (int) tile;
+        }
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    public int getNumMines() {
+        return numMines;
+    }
+
+    /**
+     * @return number of moves in the log
+     */
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    /**
+     * @param k position of the move in the log
+     * @return the k-th move
+     */
+    public Move getMove(int k) {
+        int r = tiles[k] / cols;
+        int c = tiles[k] % cols;
+        return switch (ops[k]) {
+            case MoveLogWriter.REVEAL, MoveLogWriter.REVEAL_MERGE -> Move.reveal(r, c);
+            case MoveLogWriter.FLAG -> Move.flag(r, c);
+            case MoveLogWriter.CHORD -> Move.chord(r, c);
+            case MoveLogWriter.UNDO -> Move.undo();
+            case MoveLogWriter.REDO -> Move.redo();
+            default -> Move.reset();
+        };
+    }
+
+    /**
+     * rebuilds the game as it stood after the given number of moves
+     *
+     * @param moves number of moves to play, from 0 to getMoveCount()
+     * @return a new game owned by the caller
+     */
+    public Minesweeper gameAt(int moves) {
+        if (moves < 0 || moves > moveCount) {
+            throw new IndexOutOfBoundsException("move " + moves + " of " + moveCount);
+        }
+        int k = Math.min(moves / interval, checkpoints.size() - 1);
+        Minesweeper game = new Minesweeper(checkpoints.get(k));
+        for (int pos = k * interval; pos < moves;) {
+            play(game, pos);
+            pos++;
+            if (pos % interval == 0 && pos / interval == checkpoints.size()) {
+                checkpoints.add(new Minesweeper(game));
+            }
+        }
+        return game;
+    }
+
+    /**
+     * @return the game as it stood at the end of the log
+     */
+    public Minesweeper replay() {
+        return gameAt(moveCount);
+    }
+
+    private void play(Minesweeper game, int k) {
+        int r = tiles[k] / cols;
+        int c = tiles[k] % cols;
+        switch (ops[k]) {
+            case MoveLogWriter.REVEAL, MoveLogWriter.REVEAL_MERGE -> {
+                if (game.isFirstTurn()) {
+                    int s = Arrays.binarySearch(seedMove, 0, seedCount, k);
+                    if (s >= 0) {
+                        game.setSeed(seeds[s]);
+                    }
+                }
+                game.playTurn(r, c, ops[k] == MoveLogWriter.REVEAL);
+            }
+            case MoveLogWriter.FLAG -> game.playFlag(r, c);
+            case MoveLogWriter.CHORD -> game.playChord(r, c);
+            case MoveLogWriter.UNDO -> game.undo();
+            case MoveLogWriter.REDO -> game.redo();
+            default -> game.reset();
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package org.cis1200.minesweeper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * MoveLogWriter records the moves of a Minesweeper game as an append-only
+ * stream of compact events, which MoveLogReplay can play back.
+ *
+ * A log starts with a 20-byte header: magic "MSLG", version (short), a
+ * reserved short, then the rows, columns and mines of the game (ints, all
+ * big-endian). Each event is an unsigned LEB128 varint holding
+ * (tile << 3) | opcode, where tile is the row-major index r * cols + c and
+ * is 0 for the opcodes that do not name a tile. A SEED event is followed by
+ * its seed as an 8-byte big-endian long. A move on a board of up to 2048
+ * tiles takes two bytes.
+ *
+ * Events are collected in a buffer and written to the channel when it fills
+ * or the writer is flushed or closed. Write failures are rethrown from the
+ * game's move methods as UncheckedIOException.
+ */
+public class MoveLogWriter implements GameRecorder, Closeable {
+
+    static final int MAGIC = 0x4D534C47; // "MSLG"
+    static final short VERSION = 1;
+    static final int HEADER_BYTES = 20;
+
+    static final int REVEAL = 0;
+    static final int FLAG = 1;
+    static final int UNDO = 2;
+    static final int REDO = 3;
+    static final int RESET = 4;
+    static final int SEED = 5;
+    static final int REVEAL_MERGE = 6; // reveal that joins the previous move
+    static final int CHORD = 7;
+    static final int OPCODE_BITS = 3;
+
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+    private final Minesweeper game;
+    private final int cols;
+    private long events;
+
+    /**
+     * creates (or replaces) a log file and starts recording the game's moves
+     * into it
+     *
+     * @param file file to write the log to
+     * @param game game to record
+     * @throws IOException if the file cannot be created
+     */
+    public MoveLogWriter(Path file, Minesweeper game) throws IOException {
+        this(FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING), game);
+    }
+
+    /**
+     * starts recording the game's moves into a channel, which is closed
+     * together with this writer
+     *
+     * @param channel channel to write the log to
+     * @param game game to record
+     */
+    public MoveLogWriter(WritableByteChannel channel, Minesweeper game) {
+        this.channel = channel;
+        this.game = game;
+        this.cols = game.getCols();
+        buffer.putInt(MAGIC);
+        buffer.putShort(VERSION);
+        buffer.putShort((short) 0);
+        buffer.putInt(game.getRows());
+        buffer.putInt(cols);
+        buffer.putInt(game.getNumMines());
+        game.setRecorder(this);
+    }
+
+    /**
+     * @return number of events recorded so far
+     */
+    public long getEventCount() {
+        return events;
+    }
+
+    @Override
+    public void seed(long seed) {
+        event(SEED, 0);
+        ensure(Long.BYTES);
+        buffer.putLong(seed);
+    }
+
+    @Override
+    public void reveal(int r, int c, boolean newMove) {
+        event(newMove ? REVEAL : REVEAL_MERGE, (long) r * cols + c);
+    }
+
+    @Override
+    public void flag(int r, int c) {
+        event(FLAG, (long) r * cols + c);
+    }
+
+    @Override
+    public void chord(int r, int c) {
+        event(CHORD, (long) r * cols + c);
+    }
+
+    @Override
+    public void undo() {
+        event(UNDO, 0);
+    }
+
+    @Override
+    public void redo() {
+        event(REDO, 0);
+    }
+
+    @Override
+    public void reset() {
+        event(RESET, 0);
+    }
+
+    private void event(int opcode, long tile) {
+        ensure(10); // the longest varint of a 64-bit value
+        long value = tile << OPCODE_BITS | opcode;
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) (value & 0x7F | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+        events++;
+    }
+
+    private void ensure(int bytes) {
+        if (buffer.remaining() < bytes) {
+            try {
+                drain();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * writes every buffered event to the channel
+     */
+    public void flush() throws IOException {
+        drain();
+    }
+
+    /**
+     * stops recording, flushes the buffered events and closes the channel
+     */
+    @Override
+    public void close() throws IOException {
+        game.setRecorder(null);
+        try {
+            drain();
+        } finally {
+            channel.close();
+        }
+    }
+}
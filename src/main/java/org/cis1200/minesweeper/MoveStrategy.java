@@ -0,0 +1,28 @@
+package org.cis1200.minesweeper;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * A MoveStrategy decides which move an automated player makes next. The
+ * SimulationRunner gives every worker thread its own strategy instance, so
+ * implementations may keep per-game state without synchronisation.
+ */
+public interface MoveStrategy {
+
+    /**
+     * called before the first move of every game
+     *
+     * @param game the new game
+     */
+    default void newGame(Minesweeper game) {
+    }
+
+    /**
+     * chooses the next move for an active game
+     *
+     * @param game the game being played
+     * @param random random source seeded for this game
+     * @return the move to play, or null to abandon the game
+     */
+    Move nextMove(Minesweeper game, RandomGenerator random);
+}
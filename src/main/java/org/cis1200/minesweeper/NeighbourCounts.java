@@ -0,0 +1,96 @@
+package org.cis1200.minesweeper;
+
+/**
+ * NeighbourCounts maintains the numbered tiles of a board layer stored in the
+ * padded layout used by Minesweeper: a row-major byte array with one extra
+ * row above and below the board and one extra column on each side, so that
+ * every real tile has eight neighbours at fixed offsets and no bounds checks
+ * are needed.
+ *
+ * Counts are built by scattering +1 from each mine into its neighbours, which
+ * costs O(mines) rather than a nine-tile lookup for every tile on the board.
+ * Adding or removing a single mine updates the eight surrounding counts.
+ */
+final class NeighbourCounts {
+
+    private NeighbourCounts() {
+    }
+
+    /**
+     * @param stride length of one padded row (columns + 2)
+     * @return the offsets of the eight neighbours of a tile
+     */
+    static int[] offsets(int stride) {
+        return new int[] {
+            -stride - 1, -stride, -stride + 1,
+            -1, 1,
+            stride - 1, stride, stride + 1
+        };
+    }
+
+    /**
+     * places a mine on a tile that does not have one and increments the
+     * counts around it
+     */
+    static void addMine(byte[] board, int[] offsets, int cell) {
+        board[cell] = -1;
+        for (int off : offsets) {
+            int n = cell + off;
+            if (board[n] != -1) {
+                board[n]++;
+            }
+        }
+    }
+
+    /**
+     * removes the mine from a tile, decrements the counts around it and gives
+     * the tile its own count
+     */
+    static void removeMine(byte[] board, int[] offsets, int cell) {
+        byte count = 0;
+        for (int off : offsets) {
+            int n = cell + off;
+            if (board[n] == -1) {
+                count++;
+            } else {
+                board[n]--;
+            }
+        }
+        board[cell] = count;
+    }
+
+    /**
+     * recomputes every count from scratch. Non-mine tiles (including the
+     * padding) are zeroed, then every mine scatters into its neighbours.
+     */
+    static void rebuild(byte[] board, int[] offsets) {
+        for (int i = 0; i < board.length; i++) {
+            if (board[i] != -1) {
+                board[i] = 0;
+            }
+        }
+        for (int i = 0; i < board.length; i++) {
+            if (board[i] == -1) {
+                for (int off : offsets) {
+                    int n = i + off;
+                    if (board[n] != -1) {
+                        board[n]++;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the number of mines on the tile and its eight neighbours
+     */
+    static int count(byte[] board, int[] offsets, int cell) {
+        int count = board[cell] == -1 ? 1 : 0;
+        for (int off : offsets) {
+            if (board[cell + off] == -1) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
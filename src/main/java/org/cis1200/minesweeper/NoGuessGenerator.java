@@ -0,0 +1,88 @@
+package org.cis1200.minesweeper;
+
+import java.util.OptionalInt;
+import java.util.OptionalLong;
+import java.util.function.LongFunction;
+import java.util.random.RandomGenerator;
+import java.util.stream.IntStream;
+
+/**
+ * NoGuessGenerator looks for a mine layout that can be solved from the first
+ * click by logic alone. Candidate layouts come from seeds derived from the
+ * game's seed; each candidate is played out on a private Minesweeper by the
+ * Solver, making only moves the solver can prove safe, and is rejected the
+ * moment the solver gets stuck.
+ *
+ * Candidates are checked in parallel batches on the common ForkJoinPool. The
+ * lowest-numbered solvable candidate of the first batch that has one is
+ * chosen, so the result depends only on the inputs and not on scheduling.
+ * If the budget runs out first, no seed is returned and the game keeps its
+ * own layout, which may need a guess.
+ */
+final class NoGuessGenerator {
+
+    static final long DEFAULT_TIME_BUDGET_NANOS = 40_000_000L;
+    static final int MAX_CANDIDATES = 20_000;
+    private static final long SEED_STEP = 0x9E3779B97F4A7C15L;
+
+    private NoGuessGenerator() {
+    }
+
+    /**
+     * @return the seed of candidate k for a game whose own seed is baseSeed
+     */
+    static long candidateSeed(long baseSeed, int k) {
+        return baseSeed + k * SEED_STEP;
+    }
+
+    /**
+     * searches for a seed whose layout (for a first click at clickedR,
+     * clickedC) can be solved without guessing
+     *
+     * @param timeBudgetNanos stop starting new batches after this long
+     * @return a seed with a logically solvable layout, or empty if none was
+     *         found within the budget
+     */
+    static OptionalLong findSeed(int rows, int cols, int numMines, int clickedR, int clickedC,
+            long baseSeed, LongFunction<RandomGenerator> randomFactory, long timeBudgetNanos) {
+        long deadline = System.nanoTime() + timeBudgetNanos;
+        int batch = 4 * Runtime.getRuntime().availableProcessors();
+        for (int from = 0; from < MAX_CANDIDATES; from += batch) {
+            OptionalInt found = IntStream.range(from, Math.min(from + batch, MAX_CANDIDATES))
+                    .parallel()
+                    .filter(k -> isSolvable(rows, cols, numMines, clickedR, clickedC,
+                            candidateSeed(baseSeed, k), randomFactory))
+                    .min();
+            if (found.isPresent()) {
+                return OptionalLong.of(candidateSeed(baseSeed, found.getAsInt()));
+            }
+            if (System.nanoTime() > deadline) {
+                break;
+            }
+        }
+        return OptionalLong.empty();
+    }
+
+    /**
+     * plays a candidate layout with certain moves only
+     *
+     * @return whether the solver uncovered every safe tile
+     */
+    static boolean isSolvable(int rows, int cols, int numMines, int clickedR, int clickedC,
+            long seed, LongFunction<RandomGenerator> randomFactory) {
+        Minesweeper probe = new Minesweeper(rows, cols, numMines, seed);
+        probe.setMetered(false); // rejected layouts are not real games
+        probe.setRandomFactory(randomFactory);
+        probe.playTurn(clickedR, clickedC, true);
+        Solver solver = new Solver(probe);
+        while (probe.getActive()) {
+            Move move = solver.nextSafeMove();
+            if (move == null) {
+                return false; // stuck: this layout needs a guess
+            }
+            probe.playTurn(move.getRow(), move.getCol(), false);
+            solver.observe(move.getRow(), move.getCol());
+        }
+        return probe.checkWinner();
+    }
+}
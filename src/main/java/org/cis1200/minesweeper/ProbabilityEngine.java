@@ -0,0 +1,840 @@
+package org.cis1200.minesweeper;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * ProbabilityEngine computes the chance that each covered tile of a game holds
+ * a mine, given only what a player can see through getCell() and the total
+ * number of mines. Flags are not trusted; a flagged tile counts as covered.
+ *
+ * Every uncovered number constrains its covered neighbours, which form the
+ * frontier. Frontier tiles linked through shared constraints form a
+ * component, and components are independent of each other except through the
+ * mine total. Each component is enumerated by backtracking, counting for
+ * every possible number of mines m how many assignments satisfy all of its
+ * constraints and, of those, how many put a mine on each of its tiles.
+ *
+ * The components are then combined with the tiles away from the frontier: a
+ * layout putting k mines on the frontier can be completed in
+ * C(interior tiles, mines - k) ways, so each component's counts are weighted
+ * by the number of ways the other components and the interior can take up
+ * the rest of the mines. The weights are kept as ratios, scaled as they are
+ * built, because the binomials themselves overflow a double on large boards.
+ *
+ * Enumeration results depend only on a component's constraints, so they are
+ * cached by those constraints and most components are looked up, not
+ * enumerated again, after a move. Components with more than EXACT_LIMIT
+ * tiles, or whose enumeration runs past the time budget, are estimated from
+ * random satisfying assignments instead, and the result is then marked as not
+ * exact. The budget is checked as the work goes, so compute() can overrun it
+ * by a few samples per remaining component.
+ */
+public class ProbabilityEngine {
+
+    public static final long DEFAULT_BUDGET_NANOS = 50_000_000L; // 50 ms
+    static final int EXACT_LIMIT = 256; // tiles in a component enumerated exactly
+    private static final int SAMPLES = 2000;
+    private static final int MIN_SAMPLES = 16; // taken even when out of time
+    private static final int CACHE_SIZE = 4096;
+    private static final int CHECK_EVERY = 1 << 12; // nodes between clock reads
+
+    private final long budgetNanos;
+    private final SplittableRandom random;
+    private final Map<Key, Solutions> cache = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Solutions> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+    private int cacheHits;
+
+    // constraints of the board being computed, stored back to back
+    private int[] conTile = new int[16];
+    private int[] conTarget = new int[16];
+    private int[] conStart = new int[17];
+    private int[] conVars = new int[64];
+    private int constraintCount;
+    private int varEntries;
+
+    private long deadline;
+    private long nodes;
+
+    /**
+     * creates an engine with the default time budget
+     */
+    public ProbabilityEngine() {
+        this(DEFAULT_BUDGET_NANOS, 1200L);
+    }
+
+    /**
+     * @param budgetNanos time compute() may spend before it falls back to
+     *            sampling
+     * @param seed seed of the random assignments used for sampling
+     */
+    public ProbabilityEngine(long budgetNanos, long seed) {
+        if (budgetNanos <= 0) {
+            throw new IllegalArgumentException("budget must be positive");
+        }
+        this.budgetNanos = budgetNanos;
+        this.random = new SplittableRandom(seed);
+    }
+
+    /**
+     * @return how often a component was found in the cache
+     */
+    int getCacheHits() {
+        return cacheHits;
+    }
+
+    int getCacheSize() {
+        return cache.size();
+    }
+
+    /**
+     * computes the mine probability of every tile of the game as it is now
+     *
+     * @param game the game to read
+     * @return the probabilities; 0 for uncovered tiles and 1 for shown mines
+     */
+    public Result compute(Minesweeper game) {
+        deadline = System.nanoTime() + budgetNanos;
+        int rows = game.getRows();
+        int cols = game.getCols();
+        int n = rows * cols;
+        byte[] visible = new byte[n];
+        int coveredTiles = 0;
+        int shownMines = 0;
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                byte v = (byte) game.getCell(r, c);
+                visible[r * cols + c] = v;
+                if (v == -2 || v == -3) {
+                    coveredTiles++;
+                } else if (v == -1) {
+                    shownMines++;
+                }
+            }
+        }
+        double[] probability = new double[n];
+        for (int t = 0; t < n; t++) {
+            probability[t] = visible[t] == -1 ? 1 : 0;
+        }
+
+        // union-find over frontier tiles; parent[t] == -1 off the frontier
+        int[] parent = new int[n];
+        Arrays.fill(parent, -1);
+        collectConstraints(visible, rows, cols, parent);
+        for (int k = 0; k < constraintCount; k++) {
+            int first = conVars[conStart[k]];
+            for (int e = conStart[k] + 1; e < conStart[k + 1]; e++) {
+                union(parent, first, conVars[e]);
+            }
+        }
+
+        // group constraints by component, in compressed sparse rows
+        int[] componentOf = new int[n];
+        Arrays.fill(componentOf, -1);
+        int components = 0;
+        int[] conComponent = new int[constraintCount];
+        for (int k = 0; k < constraintCount; k++) {
+            int root = find(parent, conVars[conStart[k]]);
+            if (componentOf[root] < 0) {
+                componentOf[root] = components++;
+            }
+            conComponent[k] = componentOf[root];
+        }
+        int[] compStart = new int[components + 1];
+        for (int k = 0; k < constraintCount; k++) {
+            compStart[conComponent[k] + 1]++;
+        }
+        for (int c = 0; c < components; c++) {
+            compStart[c + 1] += compStart[c];
+        }
+        int[] compCons = new int[constraintCount];
+        int[] fill = Arrays.copyOf(compStart, components);
+        for (int k = 0; k < constraintCount; k++) {
+            compCons[fill[conComponent[k]]++] = k;
+        }
+
+        Solutions[] solved = new Solutions[components];
+        boolean exact = true;
+        int frontierTiles = 0;
+        int[] local = new int[n]; // position of a tile within its component
+        // tiles of a component that could not be sampled join the interior
+        boolean[] frontier = new boolean[n];
+        for (int c = 0; c < components; c++) {
+            Key key = keyOf(compCons, compStart[c], compStart[c + 1]);
+            Solutions solutions = cache.get(key);
+            if (solutions != null) {
+                cacheHits++;
+            } else {
+                solutions = solve(key, local, false);
+                if (solutions != null) {
+                    cache.put(key, solutions);
+                } else {
+                    exact = false;
+                    solutions = solve(key, local, true);
+                }
+            }
+            if (solutions != null) {
+                solved[c] = solutions;
+                frontierTiles += solutions.tiles.length;
+                for (int t : solutions.tiles) {
+                    frontier[t] = true;
+                }
+            }
+        }
+
+        int interior = coveredTiles - frontierTiles;
+        int mines = game.getNumMines() - shownMines;
+        combine(solved, interior, mines, probability);
+        if (interior > 0) {
+            double p = interiorProbability(solved, interior, mines);
+            for (int t = 0; t < n; t++) {
+                if ((visible[t] == -2 || visible[t] == -3) && !frontier[t]) {
+                    probability[t] = p;
+                }
+            }
+        }
+        return new Result(rows, cols, visible, probability, exact, components);
+    }
+
+    /**
+     * reads every uncovered number with covered neighbours as a constraint,
+     * and marks those neighbours in parent as frontier tiles
+     */
+    private void collectConstraints(byte[] visible, int rows, int cols, int[] parent) {
+        constraintCount = 0;
+        varEntries = 0;
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                int v = visible[r * cols + c];
+                if (v < 1) {
+                    continue;
+                }
+                int before = varEntries;
+                int target = v;
+                for (int dr = -1; dr <= 1; dr++) {
+                    for (int dc = -1; dc <= 1; dc++) {
+                        int nr = r + dr;
+                        int nc = c + dc;
+                        if ((dr == 0 && dc == 0) || nr < 0 || nr >= rows || nc < 0
+                                || nc >= cols) {
+                            continue;
+                        }
+                        int t = nr * cols + nc;
+                        if (visible[t] == -1) {
+                            target--;
+                        } else if (visible[t] == -2 || visible[t] == -3) {
+                            if (varEntries == conVars.length) {
+                                conVars = Arrays.copyOf(conVars, varEntries * 2);
+                            }
+                            conVars[varEntries++] = t;
+                            if (parent[t] == -1) {
+                                parent[t] = t;
+                            }
+                        }
+                    }
+                }
+                if (varEntries == before) {
+                    continue;
+                }
+                if (constraintCount + 1 == conTile.length) {
+                    conTile = Arrays.copyOf(conTile, conTile.length * 2);
+                    conTarget = Arrays.copyOf(conTarget, conTarget.length * 2);
+                    conStart = Arrays.copyOf(conStart, conTile.length + 1);
+                }
+                conTile[constraintCount] = r * cols + c;
+                conTarget[constraintCount] = target;
+                conStart[constraintCount] = before;
+                constraintCount++;
+                conStart[constraintCount] = varEntries;
+            }
+        }
+    }
+
+    private static int find(int[] parent, int t) {
+        while (parent[t] != t) {
+            parent[t] = parent[parent[t]];
+            t = parent[t];
+        }
+        return t;
+    }
+
+    private static void union(int[] parent, int a, int b) {
+        int ra = find(parent, a);
+        int rb = find(parent, b);
+        if (ra != rb) {
+            parent[Math.max(ra, rb)] = Math.min(ra, rb);
+        }
+    }
+
+    /**
+     * @return the constraints of a component as a key: for each constraint,
+     *         in board order, its tile, its target, the number of its covered
+     *         neighbours and those neighbours
+     */
+    private Key keyOf(int[] compCons, int from, int to) {
+        int length = 0;
+        for (int k = from; k < to; k++) {
+            int con = compCons[k];
+            length += 3 + conStart[con + 1] - conStart[con];
+        }
+        int[] data = new int[length];
+        int pos = 0;
+        for (int k = from; k < to; k++) {
+            int con = compCons[k];
+            data[pos++] = conTile[con];
+            data[pos++] = conTarget[con];
+            data[pos++] = conStart[con + 1] - conStart[con];
+            for (int e = conStart[con]; e < conStart[con + 1]; e++) {
+                data[pos++] = conVars[e];
+            }
+        }
+        return new Key(data);
+    }
+
+    /**
+     * enumerates or samples the satisfying assignments of a component
+     *
+     * @param key the component's constraints
+     * @param local scratch array mapping tiles to their position in the
+     *            component
+     * @param sample whether to sample instead of enumerating
+     * @return the solutions, or null if enumeration was abandoned or
+     *         sampling found no assignment
+     */
+    private Solutions solve(Key key, int[] local, boolean sample) {
+        int[] data = key.data;
+        // tiles in the order their constraints list them, so that
+        // constraints are completed early in the search
+        int[] tiles = new int[data.length];
+        int size = 0;
+        int cons = 0;
+        for (int pos = 0; pos < data.length; pos += 3 + data[pos + 2]) {
+            cons++;
+            for (int e = pos + 3; e < pos + 3 + data[pos + 2]; e++) {
+                int t = data[e];
+                if (contains(tiles, size, local, t)) {
+                    continue;
+                }
+                local[t] = size;
+                tiles[size++] = t;
+            }
+        }
+        tiles = Arrays.copyOf(tiles, size);
+        if (!sample && size > EXACT_LIMIT) {
+            return null;
+        }
+
+        // constraints touching each tile
+        int[] rem = new int[cons];
+        int[] open = new int[cons];
+        int[] degree = new int[size];
+        int[][] tileCons = new int[size][];
+        int k = 0;
+        for (int pos = 0; pos < data.length; pos += 3 + data[pos + 2], k++) {
+            rem[k] = data[pos + 1];
+            open[k] = data[pos + 2];
+            for (int e = pos + 3; e < pos + 3 + data[pos + 2]; e++) {
+                degree[local[data[e]]]++;
+            }
+        }
+        for (int v = 0; v < size; v++) {
+            tileCons[v] = new int[degree[v]];
+            degree[v] = 0;
+        }
+        k = 0;
+        for (int pos = 0; pos < data.length; pos += 3 + data[pos + 2], k++) {
+            if (rem[k] < 0 || rem[k] > open[k]) {
+                return sample ? null : new Solutions(tiles, 0, new double[1],
+                        new double[size][1]); // the board contradicts itself
+            }
+            for (int e = pos + 3; e < pos + 3 + data[pos + 2]; e++) {
+                int v = local[data[e]];
+                tileCons[v][degree[v]++] = k;
+            }
+        }
+        Search search = new Search(size, tileCons, rem, open);
+        return sample ? sample(search, tiles) : enumerate(search, tiles);
+    }
+
+    /**
+     * @return whether t is among the first size entries of tiles, using
+     *         local as a hint
+     */
+    private static boolean contains(int[] tiles, int size, int[] local, int t) {
+        int hint = local[t];
+        return hint >= 0 && hint < size && tiles[hint] == t;
+    }
+
+    private Solutions enumerate(Search search, int[] tiles) {
+        int size = tiles.length;
+        double[] ways = new double[size + 1];
+        double[][] mineWays = new double[size][size + 1];
+        while (search.next(0)) {
+            if (++nodes % CHECK_EVERY == 0 && System.nanoTime() > deadline) {
+                return null;
+            }
+            if (search.depth < size) {
+                continue;
+            }
+            int m = search.mines;
+            ways[m]++;
+            for (int v = 0; v < size; v++) {
+                if (search.value[v] == 1) {
+                    mineWays[v][m]++;
+                }
+            }
+        }
+        return new Solutions(tiles, 0, ways, mineWays);
+    }
+
+    /**
+     * collects random satisfying assignments, each found by a search that
+     * tries the two values of every tile in random order. The assignments are
+     * not uniformly distributed, so the result is only an estimate.
+     */
+    private Solutions sample(Search search, int[] tiles) {
+        int size = tiles.length;
+        long nodeLimit = 64L * size + 1024;
+        long[][] found = new long[SAMPLES][];
+        int[] foundMines = new int[SAMPLES];
+        int count = 0;
+        for (int attempt = 0; attempt < SAMPLES; attempt++) {
+            if (attempt >= MIN_SAMPLES && System.nanoTime() > deadline) {
+                break;
+            }
+            search.reset();
+            long seed = random.nextLong() | 1;
+            long spent = 0;
+            boolean complete = false;
+            while (spent++ < nodeLimit && search.next(seed)) {
+                if (search.depth == size) {
+                    complete = true;
+                    break;
+                }
+            }
+            if (!complete) {
+                continue;
+            }
+            long[] bits = new long[(size + 63) >>> 6];
+            for (int v = 0; v < size; v++) {
+                if (search.value[v] == 1) {
+                    bits[v >>> 6] |= 1L << v;
+                }
+            }
+            found[count] = bits;
+            foundMines[count++] = search.mines;
+        }
+        if (count == 0) {
+            return null;
+        }
+        int low = Integer.MAX_VALUE;
+        int high = 0;
+        for (int s = 0; s < count; s++) {
+            low = Math.min(low, foundMines[s]);
+            high = Math.max(high, foundMines[s]);
+        }
+        double[] ways = new double[high - low + 1];
+        double[][] mineWays = new double[size][high - low + 1];
+        for (int s = 0; s < count; s++) {
+            int m = foundMines[s] - low;
+            ways[m]++;
+            for (int v = 0; v < size; v++) {
+                if ((found[s][v >>> 6] >>> v & 1) != 0) {
+                    mineWays[v][m]++;
+                }
+            }
+        }
+        return new Solutions(tiles, low, ways, mineWays);
+    }
+
+    /**
+     * log C(n, k) for k in [from, to], or -infinity outside [0, n]
+     */
+    private static double[] logBinomials(int n, int from, int to) {
+        double[] result = new double[to - from + 1];
+        Arrays.fill(result, Double.NEGATIVE_INFINITY);
+        double log = 0;
+        for (int k = 0; k <= Math.min(n, to); k++) {
+            if (k >= from) {
+                result[k - from] = log;
+            }
+            log += Math.log(n - k) - Math.log(k + 1);
+        }
+        return result;
+    }
+
+    /**
+     * fills in the probability of every frontier tile. With components
+     * 0..C-1, before[c][a] weighs the ways components 0..c-1 hold a mines and
+     * after[c][x] the ways components c.. and the interior hold x mines, so a
+     * tile's weight sums before[c] * its mine counts * after[c + 1] over the
+     * mines left.
+     */
+    private static void combine(Solutions[] solved, int interior, int mines,
+            double[] probability) {
+        int components = solved.length;
+        int maxFrontier = 0;
+        for (Solutions s : solved) {
+            if (s != null) {
+                maxFrontier += s.offset + s.ways.length - 1;
+            }
+        }
+        int low = Math.max(0, mines - maxFrontier); // fewest mines left for the interior
+        double[][] after = new double[components + 1][];
+        after[components] = scaledExp(logBinomials(interior, low, Math.max(low, mines)));
+        for (int c = components - 1; c >= 0; c--) {
+            after[c] = convolveAfter(solved[c], after[c + 1], low);
+        }
+        double[] before = { 1 };
+        for (int c = 0; c < components; c++) {
+            Solutions s = solved[c];
+            if (s == null) {
+                continue;
+            }
+            // weight[m]: ways everything outside the component takes up the
+            // mines the component leaves when it holds m of them
+            double[] weight = new double[s.ways.length];
+            for (int m = 0; m < weight.length; m++) {
+                int held = s.offset + m;
+                double sum = 0;
+                for (int a = 0; a < before.length; a++) {
+                    sum += before[a] * at(after[c + 1], mines - a - held, low);
+                }
+                weight[m] = sum;
+            }
+            double total = 0;
+            double local = 0;
+            for (int m = 0; m < weight.length; m++) {
+                total += s.ways[m] * weight[m];
+                local += s.ways[m];
+            }
+            for (int v = 0; v < s.tiles.length; v++) {
+                double sum = 0;
+                double localSum = 0;
+                for (int m = 0; m < weight.length; m++) {
+                    sum += s.mineWays[v][m] * weight[m];
+                    localSum += s.mineWays[v][m];
+                }
+                // with no consistent total, fall back to the component alone
+                probability[s.tiles[v]] = total > 0 ? sum / total
+                        : local > 0 ? localSum / local : 0;
+            }
+            before = convolve(before, s);
+        }
+    }
+
+    /**
+     * @return the share of the remaining mines expected in the interior, per
+     *         interior tile
+     */
+    private static double interiorProbability(Solutions[] solved, int interior, int mines) {
+        double[] held = { 1 };
+        for (Solutions s : solved) {
+            if (s != null) {
+                held = convolve(held, s);
+            }
+        }
+        int low = Math.max(0, mines - (held.length - 1));
+        double[] binomials = logBinomials(interior, low, Math.max(low, mines));
+        double top = Double.NEGATIVE_INFINITY;
+        for (double b : binomials) {
+            top = Math.max(top, b);
+        }
+        double total = 0;
+        double expected = 0;
+        for (int a = 0; a < held.length; a++) {
+            int left = mines - a;
+            if (left < low || left > mines) {
+                continue;
+            }
+            double w = held[a] * Math.exp(binomials[left - low] - top);
+            total += w;
+            expected += w * left;
+        }
+        if (total == 0) {
+            return Math.min(1, Math.max(0, (double) mines / interior));
+        }
+        return expected / total / interior;
+    }
+
+    /**
+     * @return after[x] = sum over m of s.ways[m] * next[x - m], for x from low
+     *         to the end of next, scaled so its largest entry is 1
+     */
+    private static double[] convolveAfter(Solutions s, double[] next, int low) {
+        if (s == null) {
+            return next;
+        }
+        double[] result = new double[next.length];
+        for (int x = 0; x < result.length; x++) {
+            double sum = 0;
+            for (int m = 0; m < s.ways.length; m++) {
+                sum += s.ways[m] * at(next, x + low - s.offset - m, low);
+            }
+            result[x] = sum;
+        }
+        return scaled(result);
+    }
+
+    /**
+     * @return the distribution of mines held by the components in held and
+     *         the component s together, scaled so its largest entry is 1
+     */
+    private static double[] convolve(double[] held, Solutions s) {
+        double[] result = new double[held.length + s.offset + s.ways.length - 1];
+        for (int a = 0; a < held.length; a++) {
+            for (int m = 0; m < s.ways.length; m++) {
+                result[a + s.offset + m] += held[a] * s.ways[m];
+            }
+        }
+        return scaled(result);
+    }
+
+    private static double at(double[] values, int x, int low) {
+        int i = x - low;
+        return i < 0 || i >= values.length ? 0 : values[i];
+    }
+
+    private static double[] scaled(double[] values) {
+        double top = 0;
+        for (double v : values) {
+            top = Math.max(top, v);
+        }
+        if (top > 0) {
+            for (int i = 0; i < values.length; i++) {
+                values[i] /= top;
+            }
+        }
+        return values;
+    }
+
+    private static double[] scaledExp(double[] logs) {
+        double top = Double.NEGATIVE_INFINITY;
+        for (double v : logs) {
+            top = Math.max(top, v);
+        }
+        double[] result = new double[logs.length];
+        for (int i = 0; i < logs.length; i++) {
+            result[i] = top == Double.NEGATIVE_INFINITY ? 0 : Math.exp(logs[i] - top);
+        }
+        return result;
+    }
+
+    /**
+     * a depth-first search over the assignments of a component, stepped one
+     * node at a time so callers can stop it
+     */
+    private static final class Search {
+        final int size;
+        final int[][] tileCons;
+        final int[] rem; // mines each constraint still needs
+        final int[] open; // unassigned tiles of each constraint
+        final byte[] value;
+        final byte[] tried; // values tried at each depth: 0, 1 or 2
+        final boolean[] applied;
+        int depth;
+        int mines;
+
+        Search(int size, int[][] tileCons, int[] rem, int[] open) {
+            this.size = size;
+            this.tileCons = tileCons;
+            this.rem = rem;
+            this.open = open;
+            value = new byte[size];
+            tried = new byte[size];
+            applied = new boolean[size];
+        }
+
+        /**
+         * moves to the next node of the search: the next value at the
+         * current depth, backing up when both have been tried. A complete
+         * assignment is the node reached with depth == size.
+         *
+         * @param seed 0 to try no mine first everywhere, otherwise mixed
+         *            with the depth to choose the value tried first
+         * @return false once the search is exhausted
+         */
+        boolean next(long seed) {
+            while (depth >= 0) {
+                if (depth == size) {
+                    depth--; // the leaf was reported when it was reached
+                    continue;
+                }
+                if (applied[depth]) {
+                    unassign(depth);
+                }
+                if (tried[depth] == 2) {
+                    tried[depth] = 0;
+                    depth--;
+                    continue;
+                }
+                byte first = (byte) (seed == 0 ? 0 : mix(seed, depth) & 1);
+                byte choice = tried[depth] == 0 ? first : (byte) (1 - first);
+                tried[depth]++;
+                if (assign(depth, choice)) {
+                    depth++;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean assign(int v, byte choice) {
+            int[] cons = tileCons[v];
+            boolean ok = true;
+            for (int con : cons) {
+                rem[con] -= choice;
+                open[con]--;
+                ok &= rem[con] >= 0 && rem[con] <= open[con];
+            }
+            if (!ok) {
+                for (int con : cons) {
+                    rem[con] += choice;
+                    open[con]++;
+                }
+                return false;
+            }
+            value[v] = choice;
+            applied[v] = true;
+            mines += choice;
+            return true;
+        }
+
+        private void unassign(int v) {
+            for (int con : tileCons[v]) {
+                rem[con] += value[v];
+                open[con]++;
+            }
+            mines -= value[v];
+            applied[v] = false;
+        }
+
+        /**
+         * undoes every assignment, ready for a new search
+         */
+        void reset() {
+            for (int v = size - 1; v >= 0; v--) {
+                if (applied[v]) {
+                    unassign(v);
+                }
+                tried[v] = 0;
+            }
+            depth = 0;
+        }
+
+        private static long mix(long seed, int depth) {
+            long z = seed + depth * 0x9E3779B97F4A7C15L;
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            return z ^ (z >>> 31);
+        }
+    }
+
+    /**
+     * the constraints of a component, compared by value
+     */
+    private static final class Key {
+        final int[] data;
+        final int hash;
+
+        Key(int[] data) {
+            this.data = data;
+            this.hash = Arrays.hashCode(data);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key && Arrays.equals(data, ((Key) o).data);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * the satisfying assignments of a component, counted by their number of
+     * mines: ways[m] assignments hold offset + m mines, and mineWays[v][m] of
+     * them put one on tiles[v]
+     */
+    private static final class Solutions {
+        final int[] tiles;
+        final int offset;
+        final double[] ways;
+        final double[][] mineWays;
+
+        Solutions(int[] tiles, int offset, double[] ways, double[][] mineWays) {
+            this.tiles = tiles;
+            this.offset = offset;
+            this.ways = ways;
+            this.mineWays = mineWays;
+        }
+    }
+
+    /**
+     * mine probabilities for every tile of a board, as computed by compute()
+     */
+    public static final class Result {
+        private final int rows;
+        private final int cols;
+        private final byte[] visible;
+        private final double[] probability;
+        private final boolean exact;
+        private final int components;
+
+        private Result(int rows, int cols, byte[] visible, double[] probability, boolean exact,
+                int components) {
+            this.rows = rows;
+            this.cols = cols;
+            this.visible = visible;
+            this.probability = probability;
+            this.exact = exact;
+            this.components = components;
+        }
+
+        /**
+         * @return the chance that the tile at r, c holds a mine
+         */
+        public double getProbability(int r, int c) {
+            if (r < 0 || r >= rows || c < 0 || c >= cols) {
+                throw new IllegalArgumentException("tile is outside the board");
+            }
+            return probability[r * cols + c];
+        }
+
+        /**
+         * @return whether every component was enumerated exactly
+         */
+        public boolean isExact() {
+            return exact;
+        }
+
+        /**
+         * @return number of independent groups of frontier tiles
+         */
+        public int getComponentCount() {
+            return components;
+        }
+
+        /**
+         * @return a move uncovering the covered, unflagged tile least likely
+         *         to hold a mine, or null if there is none
+         */
+        public Move getSafestMove() {
+            int best = -1;
+            for (int t = 0; t < probability.length; t++) {
+                if (visible[t] == -2 && (best < 0 || probability[t] < probability[best])) {
+                    best = t;
+                }
+            }
+            return best < 0 ? null : Move.reveal(best / cols, best % cols);
+        }
+    }
+}
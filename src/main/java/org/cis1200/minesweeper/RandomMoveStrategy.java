@@ -0,0 +1,24 @@
+package org.cis1200.minesweeper;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * RandomMoveStrategy uncovers a uniformly random covered tile every turn.
+ * It is the baseline that smarter strategies are measured against.
+ */
+public class RandomMoveStrategy implements MoveStrategy {
+
+    @Override
+    public Move nextMove(Minesweeper game, RandomGenerator random) {
+        if (game.getSafeCellsRemaining() == 0) {
+            return null;
+        }
+        while (true) {
+            int r = random.nextInt(game.getRows());
+            int c = random.nextInt(game.getCols());
+            if (game.getCell(r, c) == -2) {
+                return Move.reveal(r, c);
+            }
+        }
+    }
+}
@@ -0,0 +1,323 @@
+package org.cis1200.minesweeper;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * RevealEngine uncovers tiles on behalf of Minesweeper. Uncovering a 0 tile
+ * opens its whole zero region using an explicit work queue of cell indices
+ * instead of recursion, so the size of a cascade is limited only by the size
+ * of the board and never by the size of the thread stack.
+ *
+ * The queue is kept between calls so that repeated reveals on the same board
+ * do not allocate.
+ *
+ * On very large boards a cascade whose queue grows past PARALLEL_FRONTIER
+ * tiles switches to a level-synchronous breadth-first search on the common
+ * ForkJoinPool. Each level's frontier is split into slices, the workers
+ * claim covered neighbours with a compare-and-set on the visible layer, so
+ * every tile is opened by exactly one of them, and the newly opened 0 tiles
+ * form the next frontier. The journal and change list are filled on the
+ * calling thread after each level. The set of tiles opened, and so the
+ * visible layer, is the same as for the sequential search; only the order
+ * in which they are listed differs.
+ */
+class RevealEngine {
+
+    static final int PARALLEL_MIN_TILES = 1 << 20; // padded board size
+    static final int PARALLEL_FRONTIER = 1 << 12; // queued 0 tiles
+    private static final int SLICE = 1 << 10; // frontier tiles per task
+
+    private static final VarHandle TILES = MethodHandles.arrayElementVarHandle(byte[].class);
+
+    private int[] queue = new int[64];
+    private boolean parallel = true;
+
+    // per-slice output of the current level, kept between levels and calls
+    private int[][] found = new int[0][];
+    private int[] foundCount = new int[0];
+
+    /**
+     * turns the parallel search for large cascades on or off
+     */
+    void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    boolean isParallel() {
+        return parallel;
+    }
+
+    /**
+     * uncovers the tile at start and, if it is a 0 tile, every tile reachable
+     * from it through other 0 tiles. Flagged tiles are left untouched and do
+     * not propagate the cascade.
+     *
+     * Both layers use Minesweeper's padded layout, where the padding tiles
+     * are never covered, so the cascade stops at the edge of the board
+     * without any bounds checks.
+     *
+     * @param board internal board layer
+     * @param visible visible board layer, updated in place
+     * @param neighbours offsets of the eight neighbours of a tile
+     * @param start index of the tile to uncover
+     * @param journal journal that records every uncovered tile
+     * @param changes list that every uncovered tile is added to
+     * @return number of tiles that were uncovered
+     */
+    int reveal(byte[] board, byte[] visible, int[] neighbours, int start,
+            UndoJournal journal, IntQueue changes) {
+        int tail = open(board, visible, start, journal, changes, 0);
+        if (tail < 0) {
+            return 0;
+        }
+        return 1 + cascade(board, visible, neighbours, tail, journal, changes);
+    }
+
+    /**
+     * uncovers the zero region of the 0 tile at start straight from a
+     * ZeroRegions index: the region's 0 tiles with one bulk copy into the
+     * journal and change list, then its covered border tiles. This opens the
+     * same tiles as reveal() as long as every 0 tile of the region is still
+     * covered, which is checked first; otherwise nothing is changed and
+     * reveal() has to be used.
+     *
+     * @param regions an index built from board
+     * @return number of tiles that were uncovered, or -1 if the region is
+     *         partly uncovered or flagged
+     */
+    int revealRegion(byte[] board, byte[] visible, ZeroRegions regions, int start,
+            UndoJournal journal, IntQueue changes) {
+        int region = regions.regionOf(start);
+        int[] cells = regions.cells();
+        int from = regions.start(region);
+        int zeros = regions.zeroEnd(region);
+        int to = regions.end(region);
+        for (int k = from; k < zeros; k++) {
+            if (visible[cells[k]] != -2) {
+                return -1; // a flag or an earlier cascade splits the region
+            }
+        }
+        journal.recordAll(cells, from, zeros - from, (byte) -2);
+        changes.addAll(cells, from, zeros - from);
+        for (int k = from; k < zeros; k++) {
+            visible[cells[k]] = 0;
+        }
+        int opened = zeros - from;
+        for (int k = zeros; k < to; k++) {
+            int cell = cells[k];
+            if (visible[cell] == -2) {
+                journal.record(cell, (byte) -2);
+                changes.add(cell);
+                visible[cell] = board[cell];
+                opened++;
+            }
+        }
+        return opened;
+    }
+
+    /**
+     * uncovers every covered neighbour of centre and then cascades from all
+     * of the 0 tiles among them in a single pass, as for a chord. Flagged
+     * neighbours are left untouched.
+     *
+     * @param centre index of the tile whose neighbours are uncovered
+     * @return number of tiles that were uncovered
+     */
+    int revealAround(byte[] board, byte[] visible, int[] neighbours, int centre,
+            UndoJournal journal, IntQueue changes) {
+        int opened = 0;
+        int tail = 0;
+        for (int off : neighbours) {
+            int next = open(board, visible, centre + off, journal, changes, tail);
+            if (next >= 0) {
+                opened++;
+                tail = next;
+            }
+        }
+        return opened + cascade(board, visible, neighbours, tail, journal, changes);
+    }
+
+    /**
+     * uncovers a single covered tile and, if it is a 0 tile, queues it at
+     * position tail
+     *
+     * @return the new tail of the queue, or -1 if the tile was not covered
+     */
+    private int open(byte[] board, byte[] visible, int cell, UndoJournal journal,
+            IntQueue changes, int tail) {
+        if (visible[cell] != -2) {
+            return -1;
+        }
+        journal.record(cell, (byte) -2);
+        changes.add(cell);
+        visible[cell] = board[cell];
+        if (board[cell] == 0) {
+            queue[tail++] = cell; // at most eight seeds, the queue holds 64
+        }
+        return tail;
+    }
+
+    /**
+     * opens every covered tile reachable from the queued 0 tiles
+     *
+     * @param tail number of queued tiles
+     * @return number of tiles that were uncovered
+     */
+    private int cascade(byte[] board, byte[] visible, int[] neighbours, int tail,
+            UndoJournal journal, IntQueue changes) {
+        int opened = 0;
+        int head = 0;
+        boolean large = parallel && visible.length >= PARALLEL_MIN_TILES;
+        while (head < tail) {
+            if (large && tail - head >= PARALLEL_FRONTIER) {
+                return opened + parallelCascade(board, visible, neighbours, head, tail,
+                        journal, changes);
+            }
+            int curr = queue[head++];
+            for (int off : neighbours) {
+                int next = curr + off;
+                if (visible[next] != -2) {
+                    continue; // already uncovered, flagged, or off the board
+                }
+                byte tile = board[next];
+                journal.record(next, (byte) -2);
+                changes.add(next);
+                visible[next] = tile;
+                opened++;
+                if (tile == 0) {
+                    if (tail == queue.length) {
+                        tail = compact(head, tail);
+                        head = 0;
+                    }
+                    queue[tail++] = next;
+                }
+            }
+        }
+        return opened;
+    }
+
+    /**
+     * opens every covered tile reachable from the queued 0 tiles in
+     * [head, tail) with a parallel level-by-level search
+     *
+     * @return number of tiles that were uncovered
+     */
+    private int parallelCascade(byte[] board, byte[] visible, int[] neighbours,
+            int head, int tail, UndoJournal journal, IntQueue changes) {
+        int[] frontier = Arrays.copyOfRange(queue, head, tail);
+        int size = tail - head;
+        int opened = 0;
+        while (size > 0) {
+            int slices = (size + SLICE - 1) / SLICE;
+            if (found.length < slices) {
+                found = Arrays.copyOf(found, slices);
+                foundCount = new int[slices];
+            }
+            ForkJoinPool.commonPool().invoke(
+                    new Expand(board, visible, neighbours, frontier, size, 0, slices));
+
+            // the workers have finished, so their writes are visible here
+            int next = 0;
+            for (int s = 0; s < slices; s++) {
+                int[] tiles = found[s];
+                for (int k = 0; k < foundCount[s]; k++) {
+                    int cell = tiles[k];
+                    journal.record(cell, (byte) -2);
+                    changes.add(cell);
+                    if (board[cell] == 0) {
+                        if (next == frontier.length) {
+                            frontier = Arrays.copyOf(frontier, next * 2);
+                        }
+                        frontier[next++] = cell;
+                    }
+                }
+                opened += foundCount[s];
+            }
+            size = next;
+        }
+        return opened;
+    }
+
+    /**
+     * Expands slices [from, to) of a frontier: every covered neighbour of a
+     * frontier tile that this task wins the claim on is uncovered and listed
+     * in the slice's entry of found.
+     */
+    @SuppressWarnings("serial")
+    private final class Expand extends RecursiveAction {
+        private final byte[] board;
+        private final byte[] visible;
+        private final int[] neighbours;
+        private final int[] frontier;
+        private final int size;
+        private final int from;
+        private final int to;
+
+        Expand(byte[] board, byte[] visible, int[] neighbours, int[] frontier, int size,
+                int from, int to) {
+            this.board = board;
+            this.visible = visible;
+            this.neighbours = neighbours;
+            this.frontier = frontier;
+            this.size = size;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new Expand(board, visible, neighbours, frontier, size, from, mid),
+                        new Expand(board, visible, neighbours, frontier, size, mid, to));
+                return;
+            }
+            int start = from * SLICE;
+            int end = Math.min(start + SLICE, size);
+            int[] tiles = found[from];
+            if (tiles == null) {
+                tiles = new int[SLICE];
+            }
+            int count = 0;
+            for (int k = start; k < end; k++) {
+                int curr = frontier[k];
+                for (int off : neighbours) {
+                    int next = curr + off;
+                    byte tile = board[next];
+                    if (visible[next] == -2
+                            && TILES.compareAndSet(visible, next, (byte) -2, tile)) {
+                        if (count == tiles.length) {
+                            tiles = Arrays.copyOf(tiles, count * 2);
+                        }
+                        tiles[count++] = next;
+                    }
+                }
+            }
+            found[from] = tiles;
+            foundCount[from] = count;
+        }
+    }
+
+    /**
+     * makes room at the end of the queue, either by sliding the pending
+     * entries to the front or by growing the backing array. Afterwards the
+     * pending entries start at index 0.
+     *
+     * @return new tail position
+     */
+    private int compact(int head, int tail) {
+        int pending = tail - head;
+        if (head >= queue.length / 2) {
+            System.arraycopy(queue, head, queue, 0, pending);
+        } else {
+            int[] grown = new int[queue.length * 2];
+            System.arraycopy(queue, head, grown, 0, pending);
+            queue = grown;
+        }
+        return pending;
+    }
+}
@@ -18,6 +18,9 @@ public class RunMinesweeper implements Runnable {
     public void run() {
         // NOTE: the 'final' keyword denotes immutability even for local variables.
 
+        // with metrics on: visible in jconsole, and reported on stderr, while the game runs
+        Metrics.start(System.err);
+
         // Top-level frame in which game components live
         final JFrame frame = new JFrame("Minesweeper");
         frame.setLocation(300, 300);
@@ -38,8 +41,14 @@ public class RunMinesweeper implements Runnable {
                 "How to Play:\n" +
                 "- Left-click to reveal a cell or remove flag.\n" +
                 "- Right-click or Left-click + Ctrl to flag a cell as a mine.\n" +
+                "- Middle-click (or both buttons) on a number whose flags\n" +
+                "  are all placed to reveal the rest of its neighbours.\n" +
                 "- Use the 'Reset' button to start a new game.\n" +
-                "- Use the 'Undo' button to undo the last move.");
+                "- Use the 'Undo' button to undo the last move.\n" +
+                "- Use the 'Redo' button to bring back an undone move.\n" +
+                "- Tick 'No Guess' for boards that never need a guess.\n" +
+                "- Use '+' / '-' or Ctrl + mouse wheel to zoom. When zoomed\n" +
+                "  far out, click a spot to zoom in on it.");
 
         // Add the JTextArea to a JScrollPane for scrolling if needed
         JScrollPane scrollPane = new JScrollPane(helpTextArea);
@@ -48,7 +57,7 @@ public class RunMinesweeper implements Runnable {
         helpFrame.add(scrollPane);
 
         // Set the size and make the helpFrame visible
-        helpFrame.setSize(new Dimension(300, 220));
+        helpFrame.setSize(new Dimension(300, 310));
         helpFrame.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
         helpFrame.setVisible(true);
 
@@ -59,9 +68,10 @@ public class RunMinesweeper implements Runnable {
         status_panel.add(status);
         status_panel.setBackground(new Color(250, 200, 110));
 
-        // Game board
+        // Game board, scrollable so that boards larger than the window fit
         final GameBoard board = new GameBoard(status);
-        frame.add(board, BorderLayout.CENTER);
+        final JScrollPane boardScroll = new JScrollPane(board);
+        frame.add(boardScroll, BorderLayout.CENTER);
 
         // Reset button
         final JPanel control_panel = new JPanel();
@@ -80,6 +90,36 @@ public class RunMinesweeper implements Runnable {
         undo.addActionListener(e -> board.undo());
         control_panel.add(undo);
 
+        final JButton redo = new JButton("Redo");
+        redo.addActionListener(e -> board.redo());
+        control_panel.add(redo);
+
+        final JButton zoomIn = new JButton("+");
+        zoomIn.addActionListener(e -> board.zoom(-1, null));
+        control_panel.add(zoomIn);
+
+        final JButton zoomOut = new JButton("-");
+        zoomOut.addActionListener(e -> board.zoom(1, null));
+        control_panel.add(zoomOut);
+
+        // Board sizes: rows, columns, mines
+        final String[] sizeNames = { "10x10", "Beginner", "Intermediate", "Expert", "Huge" };
+        final int[][] sizes = {
+            { 10, 10, 20 }, { 9, 9, 10 }, { 16, 16, 40 }, { 16, 30, 99 }, { 1000, 1000, 150000 }
+        };
+        final JComboBox<String> size = new JComboBox<>(sizeNames);
+        size.addActionListener(e -> {
+            int[] chosen = sizes[size.getSelectedIndex()];
+            board.newGame(chosen[0], chosen[1], chosen[2]);
+            frame.pack();
+        });
+        control_panel.add(size);
+
+        final JCheckBox noGuess = new JCheckBox("No Guess");
+        noGuess.setOpaque(false);
+        noGuess.addActionListener(e -> board.setNoGuess(noGuess.isSelected()));
+        control_panel.add(noGuess);
+
         // Put the frame on the screen
         frame.pack();
         frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
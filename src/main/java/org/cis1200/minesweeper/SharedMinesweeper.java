@@ -0,0 +1,433 @@
+package org.cis1200.minesweeper;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * SharedMinesweeper is a board that many players, each on their own thread,
+ * play at the same time. The mines are placed when the board is created.
+ * Uncovering a mine does not end the game. It counts against the player
+ * instead, and the game is over once every safe tile has been uncovered.
+ *
+ * The visible tiles use the same padded byte layout as Minesweeper. Every
+ * tile is uncovered with a compare-and-set from covered to its value, so
+ * cascades in different parts of the board never wait for each other, and
+ * when two cascades meet, each tile is claimed by exactly one of them.
+ * Flags are toggled under one of a fixed set of locks chosen by the tile's
+ * region, so two players toggling the same tile are serialised.
+ *
+ * Every move that changes the board becomes an Event with a sequence number.
+ * Sequence numbers are taken so that, for any single tile, the events that
+ * changed it are numbered in the order the changes happened: a flag takes
+ * its number before its compare-and-set, while holding the tile's lock, and
+ * a reveal takes its number after its last compare-and-set. Applying the
+ * events' changes in sequence order therefore rebuilds the board, and
+ * reverting them in reverse order undoes it. Moves run under the read side
+ * of a read-write lock, and undoTo takes the write side.
+ */
+public class SharedMinesweeper {
+
+    private static final VarHandle CELLS = MethodHandles.arrayElementVarHandle(byte[].class);
+    private static final byte OUTSIDE = -4;
+    private static final int STRIPES = 64; // power of two
+    private static final int STRIPE_SHIFT = 4; // 16x16 tile regions
+
+    /**
+     * One move that changed the board, with the value each changed tile had
+     * before and after it.
+     */
+    public static final class Event {
+        private final long sequence;
+        private final int player;
+        private final Move move;
+        private final int[] tiles; // row-major tile indices
+        private final byte[] before;
+        private final byte[] after;
+        private final int safeOpened;
+        private final int minesHit;
+
+        Event(long sequence, int player, Move move, int[] tiles, byte[] before, byte[] after,
+                int safeOpened, int minesHit) {
+            this.sequence = sequence;
+            this.player = player;
+            this.move = move;
+            this.tiles = tiles;
+            this.before = before;
+            this.after = after;
+            this.safeOpened = safeOpened;
+            this.minesHit = minesHit;
+        }
+
+        public long getSequence() {
+            return sequence;
+        }
+
+        public int getPlayer() {
+            return player;
+        }
+
+        public Move getMove() {
+            return move;
+        }
+
+        /**
+         * @return number of tiles the move changed
+         */
+        public int getChangedCellCount() {
+            return tiles.length;
+        }
+
+        public int getChangedTile(int k) {
+            return tiles[k];
+        }
+
+        public int getValueBefore(int k) {
+            return before[k];
+        }
+
+        public int getValueAfter(int k) {
+            return after[k];
+        }
+
+        public int getSafeOpened() {
+            return safeOpened;
+        }
+
+        public int getMinesHit() {
+            return minesHit;
+        }
+    }
+
+    private final int rows;
+    private final int cols;
+    private final int stride;
+    private final int[] neighbours;
+    private final byte[] board; // written only in the constructor
+    private final byte[] visible; // updated with CELLS
+    private final int numMines;
+    private final long seed;
+
+    private final ReadWriteLock undoLock = new ReentrantReadWriteLock();
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+    private final AtomicLong sequence = new AtomicLong();
+    private final NavigableMap<Long, Event> events = new ConcurrentSkipListMap<>();
+    private final AtomicInteger safeCellsRemaining;
+    private final AtomicInteger flagCount = new AtomicInteger();
+    private final AtomicLongArray scores;
+    private final AtomicLongArray minesHit;
+
+    /**
+     * Creates a board with its mines placed from the given seed.
+     *
+     * @param rows number of rows on the board
+     * @param cols number of columns on the board
+     * @param numMines number of mines
+     * @param players number of players, who are numbered from 0
+     * @param seed seed for the mine layout
+     */
+    public SharedMinesweeper(int rows, int cols, int numMines, int players, long seed) {
+        if (rows <= 0 || cols <= 0 || (rows + 2L) * (cols + 2L) > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("invalid board size " + rows + "x" + cols);
+        }
+        if (numMines < 0 || numMines >= rows * cols) {
+            throw new IllegalArgumentException("invalid mine count " + numMines);
+        }
+        if (players <= 0) {
+            throw new IllegalArgumentException("invalid player count " + players);
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.numMines = numMines;
+        this.seed = seed;
+        stride = cols + 2;
+        neighbours = NeighbourCounts.offsets(stride);
+        board = new byte[(rows + 2) * stride];
+        visible = new byte[(rows + 2) * stride];
+        for (int r = -1; r <= rows; r++) {
+            for (int c = -1; c <= cols; c++) {
+                visible[index(r, c)] = r < 0 || r == rows || c < 0 || c == cols ? OUTSIDE : -2;
+            }
+        }
+        // no tile is kept clear, since there is no single first click
+        int[] mines = new MinePlacer().place(rows, cols, numMines, -2, -2,
+                new SplittableRandom(seed));
+        for (int k = 0; k < numMines; k++) {
+            int r = mines[k] / cols;
+            NeighbourCounts.addMine(board, neighbours, index(r, mines[k] - r * cols));
+        }
+        for (int s = 0; s < STRIPES; s++) {
+            stripes[s] = new ReentrantLock();
+        }
+        safeCellsRemaining = new AtomicInteger(rows * cols - numMines);
+        scores = new AtomicLongArray(players);
+        minesHit = new AtomicLongArray(players);
+    }
+
+    private int index(int r, int c) {
+        return (r + 1) * stride + c + 1;
+    }
+
+    private int tileOf(int i) {
+        return (i / stride - 1) * cols + i % stride - 1;
+    }
+
+    private boolean inBounds(int r, int c) {
+        return r >= 0 && r < rows && c >= 0 && c < cols;
+    }
+
+    private ReentrantLock stripe(int r, int c) {
+        int region = (r >>> STRIPE_SHIFT) * 0x9E3779B1 + (c >>> STRIPE_SHIFT);
+        return stripes[(region ^ region >>> 16) & (STRIPES - 1)];
+    }
+
+    /**
+     * uncovers the tile at r, c for a player and, if it is a 0 tile, every
+     * covered tile reachable from it through other 0 tiles. Tiles another
+     * player uncovers first, and flagged tiles, are left alone.
+     *
+     * @return number of safe tiles this player uncovered
+     */
+    public int reveal(int player, int r, int c) {
+        if (!inBounds(r, c)) {
+            return 0;
+        }
+        undoLock.readLock().lock();
+        try {
+            IntQueue opened = new IntQueue();
+            int start = index(r, c);
+            if (!claim(start)) {
+                return 0;
+            }
+            opened.add(start);
+            for (int head = 0; head < opened.size(); head++) {
+                int curr = opened.get(head);
+                if (board[curr] != 0) {
+                    continue; // only 0 tiles spread
+                }
+                for (int off : neighbours) {
+                    int next = curr + off;
+                    if (visible[next] == -2 && claim(next)) {
+                        opened.add(next);
+                    }
+                }
+            }
+
+            int count = opened.size();
+            int[] tiles = new int[count];
+            byte[] before = new byte[count];
+            byte[] after = new byte[count];
+            int mines = 0;
+            for (int k = 0; k < count; k++) {
+                int i = opened.get(k);
+                tiles[k] = tileOf(i);
+                before[k] = -2;
+                after[k] = board[i];
+                if (board[i] == -1) {
+                    mines++;
+                }
+            }
+            int safe = count - mines;
+            long seq = sequence.incrementAndGet(); // after the last claim
+            events.put(seq, new Event(seq, player, Move.reveal(r, c), tiles, before, after,
+                    safe, mines));
+            scores.addAndGet(player, safe);
+            minesHit.addAndGet(player, mines);
+            safeCellsRemaining.addAndGet(-safe);
+            return safe;
+        } finally {
+            undoLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * uncovers a covered tile if no other player has changed it first
+     */
+    private boolean claim(int i) {
+        return CELLS.compareAndSet(visible, i, (byte) -2, board[i]);
+    }
+
+    /**
+     * places a flag on a covered tile, or removes the flag from a flagged one
+     *
+     * @return true if the tile changed
+     */
+    public boolean toggleFlag(int player, int r, int c) {
+        if (!inBounds(r, c)) {
+            return false;
+        }
+        int i = index(r, c);
+        undoLock.readLock().lock();
+        ReentrantLock lock = stripe(r, c);
+        lock.lock();
+        try {
+            byte current = (byte) CELLS.getVolatile(visible, i);
+            if (current != -2 && current != -3) {
+                return false;
+            }
+            byte next = current == -2 ? (byte) -3 : (byte) -2;
+            long seq = sequence.incrementAndGet(); // before the change
+            if (!CELLS.compareAndSet(visible, i, current, next)) {
+                return false; // a reveal claimed the tile first
+            }
+            events.put(seq, new Event(seq, player, Move.flag(r, c), new int[] { r * cols + c },
+                    new byte[] { current }, new byte[] { next }, 0, 0));
+            flagCount.addAndGet(next == -3 ? 1 : -1);
+            return true;
+        } finally {
+            lock.unlock();
+            undoLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * reverts every event with a sequence number above seq, newest first,
+     * including the scores they earned. Waits for moves in progress to
+     * finish and holds new ones back until it is done.
+     *
+     * @param seq sequence number of the last event to keep, 0 to undo all
+     */
+    public void undoTo(long seq) {
+        undoLock.writeLock().lock();
+        try {
+            NavigableMap<Long, Event> undone = events.tailMap(seq, false);
+            for (Event e : undone.descendingMap().values()) {
+                for (int k = e.tiles.length - 1; k >= 0; k--) {
+                    int tile = e.tiles[k];
+                    int r = tile / cols;
+                    visible[index(r, tile - r * cols)] = e.before[k];
+                    if (e.before[k] == -3 || e.after[k] == -3) {
+                        flagCount.addAndGet(e.before[k] == -3 ? 1 : -1);
+                    }
+                }
+                scores.addAndGet(e.player, -e.safeOpened);
+                minesHit.addAndGet(e.player, -e.minesHit);
+                safeCellsRemaining.addAndGet(e.safeOpened);
+            }
+            undone.clear();
+        } finally {
+            undoLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * applies events recorded on another board with the same size and seed,
+     * in sequence order, by writing the values each of them recorded
+     *
+     * @param log events to apply, in sequence order
+     */
+    public void replay(Iterable<Event> log) {
+        undoLock.writeLock().lock();
+        try {
+            for (Event e : log) {
+                for (int k = 0; k < e.tiles.length; k++) {
+                    int tile = e.tiles[k];
+                    int r = tile / cols;
+                    visible[index(r, tile - r * cols)] = e.after[k];
+                    if (e.before[k] == -3 || e.after[k] == -3) {
+                        flagCount.addAndGet(e.after[k] == -3 ? 1 : -1);
+                    }
+                }
+                sequence.set(Math.max(sequence.get(), e.sequence));
+                events.put(e.sequence, e); // events are immutable, so they can be shared
+                scores.addAndGet(e.player, e.safeOpened);
+                minesHit.addAndGet(e.player, e.minesHit);
+                safeCellsRemaining.addAndGet(-e.safeOpened);
+            }
+        } finally {
+            undoLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return the events that are currently applied, in sequence order
+     */
+    public List<Event> getEvents() {
+        undoLock.readLock().lock();
+        try {
+            return new ArrayList<>(events.values());
+        } finally {
+            undoLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the highest sequence number handed out so far
+     */
+    public long getSequence() {
+        return sequence.get();
+    }
+
+    /**
+     * @return visible state of the tile at r, c, as in Minesweeper.getCell
+     */
+    public int getCell(int r, int c) {
+        return (byte) CELLS.getVolatile(visible, index(r, c));
+    }
+
+    /**
+     * @return true if the tile at r, c holds a mine
+     */
+    public boolean isMine(int r, int c) {
+        return board[index(r, c)] == -1;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    public int getNumMines() {
+        return numMines;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getPlayers() {
+        return scores.length();
+    }
+
+    /**
+     * @return number of safe tiles the player has uncovered
+     */
+    public long getScore(int player) {
+        return scores.get(player);
+    }
+
+    /**
+     * @return number of mines the player has uncovered
+     */
+    public long getMinesHit(int player) {
+        return minesHit.get(player);
+    }
+
+    public int getFlagCount() {
+        return flagCount.get();
+    }
+
+    public int getSafeCellsRemaining() {
+        return safeCellsRemaining.get();
+    }
+
+    /**
+     * @return true once every safe tile has been uncovered
+     */
+    public boolean isFinished() {
+        return safeCellsRemaining.get() == 0;
+    }
+}
@@ -0,0 +1,76 @@
+package org.cis1200.minesweeper;
+
+/**
+ * SimulationReport collects the results of a batch of headless games: how
+ * many were played and won, how many moves were made, how long the batch
+ * took, and the distribution of per-move latency (strategy decision plus the
+ * model update).
+ */
+public class SimulationReport {
+
+    private long games;
+    private long wins;
+    private long moves;
+    private long elapsedNanos;
+    private final LatencyHistogram moveLatency = new LatencyHistogram();
+
+    void addGame(boolean won, long gameMoves) {
+        games++;
+        if (won) {
+            wins++;
+        }
+        moves += gameMoves;
+    }
+
+    void add(SimulationReport other) {
+        games += other.games;
+        wins += other.wins;
+        moves += other.moves;
+        moveLatency.add(other.moveLatency);
+    }
+
+    void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long getGames() {
+        return games;
+    }
+
+    public long getWins() {
+        return wins;
+    }
+
+    public long getMoves() {
+        return moves;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public LatencyHistogram getMoveLatency() {
+        return moveLatency;
+    }
+
+    public double getWinRate() {
+        return games == 0 ? 0 : (double) wins / games;
+    }
+
+    public double getGamesPerSecond() {
+        return elapsedNanos == 0 ? 0 : games * 1e9 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "games: %d, wins: %d (%.2f%%), moves: %d%n"
+                        + "throughput: %.0f games/s over %.3f s%n"
+                        + "move latency (ns): p50 %d, p90 %d, p99 %d, p99.9 %d, max %d",
+                games, wins, getWinRate() * 100, moves,
+                getGamesPerSecond(), elapsedNanos / 1e9,
+                moveLatency.valueAtPercentile(50), moveLatency.valueAtPercentile(90),
+                moveLatency.valueAtPercentile(99), moveLatency.valueAtPercentile(99.9),
+                moveLatency.getMax());
+    }
+}
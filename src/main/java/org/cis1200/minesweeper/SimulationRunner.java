@@ -0,0 +1,168 @@
+package org.cis1200.minesweeper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Supplier;
+
+/**
+ * SimulationRunner plays many games of Minesweeper headlessly, spread over a
+ * ForkJoinPool with one worker per core by default. Every game gets its own
+ * Minesweeper instance whose seed is derived from the runner's base seed and
+ * the game number, so a run (and any single game in it) can be reproduced.
+ *
+ * Moves are chosen by a MoveStrategy. Each leaf task creates its own strategy
+ * from the supplier, so strategies never have to be thread-safe. Games are
+ * taken from a GamePool and returned when they finish, so the workers keep
+ * reusing the same few boards.
+ */
+public class SimulationRunner {
+
+    private static final int GAMES_PER_TASK = 64;
+    private static final long GAME_SEED_STEP = 0x9E3779B97F4A7C15L;
+
+    private final int rows;
+    private final int cols;
+    private final int numMines;
+    private final Supplier<? extends MoveStrategy> strategies;
+    private long baseSeed = 1200L;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private final GamePool pool = new GamePool();
+
+    /**
+     * @param rows number of rows of every game
+     * @param cols number of columns of every game
+     * @param numMines number of mines of every game
+     * @param strategies creates the strategy used by each worker
+     */
+    public SimulationRunner(int rows, int cols, int numMines,
+            Supplier<? extends MoveStrategy> strategies) {
+        this.rows = rows;
+        this.cols = cols;
+        this.numMines = numMines;
+        this.strategies = strategies;
+    }
+
+    /**
+     * setter for the seed every game's seed is derived from
+     */
+    public void setBaseSeed(long baseSeed) {
+        this.baseSeed = baseSeed;
+    }
+
+    /**
+     * setter for the number of worker threads
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism must be positive");
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * @return the seed of the given game in a run
+     */
+    public long seedForGame(int game) {
+        return baseSeed + game * GAME_SEED_STEP;
+    }
+
+    /**
+     * plays the given number of games and blocks until all have finished
+     *
+     * @param games number of games to play
+     * @return the combined statistics of every game
+     */
+    public SimulationReport run(int games) {
+        ForkJoinPool workers = new ForkJoinPool(parallelism);
+        try {
+            long start = System.nanoTime();
+            SimulationReport report = workers.invoke(new Batch(0, games));
+            report.setElapsedNanos(System.nanoTime() - start);
+            return report;
+        } finally {
+            workers.shutdown();
+        }
+    }
+
+    /**
+     * plays a single game to completion and adds its result to report
+     */
+    void playGame(int game, MoveStrategy strategy, SimulationReport report) {
+        long seed = seedForGame(game);
+        Minesweeper minesweeper = pool.acquire(rows, cols, numMines, seed);
+        SplittableRandom random = new SplittableRandom(~seed);
+        strategy.newGame(minesweeper);
+
+        long moveLimit = 2L * rows * cols; // guards against strategies that stall
+        long moves = 0;
+        while (minesweeper.getActive() && moves < moveLimit) {
+            long before = System.nanoTime();
+            Move move = strategy.nextMove(minesweeper, random);
+            if (move == null) {
+                break;
+            }
+            move.applyTo(minesweeper);
+            report.getMoveLatency().record(System.nanoTime() - before);
+            moves++;
+        }
+        report.addGame(minesweeper.checkWinner(), moves);
+        pool.release(minesweeper);
+    }
+
+    /**
+     * plays games [from, to), splitting the range until it is small enough
+     */
+    @SuppressWarnings("serial")
+    private class Batch extends RecursiveTask<SimulationReport> {
+        private final int from;
+        private final int to;
+
+        Batch(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected SimulationReport compute() {
+            if (to - from <= GAMES_PER_TASK) {
+                SimulationReport report = new SimulationReport();
+                MoveStrategy strategy = strategies.get();
+                for (int game = from; game < to; game++) {
+                    playGame(game, strategy, report);
+                }
+                return report;
+            }
+            int mid = (from + to) >>> 1;
+            Batch left = new Batch(from, mid);
+            left.fork();
+            SimulationReport report = new Batch(mid, to).compute();
+            report.add(left.join());
+            return report;
+        }
+    }
+
+    /**
+     * Plays a batch of games with the random strategy and prints the report.
+     * Arguments (all optional): rows cols mines games
+     */
+    public static void main(String[] args) throws IOException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int cols = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+        int mines = args.length > 2 ? Integer.parseInt(args[2]) : 99;
+        int games = args.length > 3 ? Integer.parseInt(args[3]) : 100_000;
+
+        SimulationRunner runner = new SimulationRunner(rows, cols, mines, RandomMoveStrategy::new);
+        Closeable dump = Metrics.start(System.err);
+        try {
+            System.out.println(runner.run(games));
+        } finally {
+            dump.close();
+        }
+        if (Metrics.ENABLED) {
+            System.out.println(Metrics.global().getReport());
+        }
+    }
+}
@@ -0,0 +1,551 @@
+package org.cis1200.minesweeper;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Solver deduces which covered tiles of a Minesweeper game are certainly
+ * safe and which certainly hold mines, using only what a player can see
+ * through getCell().
+ *
+ * Every uncovered number is a constraint: its covered neighbours that are not
+ * yet deduced hold exactly (number - deduced mines around it) mines. Two
+ * rules are applied to these constraints:
+ *
+ * 1. single point: if a constraint needs no more mines its unknown tiles are
+ *    safe, and if it needs as many mines as it has unknown tiles they are all
+ *    mines.
+ * 2. subset: if the unknown tiles of one constraint are a subset of another's,
+ *    the difference holds the difference in mines, which may again be 0 or
+ *    all of them.
+ *
+ * The solver is incremental. It keeps its own copy of the visible board and
+ * only re-examines constraints next to tiles that changed, so the cost of
+ * keeping up with a game is proportional to the tiles each move touches, not
+ * to the size of the board. After each move call observe() with the tile the
+ * move was played on; the solver walks outwards from it to find every tile
+ * the move (including any cascade) changed.
+ *
+ * Deductions are facts about the mine layout, so they stay valid across
+ * undo. When no certain move is left, guess() estimates mine probabilities
+ * on the frontier and picks the least risky tile.
+ */
+public class Solver {
+
+    private static final byte OUTSIDE = -4;
+    private static final byte UNKNOWN = 0;
+    private static final byte SAFE = 1;
+    private static final byte MINE = 2;
+    private static final int PAD = 2; // constraints look two tiles away
+    private static final int GUESS_SAMPLES = 64;
+
+    private final Minesweeper game;
+    private final int rows;
+    private final int cols;
+    private final int stride;
+    private final int[] neighbours;
+    private final int[] ring; // the 24 tiles within two steps
+
+    private final byte[] known; // solver's copy of visibleBoard, padded by PAD
+    private final byte[] deduced; // UNKNOWN, SAFE or MINE for each tile
+    private final boolean[] queued; // whether a constraint is in work
+    private final boolean[] listed; // whether a constraint is in constraints
+
+    private final IntQueue work = new IntQueue(); // constraints to re-examine
+    private final IntQueue constraints = new IntQueue(); // every live constraint
+    private final IntQueue safeCells = new IntQueue(); // deduced safe, not yet played
+    private final IntQueue mineCells = new IntQueue(); // deduced mines, not yet flagged
+    private final IntQueue scan = new IntQueue(); // tiles to check in observe()
+
+    private ProbabilityEngine engine; // exact probabilities for guess(), if set
+    private int covered; // tiles that are covered or flagged
+    private int deducedMines;
+
+    private final int[] unknownX = new int[8];
+    private final int[] unknownY = new int[8];
+    private final int[] difference = new int[8];
+    private int remainingX;
+    private int remainingY;
+
+    /**
+     * creates a solver for the given game and reads its current state
+     */
+    public Solver(Minesweeper game) {
+        this.game = game;
+        this.rows = game.getRows();
+        this.cols = game.getCols();
+        this.stride = cols + 2 * PAD;
+        int size = (rows + 2 * PAD) * stride;
+        known = new byte[size];
+        deduced = new byte[size];
+        queued = new boolean[size];
+        listed = new boolean[size];
+        neighbours = NeighbourCounts.offsets(stride);
+        ring = new int[24];
+        int k = 0;
+        for (int dr = -2; dr <= 2; dr++) {
+            for (int dc = -2; dc <= 2; dc++) {
+                if (dr != 0 || dc != 0) {
+                    ring[k++] = dr * stride + dc;
+                }
+            }
+        }
+        resync();
+    }
+
+    private int index(int r, int c) {
+        return (r + PAD) * stride + c + PAD;
+    }
+
+    private int rowOf(int i) {
+        return i / stride - PAD;
+    }
+
+    private int colOf(int i) {
+        return i % stride - PAD;
+    }
+
+    private static boolean isCovered(byte v) {
+        return v == -2 || v == -3;
+    }
+
+    /**
+     * forgets all deductions and re-reads the whole board. Only needed if the
+     * game was reset or replaced; normal moves and undo are handled by
+     * observe().
+     */
+    public void resync() {
+        Arrays.fill(known, OUTSIDE);
+        Arrays.fill(deduced, UNKNOWN);
+        Arrays.fill(queued, false);
+        Arrays.fill(listed, false);
+        work.clear();
+        constraints.clear();
+        safeCells.clear();
+        mineCells.clear();
+        covered = 0;
+        deducedMines = 0;
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                int i = index(r, c);
+                known[i] = (byte) game.getCell(r, c);
+                if (isCovered(known[i])) {
+                    covered++;
+                }
+            }
+        }
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                enqueue(index(r, c));
+            }
+        }
+    }
+
+    /**
+     * brings the solver up to date after a move played at r, c. Tiles whose
+     * visible state changed are found by walking outwards from the 3x3 block
+     * around the move through changed tiles, which covers any cascade.
+     *
+     * @param r row the move was played on
+     * @param c column the move was played on
+     */
+    public void observe(int r, int c) {
+        scan.clear();
+        int centre = index(r, c);
+        if (known[centre] == OUTSIDE) {
+            return;
+        }
+        if (refresh(centre)) {
+            scan.add(centre);
+        }
+        for (int off : neighbours) {
+            if (refresh(centre + off)) {
+                scan.add(centre + off);
+            }
+        }
+        while (!scan.isEmpty()) {
+            int i = scan.poll();
+            for (int off : neighbours) {
+                if (refresh(i + off)) {
+                    scan.add(i + off);
+                }
+            }
+        }
+    }
+
+    /**
+     * re-reads a single tile from the game
+     *
+     * @return true if the tile changed between covered and uncovered
+     */
+    private boolean refresh(int i) {
+        byte old = known[i];
+        if (old == OUTSIDE) {
+            return false;
+        }
+        byte now = (byte) game.getCell(rowOf(i), colOf(i));
+        if (now == old) {
+            return false;
+        }
+        known[i] = now;
+        boolean wasCovered = isCovered(old);
+        boolean nowCovered = isCovered(now);
+        if (wasCovered == nowCovered) {
+            return false; // a flag was placed or removed
+        }
+        if (wasCovered) {
+            covered--;
+            if (deduced[i] == UNKNOWN && now >= 0) {
+                deduced[i] = SAFE;
+            }
+            enqueue(i);
+        } else {
+            covered++; // undone; what was deduced about the tile still holds
+            if (deduced[i] == SAFE) {
+                safeCells.add(i);
+            }
+        }
+        for (int off : neighbours) {
+            enqueue(i + off);
+        }
+        return true;
+    }
+
+    /**
+     * schedules the constraint at i to be examined, if i is an uncovered number
+     */
+    private void enqueue(int i) {
+        if (known[i] < 1 || queued[i]) {
+            return;
+        }
+        queued[i] = true;
+        work.add(i);
+        if (!listed[i]) {
+            listed[i] = true;
+            constraints.add(i);
+        }
+    }
+
+    /**
+     * applies both rules until no constraint is waiting to be examined
+     */
+    private void solve() {
+        while (!work.isEmpty()) {
+            int x = work.poll();
+            queued[x] = false;
+            examine(x);
+        }
+    }
+
+    /**
+     * fills unknown with the undeduced covered neighbours of constraint x
+     *
+     * @return the number of such tiles, or -1 if x is not a constraint
+     */
+    private int collect(int x, int[] unknown, boolean first) {
+        byte v = known[x];
+        if (v < 1) {
+            return -1;
+        }
+        int count = 0;
+        int mines = 0;
+        for (int off : neighbours) {
+            int n = x + off;
+            if (deduced[n] == MINE || known[n] == -1) {
+                mines++;
+            } else if (isCovered(known[n]) && deduced[n] == UNKNOWN) {
+                unknown[count++] = n;
+            }
+        }
+        if (first) {
+            remainingX = v - mines;
+        } else {
+            remainingY = v - mines;
+        }
+        return count;
+    }
+
+    private void examine(int x) {
+        int sizeX = collect(x, unknownX, true);
+        if (sizeX <= 0) {
+            return;
+        }
+        if (remainingX == 0) {
+            for (int k = 0; k < sizeX; k++) {
+                markSafe(unknownX[k]);
+            }
+            return;
+        } else if (remainingX == sizeX) {
+            for (int k = 0; k < sizeX; k++) {
+                markMine(unknownX[k]);
+            }
+            return;
+        }
+
+        for (int off : ring) {
+            int y = x + off;
+            int sizeY = collect(y, unknownY, false);
+            if (sizeY <= 0) {
+                continue;
+            }
+            if (sizeY > sizeX && contains(unknownY, sizeY, unknownX, sizeX)) {
+                if (applyDifference(unknownY, sizeY, unknownX, sizeX, remainingY - remainingX)) {
+                    return;
+                }
+            } else if (sizeX > sizeY && contains(unknownX, sizeX, unknownY, sizeY)) {
+                if (applyDifference(unknownX, sizeX, unknownY, sizeY, remainingX - remainingY)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return whether every tile of inner is also in outer
+     */
+    private static boolean contains(int[] outer, int outerSize, int[] inner, int innerSize) {
+        for (int a = 0; a < innerSize; a++) {
+            boolean found = false;
+            for (int b = 0; b < outerSize && !found; b++) {
+                found = outer[b] == inner[a];
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * the tiles in outer but not inner hold exactly mines mines
+     *
+     * @return whether anything was deduced
+     */
+    private boolean applyDifference(int[] outer, int outerSize, int[] inner, int innerSize,
+            int mines) {
+        int size = 0;
+        for (int b = 0; b < outerSize; b++) {
+            boolean shared = false;
+            for (int a = 0; a < innerSize && !shared; a++) {
+                shared = inner[a] == outer[b];
+            }
+            if (!shared) {
+                difference[size++] = outer[b];
+            }
+        }
+        if (mines == 0) {
+            for (int k = 0; k < size; k++) {
+                markSafe(difference[k]);
+            }
+            return true;
+        } else if (mines == size) {
+            for (int k = 0; k < size; k++) {
+                markMine(difference[k]);
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private void markSafe(int i) {
+        if (deduced[i] != UNKNOWN) {
+            return;
+        }
+        deduced[i] = SAFE;
+        safeCells.add(i);
+        for (int off : neighbours) {
+            enqueue(i + off);
+        }
+    }
+
+    private void markMine(int i) {
+        if (deduced[i] != UNKNOWN) {
+            return;
+        }
+        deduced[i] = MINE;
+        deducedMines++;
+        mineCells.add(i);
+        for (int off : neighbours) {
+            enqueue(i + off);
+        }
+    }
+
+    /**
+     * @return whether the tile at r, c is known to be free of mines
+     */
+    public boolean isSafe(int r, int c) {
+        solve();
+        return deduced[index(r, c)] == SAFE;
+    }
+
+    /**
+     * @return whether the tile at r, c is known to hold a mine
+     */
+    public boolean isMine(int r, int c) {
+        solve();
+        return deduced[index(r, c)] == MINE;
+    }
+
+    /**
+     * @return number of tiles deduced to hold mines
+     */
+    public int getDeducedMines() {
+        solve();
+        return deducedMines;
+    }
+
+    /**
+     * @return a move uncovering a tile known to be safe, or null if the solver
+     *         cannot currently prove any covered tile safe
+     */
+    public Move nextSafeMove() {
+        solve();
+        while (!safeCells.isEmpty()) {
+            int i = safeCells.poll();
+            if (known[i] == -2) {
+                return Move.reveal(rowOf(i), colOf(i));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return a move flagging a tile known to hold a mine that is not yet
+     *         flagged, or null if there is none
+     */
+    public Move nextMineFlag() {
+        solve();
+        while (!mineCells.isEmpty()) {
+            int i = mineCells.poll();
+            if (known[i] == -2) {
+                return Move.flag(rowOf(i), colOf(i));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * makes guess() use the given engine's mine probabilities, which are
+     * exact where the engine could enumerate the frontier in its time budget
+     *
+     * @param engine the engine to use, or null for the solver's own estimate
+     */
+    public void setProbabilityEngine(ProbabilityEngine engine) {
+        this.engine = engine;
+    }
+
+    /**
+     * picks a tile to uncover when no tile is known to be safe. With a
+     * ProbabilityEngine set, the tile it finds least likely to hold a mine is
+     * chosen. Otherwise a frontier tile's mine probability is estimated as
+     * the highest (mines needed / unknown tiles) of the constraints around
+     * it; tiles away from the frontier share the remaining mine density. The
+     * tile with the lowest estimate is chosen.
+     *
+     * @param random used to sample tiles away from the frontier
+     * @return the move to play, or null if no covered tile is left undecided
+     */
+    public Move guess(RandomGenerator random) {
+        Move safe = nextSafeMove();
+        if (safe != null) {
+            return safe;
+        }
+        if (engine != null) {
+            Move safest = engine.compute(game).getSafestMove();
+            if (safest != null) {
+                return safest;
+            }
+        }
+
+        int best = -1;
+        double bestRisk = 2;
+        int live = 0;
+        for (int k = 0; k < constraints.size(); k++) {
+            int x = constraints.get(k);
+            int size = collect(x, unknownX, true);
+            if (size <= 0) {
+                listed[x] = false;
+                continue;
+            }
+            constraints.set(live++, x);
+            for (int a = 0; a < size; a++) {
+                double risk = frontierRisk(unknownX[a]);
+                if (risk < bestRisk) {
+                    bestRisk = risk;
+                    best = unknownX[a];
+                }
+            }
+        }
+        constraints.retain(live);
+
+        int undecided = covered - deducedMines;
+        if (undecided > 0) {
+            double density = (double) (game.getNumMines() - deducedMines) / undecided;
+            if (density < bestRisk) {
+                int interior = sampleInterior(random);
+                if (interior >= 0) {
+                    best = interior;
+                }
+            }
+        }
+        if (best < 0 && undecided > 0) {
+            best = firstUndecided();
+        }
+        return best < 0 ? null : Move.reveal(rowOf(best), colOf(best));
+    }
+
+    /**
+     * @return the first covered, undecided tile in row-major order, or -1
+     */
+    private int firstUndecided() {
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                int i = index(r, c);
+                if (known[i] == -2 && deduced[i] == UNKNOWN) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the highest mine ratio of the constraints next to tile i
+     */
+    private double frontierRisk(int i) {
+        double risk = 0;
+        for (int off : neighbours) {
+            int size = collect(i + off, unknownY, false);
+            if (size > 0) {
+                risk = Math.max(risk, (double) remainingY / size);
+            }
+        }
+        return risk;
+    }
+
+    /**
+     * samples random tiles looking for a covered, undecided tile with no
+     * uncovered neighbour
+     *
+     * @return such a tile, or -1 if none was found
+     */
+    private int sampleInterior(RandomGenerator random) {
+        for (int attempt = 0; attempt < GUESS_SAMPLES; attempt++) {
+            int i = index(random.nextInt(rows), random.nextInt(cols));
+            if (known[i] != -2 || deduced[i] != UNKNOWN) {
+                continue;
+            }
+            boolean interior = true;
+            for (int off : neighbours) {
+                if (known[i + off] >= -1) {
+                    interior = false;
+                    break;
+                }
+            }
+            if (interior) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,35 @@
+package org.cis1200.minesweeper;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * SolverStrategy plays every move the Solver can prove safe and only guesses,
+ * on the tile a ProbabilityEngine finds least likely to hold a mine, when no
+ * certain move is left. The engine is kept across games so its cache of
+ * solved frontier components is too.
+ */
+public class SolverStrategy implements MoveStrategy {
+
+    private final ProbabilityEngine engine = new ProbabilityEngine();
+    private Solver solver;
+    private Move last;
+
+    @Override
+    public void newGame(Minesweeper game) {
+        solver = new Solver(game);
+        solver.setProbabilityEngine(engine);
+        last = null;
+    }
+
+    @Override
+    public Move nextMove(Minesweeper game, RandomGenerator random) {
+        if (last != null) {
+            solver.observe(last.getRow(), last.getCol());
+        }
+        last = solver.nextSafeMove();
+        if (last == null) {
+            last = solver.guess(random);
+        }
+        return last;
+    }
+}
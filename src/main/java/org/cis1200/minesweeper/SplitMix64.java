@@ -0,0 +1,49 @@
+package org.cis1200.minesweeper;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * SplitMix64 is a random generator that produces exactly the same sequence as
+ * a SplittableRandom created with the same seed, but can be reseeded in place.
+ * Minesweeper keeps one per game so that placing the mines of a new game does
+ * not allocate a fresh generator.
+ *
+ * Only nextInt() and nextLong() are implemented here; every other method,
+ * including the bounded nextInt(bound) used by MinePlacer, is derived from
+ * them by RandomGenerator's defaults, as it is for SplittableRandom.
+ */
+final class SplitMix64 implements RandomGenerator {
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private long state;
+
+    SplitMix64(long seed) {
+        state = seed;
+    }
+
+    /**
+     * restarts the sequence as if the generator had just been created
+     *
+     * @return this generator
+     */
+    SplitMix64 reseed(long seed) {
+        state = seed;
+        return this;
+    }
+
+    @Override
+    public long nextLong() {
+        long z = state += GOLDEN_GAMMA;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    @Override
+    public int nextInt() {
+        long z = state += GOLDEN_GAMMA;
+        z = (z ^ (z >>> 33)) * 0x62A9D9ED799705F5L;
+        return (int) (((z ^ (z >>> 28)) * 0xCB24D0A5C88C35B3L) >>> 32);
+    }
+}
@@ -0,0 +1,88 @@
+package org.cis1200.minesweeper;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+/**
+ * TileSprites pre-renders one image per visible tile state (covered, flag,
+ * mine and the numbers 0-8) at a given tile size, so painting a tile is a
+ * single image copy instead of fills, ovals and Integer.toString/drawString
+ * calls on every repaint. Each sprite includes the grid lines along its top
+ * and left edges.
+ */
+class TileSprites {
+
+    private static final int FIRST_STATE = -3;
+    private static final int LAST_STATE = 8;
+
+    private final int tileSize;
+    private final BufferedImage[] sprites = new BufferedImage[LAST_STATE - FIRST_STATE + 1];
+
+    /**
+     * renders every sprite
+     *
+     * @param tileSize width and height of a tile in pixels
+     * @param background colour of covered tiles
+     * @param font font for numbers and the mine label
+     */
+    TileSprites(int tileSize, Color background, Font font) {
+        this.tileSize = tileSize;
+        for (int state = FIRST_STATE; state <= LAST_STATE; state++) {
+            sprites[state - FIRST_STATE] = render(state, background, font);
+        }
+    }
+
+    int getTileSize() {
+        return tileSize;
+    }
+
+    /**
+     * @param state visible state of a tile, as returned by Minesweeper.getCell
+     * @return the sprite for that state
+     */
+    Image get(int state) {
+        return sprites[state - FIRST_STATE];
+    }
+
+    private BufferedImage render(int state, Color background, Font font) {
+        BufferedImage image = new BufferedImage(tileSize, tileSize, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING,
+                RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g.setFont(font);
+        g.setColor(background);
+        g.fillRect(0, 0, tileSize, tileSize);
+
+        int inner = tileSize - 2;
+        if (state == -1) { // MINE
+            g.setColor(Color.RED);
+            g.fillRect(1, 1, inner, inner);
+            g.setColor(Color.BLACK);
+            drawCentred(g, "(M)");
+        } else if (state == -3) { // FLAG
+            int size = tileSize * 2 / 5;
+            g.setColor(Color.RED);
+            g.drawOval((tileSize - size) / 2, (tileSize - size) / 2, size, size);
+        } else if (state >= 0) { // NUMBERED TILE
+            g.setColor(Color.LIGHT_GRAY);
+            g.fillRect(1, 1, inner, inner);
+            if (state != 0) { // leave 0 tiles blank
+                g.setColor(Color.BLACK);
+                drawCentred(g, Integer.toString(state));
+            }
+        }
+
+        g.setColor(Color.BLACK);
+        g.drawLine(0, 0, tileSize - 1, 0);
+        g.drawLine(0, 0, 0, tileSize - 1);
+        g.dispose();
+        return image;
+    }
+
+    private void drawCentred(Graphics2D g, String text) {
+        FontMetrics metrics = g.getFontMetrics();
+        int x = (tileSize - metrics.stringWidth(text)) / 2;
+        int y = (tileSize - metrics.getHeight()) / 2 + metrics.getAscent();
+        g.drawString(text, x, y);
+    }
+}
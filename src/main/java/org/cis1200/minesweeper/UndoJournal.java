@@ -0,0 +1,311 @@
+package org.cis1200.minesweeper;
+
+import java.util.Arrays;
+
+/**
+ * UndoJournal records the history of a Minesweeper game as a log of cell
+ * changes rather than as full copies of the visible board. Each move is a
+ * contiguous run of (cell index, value) entries in two primitive arrays.
+ *
+ * While a move is applied, each entry holds the value the cell had before the
+ * move. Undoing the move swaps every entry with the current contents of the
+ * board, so afterwards the entry holds the value the move wrote and redoing it
+ * is the same swap in the opposite order. Both directions cost O(cells changed
+ * by the move).
+ *
+ * The journal keeps at most maxEntries cell entries. When a finished move
+ * pushes it over the limit, the oldest moves are evicted.
+ */
+class UndoJournal {
+
+    /**
+     * callback used to write a value into a cell while undoing or redoing
+     */
+    interface CellWriter {
+        /**
+         * stores value in the cell at index
+         *
+         * @return the value the cell held before
+         */
+        byte swap(int index, byte value);
+    }
+
+    public static final int DEFAULT_MAX_ENTRIES = 1 << 22; // about 20 MB of log
+
+    private int[] cells = new int[64];
+    private byte[] values = new byte[64];
+    private int size; // entries in use
+
+    // move k covers entries [moveStart[k], moveStart[k + 1])
+    private int[] moveStart = new int[16];
+    private int moveCount; // moves in the log, applied or undone
+    private int applied; // moves [0, applied) are applied, the rest can be redone
+    private boolean open; // whether a move is currently being recorded
+
+    private int maxEntries;
+
+    UndoJournal() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    UndoJournal(int maxEntries) {
+        setMaxEntries(maxEntries);
+    }
+
+    /**
+     * replaces this journal's contents and capacity with a copy of other's
+     */
+    void copyFrom(UndoJournal other) {
+        cells = Arrays.copyOf(other.cells, Math.max(other.size, 64));
+        values = Arrays.copyOf(other.values, Math.max(other.size, 64));
+        size = other.size;
+        moveStart = Arrays.copyOf(other.moveStart, Math.max(other.moveCount + 2, 16));
+        moveCount = other.moveCount;
+        applied = other.applied;
+        open = other.open;
+        maxEntries = other.maxEntries;
+    }
+
+    /**
+     * sets the maximum number of cell entries kept. Older moves are evicted
+     * the next time a move finishes over the limit.
+     */
+    void setMaxEntries(int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("journal capacity must be positive");
+        }
+        this.maxEntries = maxEntries;
+    }
+
+    int getMaxEntries() {
+        return maxEntries;
+    }
+
+    /**
+     * starts recording a move. Any undone moves are discarded because they
+     * can no longer be redone.
+     *
+     * @param merge if true and an applied move exists, further changes are
+     *              added to that move instead of starting a new one
+     */
+    void begin(boolean merge) {
+        moveCount = applied;
+        size = moveStart[moveCount];
+        open = true;
+        if (merge && applied > 0) {
+            moveCount--;
+            applied--;
+        }
+        if (moveCount + 2 > moveStart.length) {
+            int[] grown = new int[moveStart.length * 2];
+            System.arraycopy(moveStart, 0, grown, 0, moveCount + 1);
+            moveStart = grown;
+        }
+        moveCount++;
+        applied++;
+        moveStart[moveCount] = size;
+    }
+
+    /**
+     * records that the cell at index held previous before being changed by
+     * the move in progress
+     */
+    void record(int index, byte previous) {
+        if (size == cells.length) {
+            grow(size + 1);
+        }
+        cells[size] = index;
+        values[size] = previous;
+        size++;
+        moveStart[moveCount] = size;
+    }
+
+    /**
+     * records count cells that all held previous, taken from indices
+     * starting at from, with one bulk copy
+     */
+    void recordAll(int[] indices, int from, int count, byte previous) {
+        if (size + count > cells.length) {
+            grow(size + count);
+        }
+        System.arraycopy(indices, from, cells, size, count);
+        Arrays.fill(values, size, size + count, previous);
+        size += count;
+        moveStart[moveCount] = size;
+    }
+
+    /**
+     * grows the entry arrays to hold at least needed entries
+     */
+    private void grow(int needed) {
+        int capacity = Math.max(cells.length * 2, needed);
+        cells = Arrays.copyOf(cells, capacity);
+        values = Arrays.copyOf(values, capacity);
+    }
+
+    /**
+     * finishes the move in progress. A move that changed nothing is dropped,
+     * and the oldest moves are evicted if the log is over capacity.
+     */
+    void end() {
+        if (!open) {
+            return;
+        }
+        open = false;
+        if (moveStart[moveCount - 1] == size) {
+            moveCount--;
+            applied--;
+        }
+        if (size > maxEntries) {
+            evict();
+        }
+    }
+
+    /**
+     * removes the oldest moves until the log is back under three quarters of
+     * its capacity (or only the newest move is left), compacting the arrays
+     * in one copy. Arrays that a large move grew to more than twice the
+     * capacity are shrunk again once the log fits.
+     */
+    private void evict() {
+        int target = maxEntries - maxEntries / 4;
+        int drop = 0;
+        while (drop < moveCount - 1 && size - moveStart[drop] > target) {
+            drop++;
+        }
+        if (drop == 0) {
+            return;
+        }
+        int offset = moveStart[drop];
+        System.arraycopy(cells, offset, cells, 0, size - offset);
+        System.arraycopy(values, offset, values, 0, size - offset);
+        size -= offset;
+        for (int k = drop; k <= moveCount; k++) {
+            moveStart[k - drop] = moveStart[k] - offset;
+        }
+        moveCount -= drop;
+        applied -= drop;
+        if (cells.length / 2 > maxEntries && size <= maxEntries) {
+            cells = Arrays.copyOf(cells, Math.max(64, maxEntries));
+            values = Arrays.copyOf(values, Math.max(64, maxEntries));
+        }
+    }
+
+    /**
+     * reverts the most recent applied move
+     *
+     * @return false if there was nothing to undo
+     */
+    boolean undo(CellWriter writer) {
+        if (applied == 0) {
+            return false;
+        }
+        applied--;
+        for (int e = moveStart[applied + 1] - 1; e >= moveStart[applied]; e--) {
+            values[e] = writer.swap(cells[e], values[e]);
+        }
+        return true;
+    }
+
+    /**
+     * re-applies the most recently undone move
+     *
+     * @return false if there was nothing to redo
+     */
+    boolean redo(CellWriter writer) {
+        if (applied == moveCount) {
+            return false;
+        }
+        for (int e = moveStart[applied]; e < moveStart[applied + 1]; e++) {
+            values[e] = writer.swap(cells[e], values[e]);
+        }
+        applied++;
+        return true;
+    }
+
+    /**
+     * @return number of moves that can be undone
+     */
+    int undoDepth() {
+        return applied;
+    }
+
+    /**
+     * @return number of moves that can be redone
+     */
+    int redoDepth() {
+        return moveCount - applied;
+    }
+
+    /**
+     * @return number of cell entries currently held
+     */
+    int entryCount() {
+        return size;
+    }
+
+    /**
+     * @return number of moves in the log, applied or undone
+     */
+    int moveCount() {
+        return moveCount;
+    }
+
+    /**
+     * @return index of the first entry of move k, or the entry count for
+     *         k == moveCount()
+     */
+    int moveStart(int k) {
+        return moveStart[k];
+    }
+
+    /**
+     * @return cell index of entry e
+     */
+    int cellAt(int e) {
+        return cells[e];
+    }
+
+    /**
+     * @return value held by entry e
+     */
+    byte valueAt(int e) {
+        return values[e];
+    }
+
+    /**
+     * replaces the whole log, for example with one read from a save file.
+     * The arrays are taken over, not copied.
+     *
+     * @param starts first entry of each move, followed by the entry count
+     * @param moves number of moves in the log
+     * @param appliedMoves number of those moves that are applied
+     * @param entryCells cell index of each entry
+     * @param entryValues value held by each entry
+     */
+    void load(int[] starts, int moves, int appliedMoves, int[] entryCells, byte[] entryValues) {
+        if (appliedMoves < 0 || appliedMoves > moves || starts.length < moves + 1
+                || entryCells.length != entryValues.length
+                || starts[moves] != entryCells.length) {
+            throw new IllegalArgumentException("inconsistent journal");
+        }
+        moveStart = starts.length >= moves + 2 ? starts : Arrays.copyOf(starts, moves + 2);
+        moveCount = moves;
+        applied = appliedMoves;
+        size = entryCells.length;
+        cells = entryCells.length > 0 ? entryCells : new int[64];
+        values = entryValues.length > 0 ? entryValues : new byte[64];
+        open = false;
+    }
+
+    /**
+     * discards all history, keeping the allocated arrays
+     */
+    void clear() {
+        size = 0;
+        moveCount = 0;
+        applied = 0;
+        open = false;
+        moveStart[0] = 0;
+    }
+}
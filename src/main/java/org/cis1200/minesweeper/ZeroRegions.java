@@ -0,0 +1,151 @@
+package org.cis1200.minesweeper;
+
+import java.util.Arrays;
+
+/**
+ * ZeroRegions labels the zero regions of a mine layout: every maximal set of
+ * connected 0 tiles, together with the numbered tiles bordering it, which is
+ * exactly what a cascade from any of its 0 tiles uncovers on a fresh board.
+ *
+ * The index works on Minesweeper's padded layers. Each tile gets a label in
+ * a primitive array, and the tiles of every region are stored back to back
+ * in one array (compressed sparse rows): first the region's 0 tiles, then
+ * its border. A numbered tile that borders several regions is listed in
+ * each of them.
+ *
+ * Labels of numbered tiles are negative: -1, or -(region + 2) for the last
+ * region that listed the tile as border, which lets the build skip
+ * duplicates without a second array.
+ *
+ * The index is only valid for the layout it was built from, and building it
+ * costs a pass over the board and about eight bytes per tile, so Minesweeper
+ * builds it lazily and only for boards of up to MAX_TILES tiles.
+ */
+final class ZeroRegions {
+
+    static final int MAX_TILES = 1 << 22;
+    private static final byte OUTSIDE = -4;
+
+    private int[] label = new int[0];
+    private int[] cells = new int[0];
+    private int size; // entries of cells in use
+    private int[] start = new int[16]; // region k is cells[start[k], start[k + 1])
+    private int[] zeroEnd = new int[16]; // its 0 tiles end at zeroEnd[k]
+    private int regions;
+    private boolean valid;
+
+    boolean isValid() {
+        return valid;
+    }
+
+    /**
+     * forgets the index, after the layout it was built from has changed
+     */
+    void invalidate() {
+        valid = false;
+    }
+
+    /**
+     * labels every zero region of the board
+     *
+     * @param board internal board layer, padded
+     * @param visible visible board layer, used only to tell the padding apart
+     * @param neighbours offsets of the eight neighbours of a tile
+     */
+    void build(byte[] board, byte[] visible, int[] neighbours) {
+        int n = board.length;
+        if (label.length < n) {
+            label = new int[n];
+        }
+        Arrays.fill(label, 0, n, -1);
+        size = 0;
+        regions = 0;
+        for (int i = 0; i < n; i++) {
+            if (board[i] != 0 || visible[i] == OUTSIDE || label[i] != -1) {
+                continue;
+            }
+            int region = regions++;
+            if (regions + 1 > start.length) {
+                start = Arrays.copyOf(start, start.length * 2);
+                zeroEnd = Arrays.copyOf(zeroEnd, zeroEnd.length * 2);
+            }
+            int first = size;
+            start[region] = first;
+            label[i] = region;
+            add(i);
+            // the region's own list doubles as the queue of the search
+            for (int k = first; k < size; k++) {
+                int curr = cells[k];
+                for (int off : neighbours) {
+                    int next = curr + off;
+                    if (board[next] == 0 && visible[next] != OUTSIDE && label[next] == -1) {
+                        label[next] = region;
+                        add(next);
+                    }
+                }
+            }
+            int zeros = size;
+            zeroEnd[region] = zeros;
+            int mark = -(region + 2);
+            for (int k = first; k < zeros; k++) {
+                int curr = cells[k];
+                for (int off : neighbours) {
+                    int next = curr + off;
+                    if (board[next] > 0 && visible[next] != OUTSIDE && label[next] != mark) {
+                        label[next] = mark;
+                        add(next);
+                    }
+                }
+            }
+        }
+        start[regions] = size;
+        valid = true;
+    }
+
+    private void add(int cell) {
+        if (size == cells.length) {
+            cells = Arrays.copyOf(cells, Math.max(64, size * 2));
+        }
+        cells[size++] = cell;
+    }
+
+    /**
+     * @return region of a 0 tile, or -1 for any other tile
+     */
+    int regionOf(int cell) {
+        return Math.max(label[cell], -1);
+    }
+
+    int getRegionCount() {
+        return regions;
+    }
+
+    /**
+     * @return position in cells() of the region's first tile
+     */
+    int start(int region) {
+        return start[region];
+    }
+
+    /**
+     * @return position in cells() just past the region's 0 tiles, where its
+     *         border starts
+     */
+    int zeroEnd(int region) {
+        return zeroEnd[region];
+    }
+
+    /**
+     * @return position in cells() just past the region's border
+     */
+    int end(int region) {
+        return start[region + 1];
+    }
+
+    /**
+     * @return the tiles of every region, to be read between start and end
+     */
+    int[] cells() {
+        return cells;
+    }
+}
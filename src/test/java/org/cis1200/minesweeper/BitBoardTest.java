@@ -0,0 +1,129 @@
+package org.cis1200.minesweeper;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.SplittableRandom;
+
+public class BitBoardTest {
+
+    /**
+     * @return a padded mine layer with mines on roughly density of the tiles
+     */
+    private static byte[] randomMines(int rows, int cols, double density, long seed) {
+        int stride = cols + 2;
+        byte[] board = new byte[(rows + 2) * stride];
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                if (random.nextDouble() < density) {
+                    board[(r + 1) * stride + c + 1] = -1;
+                }
+            }
+        }
+        return board;
+    }
+
+    @Test
+    public void testCountsMatchScatter() {
+        // widths on both sides of word boundaries, including the padding
+        for (int cols : new int[] { 1, 5, 61, 62, 63, 64, 65, 126, 127, 130, 200 }) {
+            for (double density : new double[] { 0.05, 0.3, 0.9 }) {
+                byte[] scattered = randomMines(7, cols, density, cols);
+                byte[] sliced = scattered.clone();
+                NeighbourCounts.rebuild(scattered, NeighbourCounts.offsets(cols + 2));
+                BitBoard.rebuildCounts(sliced, cols + 2);
+                assertArrayEquals(scattered, sliced, cols + " columns, density " + density);
+            }
+        }
+    }
+
+    @Test
+    public void testDensePopulateBoard() {
+        Minesweeper game = new Minesweeper(40, 70, 1000, 3L);
+        game.playTurn(20, 35, true);
+        int[][] expected = game.getBoard();
+        game.populateBoard(); // 1000 mines on 2800 tiles takes the bit-sliced path
+        assertArrayEquals(expected, game.getBoard());
+        for (int r = 0; r < 40; r++) {
+            for (int c = 0; c < 70; c++) {
+                if (expected[r][c] != -1) {
+                    assertEquals(game.countSurroundingMines(r, c), expected[r][c]);
+                }
+            }
+        }
+    }
+
+    /**
+     * checks every tile of the game's live bit layers against its byte layers
+     */
+    private static void assertLayersMatch(Minesweeper game, String when) {
+        byte[] board = game.mineLayer();
+        byte[] visible = game.visibleLayer();
+        BitBoard bits = game.bitBoard();
+        int mines = 0;
+        int flags = 0;
+        for (int i = 0; i < board.length; i++) {
+            assertEquals(board[i] == -1, bits.isMine(i), when + ", tile " + i);
+            assertEquals(visible[i] >= -1, bits.isUncovered(i), when + ", tile " + i);
+            assertEquals(visible[i] == -3, bits.isFlagged(i), when + ", tile " + i);
+            mines += board[i] == -1 ? 1 : 0;
+            flags += visible[i] == -3 ? 1 : 0;
+        }
+        assertEquals(mines, bits.mineCount(), when);
+        assertEquals(flags, bits.flagCount(), when);
+        assertEquals(flags, game.getFlagCount(), when);
+        BitBoard packed = BitBoard.of(board, visible, game.getCols() + 2);
+        assertEquals(packed.frontierSize(), game.getFrontierSize(), when);
+    }
+
+    @Test
+    public void testLiveLayersMatchAfterRandomGames() {
+        SplittableRandom random = new SplittableRandom(24);
+        for (int g = 0; g < 40; g++) {
+            int rows = 1 + random.nextInt(40);
+            int cols = 1 + random.nextInt(140);
+            int mines = random.nextInt(rows * cols / 4 + 1);
+            Minesweeper game = new Minesweeper(rows, cols, mines, g);
+            assertLayersMatch(game, "game " + g + " before the first move");
+            for (int move = 0; move < 60 && game.getActive(); move++) {
+                int r = random.nextInt(rows);
+                int c = random.nextInt(cols);
+                switch (random.nextInt(6)) {
+                    case 0 -> game.playFlag(r, c);
+                    case 1 -> game.playChord(r, c);
+                    case 2 -> game.undo();
+                    case 3 -> game.redo();
+                    default -> game.playTurn(r, c, true);
+                }
+                assertLayersMatch(game, "game " + g + ", move " + move);
+            }
+            if (game.getActive()) {
+                game.moveMine(0, 0, rows - 1, cols - 1);
+                assertLayersMatch(game, "game " + g + " after moving a mine");
+            }
+            Minesweeper copy = new Minesweeper(game);
+            game.undo();
+            assertLayersMatch(copy, "copy of game " + g);
+            assertLayersMatch(game, "game " + g + " after the copy");
+            game.reset();
+            assertLayersMatch(game, "game " + g + " after reset");
+        }
+    }
+
+    @Test
+    public void testLiveLayersFollowSetBoard() {
+        int[][] layout = new int[20][100];
+        layout[0][0] = -1;
+        layout[19][99] = -1;
+        layout[10][63] = -1;
+        Minesweeper game = new Minesweeper(5, 5, 3, 1L);
+        game.setBoard(layout);
+        game.setFirstTurn(false);
+        assertEquals(3, game.getNumMines());
+        assertLayersMatch(game, "after setBoard");
+        game.playFlag(0, 0);
+        game.playTurn(5, 5, true);
+        assertLayersMatch(game, "after playing");
+    }
+}
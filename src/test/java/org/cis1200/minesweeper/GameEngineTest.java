@@ -0,0 +1,151 @@
+package org.cis1200.minesweeper;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+public class GameEngineTest {
+
+    private static final long SEED = 1200L;
+
+    private BlockingQueue<BoardSnapshot> snapshots;
+    private GameEngine engine;
+
+    @BeforeEach
+    public void setUp() {
+        snapshots = new LinkedBlockingQueue<>();
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+        if (engine != null) {
+            engine.shutdown();
+            engine.awaitTermination();
+        }
+    }
+
+    private BoardSnapshot next() throws InterruptedException {
+        BoardSnapshot snapshot = snapshots.poll(10, TimeUnit.SECONDS);
+        assertNotNull(snapshot, "no snapshot published");
+        return snapshot;
+    }
+
+    private static boolean matches(byte[] view, Minesweeper game) {
+        for (int r = 0; r < game.getRows(); r++) {
+            for (int c = 0; c < game.getCols(); c++) {
+                if (view[r * game.getCols() + c] != game.getCell(r, c)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    @Test
+    public void testInitialSnapshotIsFull() throws InterruptedException {
+        engine = new GameEngine(new Minesweeper(9, 12, 10, SEED), snapshots::add);
+        BoardSnapshot first = next();
+
+        assertTrue(first.isFull());
+        assertEquals(0, first.getVersion());
+        assertEquals(9, first.getRows());
+        assertEquals(12, first.getCols());
+        assertEquals(9 * 12, first.getChangedCellCount());
+        assertEquals(10, first.getMinesRemaining());
+        assertTrue(first.isActive());
+        assertEquals(-2, first.getChangedValue(0));
+    }
+
+    @Test
+    public void testSnapshotsMirrorTheGame() throws InterruptedException {
+        Minesweeper reference = new Minesweeper(16, 16, 40, SEED);
+        engine = new GameEngine(new Minesweeper(16, 16, 40, SEED), snapshots::add);
+        byte[] view = new byte[16 * 16];
+        next().applyTo(view);
+
+        SplittableRandom random = new SplittableRandom(SEED);
+        List<Move> moves = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            int r = random.nextInt(16);
+            int c = random.nextInt(16);
+            moves.add(i % 5 == 4 ? Move.flag(r, c) : Move.reveal(r, c));
+        }
+        moves.add(Move.undo());
+        moves.add(Move.undo());
+        moves.add(Move.redo());
+
+        BoardSnapshot last = null;
+        for (Move move : moves) {
+            move.applyTo(reference);
+            engine.submit(move);
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (last == null || !matches(view, reference)) {
+            assertTrue(System.nanoTime() < deadline, "view never caught up with the game");
+            last = next();
+            last.applyTo(view);
+        }
+        assertEquals(reference.getActive(), last.isActive());
+        assertEquals(reference.checkWinner(), last.isWon());
+        assertEquals(reference.getMinesRemaining(), last.getMinesRemaining());
+    }
+
+    @Test
+    public void testQueuedMovesAreBatched() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        engine = new GameEngine(new Minesweeper(30, 30, 100, SEED), snapshot -> {
+            if (snapshot.getVersion() == 0) { // hold the engine until every move is queued
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            snapshots.add(snapshot);
+        });
+        for (int c = 0; c < 30; c++) {
+            engine.submit(Move.flag(0, c));
+        }
+        release.countDown();
+
+        assertTrue(next().isFull());
+        BoardSnapshot batch = next();
+        assertEquals(1, batch.getVersion()); // all thirty flags in one snapshot
+        assertFalse(batch.isFull());
+        assertEquals(30, batch.getChangedCellCount());
+        assertEquals(70, batch.getMinesRemaining());
+        for (int k = 0; k < batch.getChangedCellCount(); k++) {
+            assertEquals(0, batch.getChangedRow(k));
+            assertEquals(-3, batch.getChangedValue(k));
+        }
+    }
+
+    @Test
+    public void testNewGameAndResetPublishFullSnapshots() throws InterruptedException {
+        engine = new GameEngine(new Minesweeper(), snapshots::add);
+        next();
+
+        engine.newGame(16, 30, 99);
+        BoardSnapshot replaced = next();
+        assertTrue(replaced.isFull());
+        assertEquals(16, replaced.getRows());
+        assertEquals(30, replaced.getCols());
+        assertEquals(99, replaced.getNumMines());
+
+        engine.submit(Move.reveal(8, 15));
+        assertFalse(next().isFull());
+        engine.submit(Move.reset());
+        BoardSnapshot reset = next();
+        assertTrue(reset.isFull());
+        for (int k = 0; k < reset.getChangedCellCount(); k++) {
+            assertEquals(-2, reset.getChangedValue(k));
+        }
+    }
+}
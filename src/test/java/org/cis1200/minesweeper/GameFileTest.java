@@ -0,0 +1,194 @@
+package org.cis1200.minesweeper;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+public class GameFileTest {
+
+    @TempDir
+    Path dir;
+
+    private static void assertSameGame(Minesweeper expected, Minesweeper actual) {
+        assertEquals(expected.getRows(), actual.getRows());
+        assertEquals(expected.getCols(), actual.getCols());
+        assertEquals(expected.getNumMines(), actual.getNumMines());
+        assertEquals(expected.getSeed(), actual.getSeed());
+        assertArrayEquals(expected.getBoard(), actual.getBoard());
+        for (int r = 0; r < expected.getRows(); r++) {
+            for (int c = 0; c < expected.getCols(); c++) {
+                assertEquals(expected.getCell(r, c), actual.getCell(r, c));
+            }
+        }
+        assertEquals(expected.getActive(), actual.getActive());
+        assertEquals(expected.getSafeCellsRemaining(), actual.getSafeCellsRemaining());
+        assertEquals(expected.getFlagCount(), actual.getFlagCount());
+        assertEquals(expected.getStackSize(), actual.getStackSize());
+        assertEquals(expected.getRedoSize(), actual.getRedoSize());
+    }
+
+    private static Minesweeper playedGame() {
+        Minesweeper game = new Minesweeper(16, 30, 99, 1200L);
+        game.playTurn(8, 15, true);
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < 30 && game.getActive(); i++) {
+            int r = random.nextInt(16);
+            int c = random.nextInt(30);
+            if (i % 3 == 0) {
+                game.playFlag(r, c);
+            } else if (game.getBoard()[r][c] != -1) {
+                game.playTurn(r, c, true);
+            }
+        }
+        game.undo();
+        return game;
+    }
+
+    @Test
+    public void testRoundTripPlayedGame() throws IOException {
+        Minesweeper game = playedGame();
+        Path file = dir.resolve("game.msw");
+        game.save(file);
+        Minesweeper loaded = Minesweeper.load(file);
+        assertSameGame(game, loaded);
+        assertTrue(loaded.isBoardReplaced());
+
+        // the history carries over, so both games undo and redo alike
+        game.redo();
+        loaded.redo();
+        assertSameGame(game, loaded);
+        while (game.getStackSize() > 0) {
+            game.undo();
+            loaded.undo();
+        }
+        assertSameGame(game, loaded);
+    }
+
+    @Test
+    public void testRoundTripBeforeFirstTurn() throws IOException {
+        Minesweeper game = new Minesweeper(9, 9, 10, 42L);
+        game.setNoGuess(true);
+        Path file = dir.resolve("fresh.msw");
+        game.save(file);
+        Minesweeper loaded = Minesweeper.load(file);
+        assertSameGame(game, loaded);
+        assertTrue(loaded.isNoGuess());
+
+        // the seed is kept, so the first click produces the same layout
+        game.playTurn(4, 4, true);
+        loaded.playTurn(4, 4, true);
+        assertSameGame(game, loaded);
+        assertTrue(game.isGuaranteedSolvable());
+        game.save(file);
+        assertTrue(Minesweeper.load(file).isGuaranteedSolvable());
+    }
+
+    @Test
+    public void testFileSizeIsPacked() throws IOException {
+        Minesweeper game = new Minesweeper(1000, 1000, 150000, 3L);
+        int opened = game.playTurn(500, 500, true);
+        Path file = dir.resolve("big.msw");
+        game.save(file);
+
+        long tiles = 1000L * 1000;
+        long layers = GameFile.HEADER_BYTES + tiles / 8 + tiles / 2; // 1 bit + 4 bits a tile
+        long journal = 2 * Integer.BYTES + (Integer.BYTES + 1L) * opened;
+        assertEquals(layers + journal, Files.size(file));
+        assertSameGame(game, Minesweeper.load(file));
+    }
+
+    @Test
+    public void testRejectsCorruptFiles() throws IOException {
+        Path file = dir.resolve("bad.msw");
+        Files.write(file, new byte[] { 1, 2, 3 });
+        assertThrows(IOException.class, () -> Minesweeper.load(file));
+
+        new Minesweeper().save(file);
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[0] = 'X';
+        Files.write(file, bytes);
+        assertThrows(IOException.class, () -> Minesweeper.load(file));
+
+        new Minesweeper().save(file);
+        bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+        assertThrows(IOException.class, () -> Minesweeper.load(file));
+    }
+
+    @Test
+    public void testRoundTripOddWidth() throws IOException {
+        // rows of an odd width start in the high half of a byte every other row
+        Minesweeper game = new Minesweeper(7, 9, 12, 5L);
+        game.playTurn(3, 4, true);
+        game.playFlag(0, 0);
+        Path file = dir.resolve("odd.msw");
+        game.save(file);
+        assertSameGame(game, Minesweeper.load(file));
+    }
+
+    @Test
+    public void testRejectsInconsistentSections() throws IOException {
+        Path file = dir.resolve("bad.msw");
+        playedGame().save(file);
+        byte[] good = Files.readAllBytes(file);
+        long tiles = 16L * 30;
+        int visibleAt = GameFile.HEADER_BYTES + (int) (tiles + 63) / 64 * Long.BYTES;
+        int journalAt = visibleAt + (int) (tiles + 1) / 2;
+
+        // no mines although the header says they were placed
+        byte[] bytes = good.clone();
+        Arrays.fill(bytes, GameFile.HEADER_BYTES, visibleAt, (byte) 0);
+        Files.write(file, bytes);
+        assertThrows(IOException.class, () -> Minesweeper.load(file));
+
+        // the first move does not start at the first entry
+        bytes = good.clone();
+        bytes[journalAt + 3] = 1;
+        Files.write(file, bytes);
+        assertThrows(IOException.class, () -> Minesweeper.load(file));
+
+        // a journal value that is not a tile state
+        bytes = good.clone();
+        bytes[bytes.length - 1] = 9;
+        Files.write(file, bytes);
+        assertThrows(IOException.class, () -> Minesweeper.load(file));
+
+        Files.write(file, good);
+        assertSameGame(playedGame(), Minesweeper.load(file));
+    }
+
+    @Test
+    public void testRejectsTilesThatDisagreeWithTheMines() throws IOException {
+        Path file = dir.resolve("bad.msw");
+        Minesweeper game = playedGame();
+        game.save(file);
+        byte[] good = Files.readAllBytes(file);
+        int visibleAt = GameFile.HEADER_BYTES + (int) (16L * 30 + 63) / 64 * Long.BYTES;
+        int tile = 8 * 30 + 15; // the first click, an uncovered number
+        int shown = game.getCell(8, 15);
+        assertTrue(shown >= 0);
+
+        // the wrong number, kept in the odd tile's high half of the byte
+        byte[] bytes = good.clone();
+        int wrong = shown == 8 ? 7 : shown + 1;
+        bytes[visibleAt + tile / 2] = (byte) (bytes[visibleAt + tile / 2] & 0x0F
+                | (wrong + 3) << 4);
+        Files.write(file, bytes);
+        assertThrows(IOException.class, () -> Minesweeper.load(file));
+
+        // a mine shown where there is none
+        bytes = good.clone();
+        bytes[visibleAt + tile / 2] = (byte) (bytes[visibleAt + tile / 2] & 0x0F | 2 << 4);
+        Files.write(file, bytes);
+        assertThrows(IOException.class, () -> Minesweeper.load(file));
+
+        Files.write(file, good);
+        assertSameGame(game, Minesweeper.load(file));
+    }
+}
@@ -0,0 +1,146 @@
+package org.cis1200.minesweeper;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.SplittableRandom;
+
+public class GamePoolTest {
+
+    /**
+     * plays a fixed sequence of moves: a flag, an undo, then reveals in
+     * row-major order until the game ends
+     */
+    private static void play(Minesweeper game) {
+        game.playTurn(game.getRows() / 2, game.getCols() / 2, true);
+        game.playFlag(0, 0);
+        game.undo();
+        for (int r = 0; r < game.getRows() && game.getActive(); r++) {
+            for (int c = 0; c < game.getCols() && game.getActive(); c++) {
+                game.playTurn(r, c, true);
+            }
+        }
+    }
+
+    private static void assertSameGame(Minesweeper expected, Minesweeper actual) {
+        assertEquals(expected.getRows(), actual.getRows());
+        assertEquals(expected.getCols(), actual.getCols());
+        for (int r = 0; r < expected.getRows(); r++) {
+            for (int c = 0; c < expected.getCols(); c++) {
+                assertEquals(expected.getCell(r, c), actual.getCell(r, c), r + ", " + c);
+            }
+        }
+        assertArrayEquals(expected.getBoard(), actual.getBoard());
+        assertEquals(expected.getActive(), actual.getActive());
+        assertEquals(expected.getSafeCellsRemaining(), actual.getSafeCellsRemaining());
+        assertEquals(expected.getStackSize(), actual.getStackSize());
+    }
+
+    @Test
+    public void testSplitMixMatchesSplittableRandom() {
+        for (long seed : new long[] {0L, 1L, -7L, 0x123456789ABCDEFL}) {
+            SplittableRandom expected = new SplittableRandom(seed);
+            SplitMix64 actual = new SplitMix64(99L).reseed(seed);
+            for (int k = 0; k < 1000; k++) {
+                switch (k % 4) {
+                    case 0 -> assertEquals(expected.nextLong(), actual.nextLong());
+                    case 1 -> assertEquals(expected.nextInt(), actual.nextInt());
+                    case 2 -> assertEquals(expected.nextInt(1 << 10), actual.nextInt(1 << 10));
+                    default -> assertEquals(expected.nextInt(1000003), actual.nextInt(1000003));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testReusedGameMatchesNewGame() {
+        GamePool pool = new GamePool();
+        Minesweeper first = pool.acquire(16, 30, 99, 1L);
+        play(first);
+        pool.release(first);
+
+        Minesweeper reused = pool.acquire(16, 30, 99, 2L);
+        assertSame(first, reused);
+        assertEquals(1, pool.getReusedCount());
+        assertTrue(reused.getActive());
+        assertEquals(0, reused.getStackSize());
+
+        Minesweeper fresh = new Minesweeper(16, 30, 99, 2L);
+        play(reused);
+        play(fresh);
+        assertSameGame(fresh, reused);
+    }
+
+    @Test
+    public void testReusedGameHasDefaultSettings() {
+        GamePool pool = new GamePool();
+        Minesweeper first = pool.acquire(9, 9, 10, 1L);
+        Minesweeper fresh = new Minesweeper(9, 9, 10, 1L);
+        first.setUndoCapacity(100);
+        first.setParallelCascade(false);
+        first.setZeroRegionIndex(false);
+        first.setNoGuess(true);
+        pool.release(first);
+
+        Minesweeper reused = pool.acquire(9, 9, 10, 2L);
+        assertSame(first, reused);
+        assertEquals(fresh.getUndoCapacity(), reused.getUndoCapacity());
+        assertEquals(fresh.isParallelCascade(), reused.isParallelCascade());
+        assertEquals(fresh.isZeroRegionIndex(), reused.isZeroRegionIndex());
+        assertEquals(fresh.isNoGuess(), reused.isNoGuess());
+    }
+
+    @Test
+    public void testUndoCapacityIsAppliedOnAcquire() {
+        GamePool pool = new GamePool();
+        pool.setUndoCapacity(128);
+        Minesweeper created = pool.acquire(9, 9, 10, 1L);
+        assertEquals(128, created.getUndoCapacity());
+        created.setUndoCapacity(1000);
+        pool.release(created);
+        assertEquals(128, pool.acquire(9, 9, 10, 2L).getUndoCapacity());
+        assertThrows(IllegalArgumentException.class, () -> pool.setUndoCapacity(0));
+    }
+
+    @Test
+    public void testOtherSizeIsResized() {
+        GamePool pool = new GamePool(1);
+        Minesweeper big = pool.acquire(30, 30, 200, 3L);
+        Minesweeper extra = pool.acquire(9, 9, 10, 3L);
+        assertEquals(2, pool.getCreatedCount());
+        pool.release(big);
+        pool.release(extra); // over maxIdle, dropped
+        assertEquals(1, pool.getIdleCount());
+
+        Minesweeper small = pool.acquire(9, 9, 10, 4L);
+        assertSame(big, small);
+        assertEquals(1, pool.getResizedCount());
+        Minesweeper fresh = new Minesweeper(9, 9, 10, 4L);
+        play(small);
+        play(fresh);
+        assertSameGame(fresh, small);
+    }
+
+    @Test
+    public void testSteadyStateAllocatesAlmostNothing() {
+        Assumptions.assumeTrue(GamePool.threadAllocatedBytes() >= 0,
+                "allocation is not measured on this JVM");
+        GamePool pool = new GamePool();
+        for (int k = 0; k < 2000; k++) { // warm up buffers and the JIT
+            Minesweeper game = pool.acquire(16, 30, 99, k);
+            play(game);
+            pool.release(game);
+        }
+
+        int games = 2000;
+        long before = GamePool.threadAllocatedBytes();
+        for (int k = 0; k < games; k++) {
+            Minesweeper game = pool.acquire(16, 30, 99, k);
+            play(game);
+            pool.release(game);
+        }
+        long perGame = (GamePool.threadAllocatedBytes() - before) / games;
+        assertTrue(perGame < 16, perGame + " bytes per game");
+        assertEquals(1, pool.getCreatedCount());
+    }
+}
@@ -0,0 +1,169 @@
+package org.cis1200.minesweeper;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+public class GameServerTest {
+
+    private GameServer server;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        server = new GameServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+                1 << 22);
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        server.close();
+    }
+
+    private GameClient connect() throws IOException {
+        return new GameClient(InetAddress.getLoopbackAddress().getHostAddress(),
+                server.getPort());
+    }
+
+    private static void assertSameView(Minesweeper expected, GameClient actual) {
+        for (int r = 0; r < expected.getRows(); r++) {
+            for (int c = 0; c < expected.getCols(); c++) {
+                assertEquals(expected.getCell(r, c), actual.getCell(r, c), r + ", " + c);
+            }
+        }
+        assertEquals(expected.getActive(), actual.getActive());
+        assertEquals(expected.checkWinner(), actual.isWon());
+        assertEquals(expected.getMinesRemaining(), actual.getMinesRemaining());
+    }
+
+    @Test
+    public void testClientMirrorsLocalGame() throws IOException {
+        Minesweeper local = new Minesweeper(16, 30, 99, 77L);
+        try (GameClient client = connect()) {
+            client.newGame(16, 30, 99, 77L);
+            assertEquals(16, client.getRows());
+            assertSameView(local, client);
+
+            SplittableRandom random = new SplittableRandom(1);
+            for (int i = 0; i < 200; i++) {
+                int r = random.nextInt(16);
+                int c = random.nextInt(30);
+                switch (random.nextInt(6)) {
+                    case 0 -> {
+                        local.playFlag(r, c);
+                        client.flag(r, c);
+                    }
+                    case 1 -> {
+                        local.undo();
+                        client.undo();
+                    }
+                    case 2 -> {
+                        local.playChord(r, c);
+                        client.chord(r, c);
+                    }
+                    default -> {
+                        local.playTurn(r, c, true);
+                        client.reveal(r, c);
+                    }
+                }
+                assertEquals(local.getChangedCellCount(), client.getLastChangeCount());
+                assertSameView(local, client);
+            }
+            local.reset();
+            client.reset();
+            assertSameView(local, client);
+        }
+    }
+
+    @Test
+    public void testLargeDeltaIsStreamed() throws IOException {
+        Minesweeper local = new Minesweeper(1000, 1000, 1000, 5L);
+        try (GameClient client = connect()) {
+            client.newGame(1000, 1000, 1000, 5L);
+            int opened = local.playTurn(500, 500, true);
+            client.reveal(500, 500);
+            assertTrue(opened > 100000, "opened " + opened); // far more than one buffer
+            assertEquals(opened, client.getLastChangeCount());
+            assertSameView(local, client);
+
+            client.undo();
+            local.undo();
+            assertSameView(local, client);
+        }
+    }
+
+    @Test
+    public void testSessionUndoHistoryIsBounded() throws IOException {
+        try (GameServer small = new GameServer(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1 << 22, 64);
+                GameClient client = new GameClient(
+                        InetAddress.getLoopbackAddress().getHostAddress(), small.getPort())) {
+            Minesweeper local = new Minesweeper(16, 30, 99, 77L);
+            client.newGame(16, 30, 99, 77L);
+            local.playTurn(8, 15, true);
+            client.reveal(8, 15);
+            int flags = 0;
+            for (int r = 0; r < 16 && flags < 200; r++) {
+                for (int c = 0; c < 30 && flags < 200; c++) {
+                    if (local.getCell(r, c) == -2) {
+                        client.flag(r, c);
+                        flags++;
+                    }
+                }
+            }
+            assertTrue(flags > 64);
+
+            int undone = 0;
+            client.undo();
+            while (client.getLastChangeCount() > 0) {
+                undone++;
+                client.undo();
+            }
+            assertTrue(undone > 0 && undone <= 64, "undid " + undone + " moves");
+        }
+    }
+
+    @Test
+    public void testErrors() throws IOException {
+        try (GameClient client = connect()) {
+            assertThrows(IOException.class, () -> client.reveal(0, 0)); // no game yet
+            assertThrows(IOException.class, () -> client.newGame(5000, 5000, 10, 1L));
+            client.newGame(9, 9, 10, 1L); // the session is still usable
+            client.reveal(4, 4);
+            assertTrue(client.getLastChangeCount() > 0);
+        }
+    }
+
+    @Test
+    public void testManySessions() throws IOException, InterruptedException {
+        List<GameClient> clients = new ArrayList<>();
+        try {
+            for (int i = 0; i < 200; i++) {
+                GameClient client = connect();
+                clients.add(client);
+                client.newGame(9, 9, 10, i);
+            }
+            assertEquals(200, server.getSessionCount());
+            for (int i = 0; i < clients.size(); i++) {
+                Minesweeper local = new Minesweeper(9, 9, 10, i);
+                local.playTurn(4, 4, true);
+                clients.get(i).reveal(4, 4);
+                assertSameView(local, clients.get(i));
+            }
+        } finally {
+            for (GameClient client : clients) {
+                client.close();
+            }
+        }
+        long deadline = System.currentTimeMillis() + 5000;
+        while (server.getSessionCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, server.getSessionCount());
+    }
+}
@@ -3,6 +3,8 @@ package org.cis1200.minesweeper;
 import org.junit.jupiter.api.*;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.SplittableRandom;
+
 public class GameTest {
     private Minesweeper minesweeper;
 
@@ -126,4 +128,497 @@ public class GameTest {
         assertEquals(20, mineCount);
         assertEquals(0, board[1][1]);
     }
+
+    @Test
+    public void testCustomBoardSize() {
+        Minesweeper custom = new Minesweeper(16, 30, 99);
+        assertEquals(16, custom.getRows());
+        assertEquals(30, custom.getCols());
+        assertEquals(99, custom.getNumMines());
+
+        custom.playTurn(15, 29, true);
+        int[][] board = custom.getBoard();
+        assertEquals(16, board.length);
+        assertEquals(30, board[0].length);
+        int mineCount = 0;
+        for (int[] row : board) {
+            for (int tile : row) {
+                if (tile == -1) {
+                    mineCount++;
+                }
+            }
+        }
+        assertEquals(99, mineCount);
+        assertEquals(0, board[15][29]);
+    }
+
+    @Test
+    public void testSetBoardResizes() {
+        int[][] narrow = {
+            { -1, 0, 0, 0, 0 },
+            { 0, 0, 0, 0, 0 },
+            { 0, 0, 0, 0, -1 }
+        };
+        minesweeper.setBoard(narrow);
+        minesweeper.populateBoard();
+        minesweeper.setFirstTurn(false);
+        assertEquals(3, minesweeper.getRows());
+        assertEquals(5, minesweeper.getCols());
+        assertEquals(2, minesweeper.getNumMines());
+        assertEquals(1, minesweeper.getBoard()[1][1]);
+
+        minesweeper.playTurn(0, 2, true);
+        assertEquals(0, minesweeper.getCell(1, 2));
+        assertEquals(-2, minesweeper.getCell(0, 0));
+        assertEquals(-2, minesweeper.getCell(2, 4));
+        assertFalse(minesweeper.getActive()); // every safe plot is uncovered
+    }
+
+    @Test
+    public void testInvalidBoardSize() {
+        assertThrows(IllegalArgumentException.class, () -> new Minesweeper(0, 10, 1));
+        assertThrows(IllegalArgumentException.class, () -> new Minesweeper(3, 3, 9));
+    }
+
+    @Test
+    public void testPlayTurnReportsOpenedCount() {
+        assertEquals(1, minesweeper.playTurn(4, 3, true));
+        assertEquals(0, minesweeper.playTurn(4, 3, true));
+        // zero region across the top of the board plus its numbered border
+        assertEquals(16, minesweeper.playTurn(0, 4, true));
+    }
+
+    @Test
+    public void testCascadeOnHugeBoardDoesNotOverflowStack() {
+        Minesweeper huge = new Minesweeper(2000, 2000, 0);
+        assertEquals(2000 * 2000, huge.playTurn(1000, 1000, true));
+        assertEquals(0, huge.getCell(0, 0));
+        assertEquals(0, huge.getCell(1999, 1999));
+        assertFalse(huge.getActive());
+        assertTrue(huge.checkWinner());
+    }
+
+    @Test
+    public void testCountersTrackRevealFlagAndUndo() {
+        assertEquals(80, minesweeper.getSafeCellsRemaining());
+        assertEquals(20, minesweeper.getMinesRemaining());
+
+        minesweeper.playTurn(0, 4, true);
+        assertEquals(64, minesweeper.getSafeCellsRemaining());
+
+        minesweeper.playFlag(0, 0);
+        minesweeper.playFlag(2, 0);
+        assertEquals(2, minesweeper.getFlagCount());
+        assertEquals(18, minesweeper.getMinesRemaining());
+        assertEquals(64, minesweeper.getSafeCellsRemaining());
+
+        minesweeper.playTurn(2, 0, true); // removes the flag
+        assertEquals(1, minesweeper.getFlagCount());
+
+        minesweeper.undo();
+        minesweeper.undo();
+        assertEquals(0, minesweeper.getFlagCount());
+        assertEquals(64, minesweeper.getSafeCellsRemaining());
+        minesweeper.undo();
+        assertEquals(80, minesweeper.getSafeCellsRemaining());
+
+        minesweeper.reset();
+        assertEquals(80, minesweeper.getSafeCellsRemaining());
+        assertEquals(0, minesweeper.getFlagCount());
+    }
+
+    @Test
+    public void testWinEndsGame() {
+        int[][] board = minesweeper.getBoard();
+        for (int r = 0; r < 10; r++) {
+            for (int c = 0; c < 10; c++) {
+                if (board[r][c] != -1) {
+                    assertFalse(minesweeper.checkWinner());
+                    minesweeper.playTurn(r, c, true);
+                }
+            }
+        }
+        assertTrue(minesweeper.checkWinner());
+        assertFalse(minesweeper.getActive());
+        assertEquals(0, minesweeper.getSafeCellsRemaining());
+    }
+
+    @Test
+    public void testRedoRestoresUndoneMove() {
+        minesweeper.playTurn(0, 4, true);
+        minesweeper.playFlag(0, 0);
+        minesweeper.undo();
+        minesweeper.undo();
+        assertEquals(-2, minesweeper.getCell(0, 4));
+        assertEquals(2, minesweeper.getRedoSize());
+
+        minesweeper.redo();
+        assertEquals(0, minesweeper.getCell(0, 4));
+        assertEquals(1, minesweeper.getCell(1, 6));
+        assertEquals(-2, minesweeper.getCell(0, 0));
+        assertEquals(64, minesweeper.getSafeCellsRemaining());
+
+        minesweeper.redo();
+        assertEquals(-3, minesweeper.getCell(0, 0));
+        assertEquals(0, minesweeper.getRedoSize());
+        assertEquals(2, minesweeper.getStackSize());
+    }
+
+    @Test
+    public void testNewMoveClearsRedo() {
+        minesweeper.playTurn(4, 3, true);
+        minesweeper.undo();
+        assertEquals(1, minesweeper.getRedoSize());
+        minesweeper.playFlag(4, 3);
+        assertEquals(0, minesweeper.getRedoSize());
+        minesweeper.redo();
+        assertEquals(-3, minesweeper.getCell(4, 3));
+    }
+
+    @Test
+    public void testRedoLosingMoveEndsGame() {
+        minesweeper.playTurn(4, 4, true);
+        minesweeper.undo();
+        assertTrue(minesweeper.getActive());
+        minesweeper.redo();
+        assertEquals(-1, minesweeper.getCell(4, 4));
+        assertFalse(minesweeper.getActive());
+    }
+
+    @Test
+    public void testUndoCapacityEvictsOldestMoves() {
+        minesweeper.setUndoCapacity(4);
+        minesweeper.playFlag(0, 0);
+        minesweeper.playFlag(1, 1);
+        minesweeper.playFlag(2, 2);
+        minesweeper.playFlag(3, 3);
+        assertEquals(4, minesweeper.getStackSize());
+
+        minesweeper.playFlag(4, 4); // over capacity, drops down to 3 entries
+        assertEquals(3, minesweeper.getStackSize());
+        minesweeper.undo();
+        minesweeper.undo();
+        minesweeper.undo();
+        minesweeper.undo();
+        assertEquals(-2, minesweeper.getCell(2, 2));
+        assertEquals(-3, minesweeper.getCell(1, 1));
+        assertEquals(2, minesweeper.getFlagCount());
+
+        // a single move larger than the capacity is still undoable
+        minesweeper.playTurn(0, 4, true);
+        assertEquals(1, minesweeper.getStackSize());
+        minesweeper.undo();
+        assertEquals(-2, minesweeper.getCell(0, 4));
+    }
+
+    @Test
+    public void testSameSeedReproducesLayout() {
+        Minesweeper first = new Minesweeper(16, 30, 99, 42L);
+        Minesweeper second = new Minesweeper(16, 30, 99, 42L);
+        first.playTurn(7, 7, true);
+        second.playTurn(7, 7, true);
+        assertEquals(42L, first.getSeed());
+        assertArrayEquals(first.getBoard(), second.getBoard());
+
+        Minesweeper other = new Minesweeper(16, 30, 99, 43L);
+        other.playTurn(7, 7, true);
+        assertFalse(java.util.Arrays.deepEquals(first.getBoard(), other.getBoard()));
+    }
+
+    @Test
+    public void testDenseBoardKeepsClickedTileSafe() {
+        // too dense for a 3x3 safe zone, only the clicked tile stays clear
+        Minesweeper dense = new Minesweeper(10, 10, 95, 7L);
+        dense.playTurn(5, 5, true);
+        int[][] board = dense.getBoard();
+        int mineCount = 0;
+        for (int[] row : board) {
+            for (int tile : row) {
+                if (tile == -1) {
+                    mineCount++;
+                }
+            }
+        }
+        assertEquals(95, mineCount);
+        assertNotEquals(-1, board[5][5]);
+
+        Minesweeper crowded = new Minesweeper(10, 10, 91, 7L);
+        crowded.playTurn(0, 0, true);
+        board = crowded.getBoard();
+        assertEquals(0, board[0][0]);
+        assertNotEquals(-1, board[1][1]);
+    }
+
+    @Test
+    public void testSetBoardUpdatesNumbersIncrementally() {
+        int[][] layout = new int[10][10];
+        layout[0][0] = -1;
+        layout[5][5] = -1;
+        minesweeper.setBoard(layout); // no populateBoard needed
+        int[][] board = minesweeper.getBoard();
+        assertEquals(0, board[4][0]);
+        assertEquals(1, board[1][1]);
+        assertEquals(1, board[4][4]);
+        assertEquals(1, board[6][6]);
+        assertEquals(0, board[9][9]);
+        assertEquals(2, minesweeper.getNumMines());
+
+        minesweeper.populateBoard(); // rebuilding from scratch agrees
+        assertArrayEquals(board, minesweeper.getBoard());
+    }
+
+    @Test
+    public void testMoveMineUpdatesNeighbours() {
+        // (0, 0) is a mine, (0, 3) is a covered 0 tile
+        assertTrue(minesweeper.moveMine(0, 0, 0, 3));
+        int[][] board = minesweeper.getBoard();
+        assertEquals(1, board[0][0]);
+        assertEquals(-1, board[0][3]);
+        assertEquals(2, board[0][2]);
+        assertEquals(1, board[0][4]);
+        assertEquals(1, board[1][0]);
+        assertEquals(board[0][2], minesweeper.countSurroundingMines(0, 2));
+
+        assertFalse(minesweeper.moveMine(0, 1, 0, 4)); // no mine at (0, 1)
+        assertFalse(minesweeper.moveMine(0, 3, 1, 1)); // (1, 1) already a mine
+        minesweeper.playTurn(0, 6, true);
+        assertFalse(minesweeper.moveMine(0, 3, 0, 6)); // (0, 6) uncovered
+    }
+
+    @Test
+    public void testChangedCellsReportedPerMove() {
+        minesweeper.playTurn(0, 4, true);
+        assertEquals(16, minesweeper.getChangedCellCount());
+        assertFalse(minesweeper.isBoardReplaced());
+        for (int k = 0; k < minesweeper.getChangedCellCount(); k++) {
+            int r = minesweeper.getChangedRow(k);
+            int c = minesweeper.getChangedCol(k);
+            assertNotEquals(-2, minesweeper.getCell(r, c));
+        }
+
+        minesweeper.playFlag(9, 4);
+        assertEquals(1, minesweeper.getChangedCellCount());
+        assertEquals(9, minesweeper.getChangedRow(0));
+        assertEquals(4, minesweeper.getChangedCol(0));
+
+        minesweeper.playFlag(9, 4); // already flagged, nothing changes
+        assertEquals(0, minesweeper.getChangedCellCount());
+
+        minesweeper.undo();
+        assertEquals(1, minesweeper.getChangedCellCount());
+        minesweeper.undo();
+        assertEquals(16, minesweeper.getChangedCellCount());
+
+        minesweeper.reset();
+        assertTrue(minesweeper.isBoardReplaced());
+        assertEquals(0, minesweeper.getChangedCellCount());
+    }
+
+    @Test
+    public void testChordRevealsNeighboursAsOneMove() {
+        minesweeper.playTurn(0, 1, true);
+        assertEquals(2, minesweeper.getCell(0, 1));
+        minesweeper.playFlag(0, 0);
+        assertEquals(0, minesweeper.playChord(0, 1)); // only one of two flags placed
+        assertEquals(2, minesweeper.getStackSize());
+
+        minesweeper.playFlag(1, 1);
+        assertEquals(3, minesweeper.playChord(0, 1));
+        assertEquals(1, minesweeper.getCell(0, 2));
+        assertEquals(2, minesweeper.getCell(1, 0));
+        assertEquals(2, minesweeper.getCell(1, 2));
+        assertEquals(3, minesweeper.getChangedCellCount());
+        assertEquals(4, minesweeper.getStackSize());
+        assertTrue(minesweeper.getActive());
+
+        minesweeper.undo(); // the whole chord is one move
+        assertEquals(-2, minesweeper.getCell(0, 2));
+        assertEquals(-2, minesweeper.getCell(1, 0));
+        assertEquals(-2, minesweeper.getCell(1, 2));
+        assertEquals(-3, minesweeper.getCell(1, 1));
+    }
+
+    @Test
+    public void testChordCascadesLikeSeparateReveals() {
+        Minesweeper separate = new Minesweeper(minesweeper);
+        minesweeper.playTurn(0, 2, true);
+        minesweeper.playFlag(1, 1);
+        int opened = minesweeper.playChord(0, 2);
+
+        separate.playTurn(0, 2, true);
+        separate.playFlag(1, 1);
+        int expected = 0;
+        for (int[] n : new int[][] { { 0, 1 }, { 0, 3 }, { 1, 2 }, { 1, 3 } }) {
+            expected += separate.playTurn(n[0], n[1], true);
+        }
+        assertEquals(expected, opened);
+        assertTrue(opened > 4); // (0, 3) is a 0 tile, so the chord cascades
+        assertArrayEquals(separate.getBoard(), minesweeper.getBoard());
+        for (int r = 0; r < 10; r++) {
+            for (int c = 0; c < 10; c++) {
+                assertEquals(separate.getCell(r, c), minesweeper.getCell(r, c));
+            }
+        }
+        assertEquals(separate.getSafeCellsRemaining(), minesweeper.getSafeCellsRemaining());
+    }
+
+    @Test
+    public void testChordWithWrongFlagLoses() {
+        minesweeper.playTurn(0, 2, true);
+        minesweeper.playFlag(1, 2); // the mine is really at (1, 1)
+        minesweeper.playChord(0, 2);
+        assertEquals(-1, minesweeper.getCell(1, 1));
+        assertFalse(minesweeper.getActive());
+        assertFalse(minesweeper.checkWinner());
+
+        minesweeper.undo();
+        assertTrue(minesweeper.getActive());
+        assertEquals(-2, minesweeper.getCell(1, 1));
+    }
+
+    @Test
+    public void testParallelCascadeMatchesSequential() {
+        // sparse enough that the first click opens most of the board
+        Minesweeper parallel = new Minesweeper(1200, 1200, 2000, 8L);
+        Minesweeper sequential = new Minesweeper(1200, 1200, 2000, 8L);
+        sequential.setParallelCascade(false);
+        parallel.setZeroRegionIndex(false); // it would open the region without a search
+        sequential.setZeroRegionIndex(false);
+        parallel.playFlag(0, 0);
+        sequential.playFlag(0, 0);
+
+        int opened = parallel.playTurn(600, 600, true);
+        assertEquals(sequential.playTurn(600, 600, true), opened);
+        assertTrue(opened > 1_000_000, "opened " + opened);
+        assertEquals(opened, parallel.getChangedCellCount());
+        assertEquals(sequential.getSafeCellsRemaining(), parallel.getSafeCellsRemaining());
+        for (int r = 0; r < 1200; r++) {
+            for (int c = 0; c < 1200; c++) {
+                assertEquals(sequential.getCell(r, c), parallel.getCell(r, c));
+            }
+        }
+
+        parallel.undo();
+        for (int r = 0; r < 1200; r++) {
+            for (int c = 0; c < 1200; c++) {
+                assertEquals(r == 0 && c == 0 ? -3 : -2, parallel.getCell(r, c));
+            }
+        }
+    }
+
+    @Test
+    public void testZeroRegionIndexMatchesSearch() {
+        for (long seed = 0; seed < 20; seed++) {
+            Minesweeper indexed = new Minesweeper(30, 40, 150, seed);
+            Minesweeper searched = new Minesweeper(30, 40, 150, seed);
+            searched.setZeroRegionIndex(false);
+            SplittableRandom random = new SplittableRandom(seed);
+            for (int move = 0; move < 300; move++) {
+                int r = random.nextInt(30);
+                int c = random.nextInt(40);
+                int choice = random.nextInt(10);
+                if (choice == 0) {
+                    indexed.undo();
+                    searched.undo();
+                } else if (choice < 3) {
+                    indexed.playFlag(r, c); // flags on 0 tiles split regions
+                    searched.playFlag(r, c);
+                } else if (choice < 4) {
+                    assertEquals(searched.playChord(r, c), indexed.playChord(r, c));
+                } else {
+                    assertEquals(searched.playTurn(r, c, true), indexed.playTurn(r, c, true));
+                }
+                assertEquals(searched.getChangedCellCount(), indexed.getChangedCellCount());
+                assertEquals(searched.getSafeCellsRemaining(), indexed.getSafeCellsRemaining());
+                for (int i = 0; i < 30; i++) {
+                    for (int j = 0; j < 40; j++) {
+                        assertEquals(searched.getCell(i, j), indexed.getCell(i, j));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testZeroRegionUndoneAsOneMove() {
+        Minesweeper game = new Minesweeper(200, 200, 400, 6L);
+        int opened = game.playTurn(100, 100, true);
+        assertTrue(opened > 1000, "opened " + opened);
+        assertEquals(1, game.getStackSize());
+
+        // a second region, found through the same index
+        int[][] board = game.getBoard();
+        int second = -1;
+        for (int r = 0; r < 200 && second < 0; r++) {
+            for (int c = 0; c < 200; c++) {
+                if (game.getCell(r, c) == -2 && board[r][c] == 0) {
+                    second = r * 200 + c;
+                    break;
+                }
+            }
+        }
+        if (second >= 0) {
+            assertTrue(game.playTurn(second / 200, second % 200, true) > 0);
+            assertEquals(2, game.getStackSize());
+            game.undo();
+        }
+        game.undo();
+        for (int r = 0; r < 200; r++) {
+            for (int c = 0; c < 200; c++) {
+                assertEquals(-2, game.getCell(r, c));
+            }
+        }
+        game.redo();
+        assertEquals(opened, 200 * 200 - 400 - game.getSafeCellsRemaining());
+    }
+
+    @Test
+    public void testFrontierMatchesTileByTile() {
+        Minesweeper game = new Minesweeper(50, 130, 700, 9L);
+        SplittableRandom random = new SplittableRandom(2);
+        for (int move = 0; move < 40 && game.getActive(); move++) {
+            int r = random.nextInt(50);
+            int c = random.nextInt(130);
+            if (move % 4 == 3) {
+                game.playFlag(r, c);
+            } else if (game.getBoard()[r][c] != -1) {
+                game.playTurn(r, c, true);
+            }
+
+            int expected = 0;
+            for (int i = 0; i < 50; i++) {
+                for (int j = 0; j < 130; j++) {
+                    if (game.getCell(i, j) != -2) {
+                        continue;
+                    }
+                    boolean near = false;
+                    for (int di = -1; di <= 1; di++) {
+                        for (int dj = -1; dj <= 1; dj++) {
+                            int ni = i + di;
+                            int nj = j + dj;
+                            near |= ni >= 0 && ni < 50 && nj >= 0 && nj < 130
+                                    && game.getCell(ni, nj) >= 0;
+                        }
+                    }
+                    if (near) {
+                        expected++;
+                    }
+                }
+            }
+            assertEquals(expected, game.getFrontierSize());
+        }
+    }
+
+    @Test
+    public void testLargeLayoutIsReproducible() {
+        // over MinePlacer.MAX_RETAINED mines, so its buffers are dropped after each layout
+        int mines = MinePlacer.MAX_RETAINED + 1000;
+        Minesweeper game = new Minesweeper(1100, 1000, mines, 8L);
+        game.generateMines(0, 0);
+        int[][] first = game.getBoard();
+        game.reuse(1100, 1000, mines, 8L);
+        game.generateMines(0, 0);
+        assertArrayEquals(first, game.getBoard());
+        assertEquals(mines, game.bitBoard().mineCount());
+    }
 }
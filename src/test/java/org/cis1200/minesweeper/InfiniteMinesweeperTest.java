@@ -0,0 +1,177 @@
+package org.cis1200.minesweeper;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+public class InfiniteMinesweeperTest {
+
+    private static final int START = InfiniteMinesweeper.START;
+
+    private static int countMines(InfiniteMinesweeper game, int r, int c) {
+        int count = 0;
+        for (int dr = -1; dr <= 1; dr++) {
+            for (int dc = -1; dc <= 1; dc++) {
+                if ((dr != 0 || dc != 0) && game.isMine(r + dr, c + dc)) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    @Test
+    public void testMinesDependOnlyOnSeedAndChunk() throws IOException {
+        try (InfiniteMinesweeper near = new InfiniteMinesweeper(42L);
+                InfiniteMinesweeper far = new InfiniteMinesweeper(42L)) {
+            far.isMine(1_000_000, -1_000_000); // explore elsewhere first
+            far.isMine(-5000, 70);
+            int mines = 0;
+            for (int r = -100; r < 100; r++) {
+                for (int c = -100; c < 100; c++) {
+                    assertEquals(near.isMine(r, c), far.isMine(r, c), r + ", " + c);
+                    if (near.isMine(r, c)) {
+                        mines++;
+                    }
+                }
+            }
+            assertEquals(0.16, mines / 40000.0, 0.02);
+            for (int r = START - 1; r <= START + 1; r++) {
+                for (int c = START - 1; c <= START + 1; c++) {
+                    assertFalse(near.isMine(r, c));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testCascadeCrossesChunks() throws IOException {
+        try (InfiniteMinesweeper game = new InfiniteMinesweeper(3L, 0.1, 64, null)) {
+            int opened = game.reveal(START, START);
+            assertTrue(opened > 0);
+            assertEquals(opened, game.getTilesUncovered());
+
+            int seen = 0;
+            boolean outside = false;
+            int span = 4 * InfiniteMinesweeper.CHUNK_SIZE;
+            for (int r = -span; r < span; r++) {
+                for (int c = -span; c < span; c++) {
+                    int cell = game.getCell(r, c);
+                    if (cell < 0) {
+                        continue;
+                    }
+                    seen++;
+                    assertFalse(game.isMine(r, c));
+                    assertEquals(countMines(game, r, c), cell, r + ", " + c);
+                    outside |= r < 0 || c < 0 || r >= InfiniteMinesweeper.CHUNK_SIZE
+                            || c >= InfiniteMinesweeper.CHUNK_SIZE;
+                    if (cell == 0) {
+                        for (int dr = -1; dr <= 1; dr++) {
+                            for (int dc = -1; dc <= 1; dc++) {
+                                assertTrue(game.getCell(r + dr, c + dc) >= 0);
+                            }
+                        }
+                    }
+                }
+            }
+            assertTrue(outside, "the cascade stayed inside the first chunk");
+            assertEquals(opened, seen);
+        }
+    }
+
+    @Test
+    public void testCascadeIsCapped() throws IOException {
+        try (InfiniteMinesweeper game = new InfiniteMinesweeper(3L, 0.0, 16, null)) {
+            game.setMaxCascade(1000);
+            assertEquals(1000, game.reveal(START, START));
+            assertTrue(game.getCachedChunkCount() <= 16);
+            assertEquals(1000, game.reveal(START + 100, START)); // continues further out
+        }
+    }
+
+    @Test
+    public void testEvictedChunksKeepTheirState(@TempDir Path dir) throws IOException {
+        try (InfiniteMinesweeper game = new InfiniteMinesweeper(11L, 0.1, 4, dir)) {
+            int opened = game.reveal(START, START);
+            game.toggleFlag(START + 20, START + 20); // unless the cascade uncovered it
+            int[] before = new int[128 * 128];
+            for (int r = 0; r < 128; r++) {
+                for (int c = 0; c < 128; c++) {
+                    before[r * 128 + c] = game.getCell(r - 32, c - 32);
+                }
+            }
+
+            // wander far away so every chunk near the start is evicted
+            for (int k = 1; k <= 20; k++) {
+                game.getCell(k * 10_000, -k * 10_000);
+            }
+            assertTrue(game.getCachedChunkCount() <= 4);
+            assertTrue(game.getSpilledChunkCount() > 0);
+            try (Stream<Path> files = Files.list(dir)) {
+                assertEquals(game.getSpilledChunkCount(), files.count());
+            }
+
+            for (int r = 0; r < 128; r++) {
+                for (int c = 0; c < 128; c++) {
+                    assertEquals(before[r * 128 + c], game.getCell(r - 32, c - 32));
+                }
+            }
+            assertEquals(opened, game.getTilesUncovered());
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    public void testChunkInUseIsNotEvicted() throws IOException {
+        try (InfiniteMinesweeper game = new InfiniteMinesweeper(11L, 0.1, 2, null)) {
+            assertTrue(game.toggleFlag(START + 5, START + 5)); // played on, so spilled if evicted
+            game.getCell(100, 0); // another chunk, untouched
+            for (int k = 0; k < 10; k++) {
+                game.getCell(START, START + k); // keep working in the first chunk
+            }
+            game.getCell(200, 0); // a third chunk evicts the least recently used
+            assertEquals(2, game.getCachedChunkCount());
+            assertEquals(0, game.getSpilledChunkCount());
+            assertEquals(-3, game.getCell(START + 5, START + 5));
+        }
+    }
+
+    @Test
+    public void testManySpilledChunks() throws IOException {
+        int size = InfiniteMinesweeper.CHUNK_SIZE;
+        try (InfiniteMinesweeper game = new InfiniteMinesweeper(8L, 0.1, 2, null)) {
+            for (int k = 0; k < 300; k++) {
+                assertTrue(game.toggleFlag(k * size, -k * size));
+            }
+            assertEquals(298, game.getSpilledChunkCount());
+            for (int k = 0; k < 300; k++) {
+                assertEquals(-3, game.getCell(k * size, -k * size), "chunk " + k);
+            }
+            assertEquals(300, game.getFlagCount());
+            assertEquals(300, game.getSpilledChunkCount());
+        }
+    }
+
+    @Test
+    public void testMineEndsGame() throws IOException {
+        try (InfiniteMinesweeper game = new InfiniteMinesweeper(5L)) {
+            int r = 1000;
+            int c = 0;
+            while (!game.isMine(r, c)) {
+                c++;
+            }
+            assertEquals(0, game.reveal(r, c));
+            assertEquals(-1, game.getCell(r, c));
+            assertFalse(game.isActive());
+            assertEquals(0, game.reveal(START, START));
+            assertFalse(game.toggleFlag(START, START));
+        }
+    }
+}
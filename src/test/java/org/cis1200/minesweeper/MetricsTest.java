@@ -0,0 +1,139 @@
+package org.cis1200.minesweeper;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+public class MetricsTest {
+
+    @Test
+    public void testConcurrentHistogramCountsEveryValue() throws InterruptedException {
+        ConcurrentHistogram histogram = new ConcurrentHistogram();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                for (int v = 1; v <= 1000; v++) {
+                    histogram.record(v);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        LatencyHistogram snapshot = histogram.snapshot();
+        assertEquals(4000, snapshot.getCount());
+        assertEquals(1000, snapshot.getMax());
+        assertEquals(500.5, snapshot.getMean(), 1e-9);
+        long p50 = snapshot.valueAtPercentile(50);
+        assertTrue(p50 >= 500 && p50 <= 516, "p50 was " + p50);
+
+        histogram.clear();
+        assertEquals(0, histogram.snapshot().getCount());
+    }
+
+    @Test
+    public void testRecordedValuesAreReported() {
+        Metrics metrics = new Metrics();
+        metrics.recordTurn(1000, 1);
+        metrics.recordTurn(3000, 40);
+        metrics.recordFlag();
+        metrics.recordChord(5);
+        metrics.recordUndo(7);
+        metrics.recordRedo();
+        metrics.recordCheckWinner();
+        metrics.recordGenerateMines(20000);
+        metrics.recordRepaint(400);
+
+        assertEquals(2, metrics.getTurns());
+        assertEquals(46, metrics.getTilesOpened());
+        assertEquals(1, metrics.getFlags());
+        assertEquals(1, metrics.getChords());
+        assertEquals(1, metrics.getUndos());
+        assertEquals(1, metrics.getRedos());
+        assertEquals(1, metrics.getCheckWinnerCalls());
+        assertEquals(1, metrics.getMineLayouts());
+        assertEquals(40, metrics.getCascadeSizeMax());
+        assertEquals(3000, metrics.getTurnNanosMax());
+        assertEquals(7, metrics.getUndoDepthMax());
+        assertEquals(1, metrics.getRepaints());
+        assertTrue(metrics.getReport().contains("turns: 2, tiles opened: 46"));
+
+        metrics.reset();
+        assertEquals(0, metrics.getTurns());
+        assertEquals(0, metrics.getTurnNanosMax());
+    }
+
+    @Test
+    public void testDisabledMetricsRecordNothing() {
+        Assumptions.assumeFalse(Metrics.ENABLED);
+        long turns = Metrics.global().getTurns();
+        Minesweeper game = new Minesweeper(9, 9, 10, 1L);
+        game.playTurn(4, 4, true);
+        game.playFlag(0, 0);
+        game.undo();
+        assertEquals(turns, Metrics.global().getTurns());
+        assertEquals(0, Metrics.global().getCheckWinnerCalls());
+    }
+
+    @Test
+    public void testStartDoesNothingWhenDisabled() throws IOException {
+        Assumptions.assumeFalse(Metrics.ENABLED);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (Closeable dump = Metrics.start(new PrintStream(bytes, true, StandardCharsets.UTF_8))) {
+            assertNotNull(dump);
+        }
+        assertEquals(0, bytes.size());
+    }
+
+    @Test
+    public void testProbeGamesAreNotRecorded() {
+        Assumptions.assumeTrue(Metrics.ENABLED);
+        long turns = Metrics.global().getTurns();
+        long layouts = Metrics.global().getMineLayouts();
+        NoGuessGenerator.isSolvable(16, 30, 99, 8, 15, 3L, java.util.SplittableRandom::new);
+        assertEquals(turns, Metrics.global().getTurns());
+        assertEquals(layouts, Metrics.global().getMineLayouts());
+
+        Minesweeper game = new Minesweeper(9, 9, 10, 1L);
+        game.playTurn(4, 4, true);
+        assertEquals(turns + 1, Metrics.global().getTurns());
+    }
+
+    @Test
+    public void testRegisteredWithJmx() throws Exception {
+        Metrics.register();
+        Metrics.register(); // a second registration is ignored
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(Metrics.OBJECT_NAME);
+        assertTrue(server.isRegistered(name));
+        assertEquals(Metrics.ENABLED, server.getAttribute(name, "Enabled"));
+        assertEquals(Metrics.global().getTurns(), server.getAttribute(name, "Turns"));
+        assertTrue(((String) server.getAttribute(name, "Report")).startsWith("turns:"));
+    }
+
+    @Test
+    public void testDumpPrintsReports() throws IOException, InterruptedException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(bytes, true, StandardCharsets.UTF_8);
+        try (Closeable dump = Metrics.startDump(out, 10, TimeUnit.MILLISECONDS)) {
+            long deadline = System.currentTimeMillis() + 5000;
+            while (bytes.size() == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+        }
+        assertTrue(bytes.toString(StandardCharsets.UTF_8).contains("turn (ns)"));
+    }
+}
@@ -0,0 +1,148 @@
+package org.cis1200.minesweeper;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+public class MoveLogTest {
+
+    @TempDir
+    Path dir;
+
+    private static void assertSameGame(Minesweeper expected, Minesweeper actual) {
+        assertArrayEquals(expected.getBoard(), actual.getBoard());
+        for (int r = 0; r < expected.getRows(); r++) {
+            for (int c = 0; c < expected.getCols(); c++) {
+                assertEquals(expected.getCell(r, c), actual.getCell(r, c));
+            }
+        }
+        assertEquals(expected.getActive(), actual.getActive());
+        assertEquals(expected.getFlagCount(), actual.getFlagCount());
+        assertEquals(expected.getSafeCellsRemaining(), actual.getSafeCellsRemaining());
+        assertEquals(expected.getStackSize(), actual.getStackSize());
+        assertEquals(expected.getRedoSize(), actual.getRedoSize());
+    }
+
+    /**
+     * plays random moves on game, keeping a copy of it after every move the
+     * writer records. Moves that change nothing, such as an undo with no
+     * history, are not recorded.
+     */
+    private static List<Minesweeper> play(Minesweeper game, MoveLogWriter writer, int moves,
+            long seed) {
+        List<Minesweeper> states = new ArrayList<>();
+        states.add(new Minesweeper(game));
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int i = 0; i < moves; i++) {
+            long events = writer.getEventCount();
+            int r = random.nextInt(game.getRows());
+            int c = random.nextInt(game.getCols());
+            int choice = random.nextInt(20);
+            if (choice == 0) {
+                game.reset();
+            } else if (choice < 3) {
+                game.undo();
+            } else if (choice < 4) {
+                game.redo();
+            } else if (choice < 5) {
+                game.playChord(r, c);
+            } else if (choice < 8) {
+                game.playFlag(r, c);
+            } else {
+                game.playTurn(r, c, true);
+            }
+            if (writer.getEventCount() != events) {
+                states.add(new Minesweeper(game));
+            }
+        }
+        return states;
+    }
+
+    @Test
+    public void testCopyConstructorIsIndependent() {
+        Minesweeper game = new Minesweeper(9, 9, 10, 5L);
+        game.playTurn(4, 4, true);
+        Minesweeper copy = new Minesweeper(game);
+        assertSameGame(game, copy);
+
+        copy.undo();
+        assertEquals(1, game.getStackSize());
+        assertEquals(0, copy.getStackSize());
+        copy.redo();
+        assertSameGame(game, copy);
+    }
+
+    @Test
+    public void testReplayReproducesGame() throws IOException {
+        Path file = dir.resolve("moves.log");
+        Minesweeper game = new Minesweeper(16, 16, 40, 4L);
+        List<Minesweeper> states;
+        try (MoveLogWriter writer = new MoveLogWriter(file, game)) {
+            states = play(game, writer, 500, 11L);
+        }
+        MoveLogReplay replay = new MoveLogReplay(file, 64);
+        assertEquals(states.size() - 1, replay.getMoveCount());
+        assertEquals(16, replay.getRows());
+        assertEquals(40, replay.getNumMines());
+        assertSameGame(game, replay.replay());
+
+        // jumps in both directions, which reuse the checkpoints
+        int middle = replay.getMoveCount() / 2; // resets pick random seeds, so the count varies
+        for (int k : new int[] { 0, 1, 63, 64, 65, middle, 17, replay.getMoveCount() }) {
+            assertSameGame(states.get(k), replay.gameAt(k));
+        }
+    }
+
+    @Test
+    public void testNoGuessSeedIsRecorded() throws IOException {
+        Path file = dir.resolve("noguess.log");
+        Minesweeper game = new Minesweeper(16, 30, 99);
+        game.setNoGuess(true);
+        try (MoveLogWriter writer = new MoveLogWriter(file, game)) {
+            game.playTurn(8, 15, true);
+            game.playFlag(0, 0);
+            assertEquals(3, writer.getEventCount()); // seed, reveal, flag
+        }
+        MoveLogReplay replay = new MoveLogReplay(file);
+        assertEquals(2, replay.getMoveCount());
+        assertEquals(Move.Type.REVEAL, replay.getMove(0).getType());
+        assertEquals(15, replay.getMove(0).getCol());
+        assertSameGame(game, replay.replay());
+    }
+
+    @Test
+    public void testEventsAreCompact() throws IOException {
+        Path file = dir.resolve("small.log");
+        Minesweeper game = new Minesweeper(9, 9, 10, 3L);
+        try (MoveLogWriter writer = new MoveLogWriter(file, game)) {
+            game.playTurn(0, 0, true);
+            game.playFlag(8, 8);
+            game.undo();
+        }
+        // header, seed event and its seed, reveal of tile 0, flag of tile 80, undo
+        assertEquals(MoveLogWriter.HEADER_BYTES + 1 + Long.BYTES + 1 + 2 + 1, Files.size(file));
+    }
+
+    @Test
+    public void testRejectsCorruptLogs() throws IOException {
+        Path file = dir.resolve("bad.log");
+        Files.write(file, new byte[] { 'M', 'S' });
+        assertThrows(IOException.class, () -> new MoveLogReplay(file));
+
+        Minesweeper game = new Minesweeper();
+        try (MoveLogWriter writer = new MoveLogWriter(file, game)) {
+            game.playTurn(5, 5, true);
+        }
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length - 1] = (byte) 0x80; // a varint that never ends
+        Files.write(file, bytes);
+        assertThrows(IOException.class, () -> new MoveLogReplay(file));
+    }
+}
@@ -0,0 +1,221 @@
+package org.cis1200.minesweeper;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+public class ProbabilityEngineTest {
+
+    /**
+     * counts, for every covered tile, the mine layouts consistent with the
+     * visible board that put a mine on it, by trying every layout
+     */
+    private static double[][] bruteForce(Minesweeper game) {
+        int rows = game.getRows();
+        int cols = game.getCols();
+        List<int[]> covered = new ArrayList<>();
+        int mines = game.getNumMines();
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                int v = game.getCell(r, c);
+                if (v == -2 || v == -3) {
+                    covered.add(new int[] { r, c });
+                } else if (v == -1) {
+                    mines--;
+                }
+            }
+        }
+        boolean[][] mine = new boolean[rows][cols];
+        double[][] hits = new double[rows][cols];
+        double[] total = new double[1];
+        choose(game, covered, 0, mines, mine, hits, total);
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                hits[r][c] /= total[0];
+            }
+        }
+        return hits;
+    }
+
+    private static void choose(Minesweeper game, List<int[]> covered, int from, int left,
+            boolean[][] mine, double[][] hits, double[] total) {
+        if (left == 0) {
+            if (consistent(game, mine)) {
+                total[0]++;
+                for (int[] t : covered) {
+                    if (mine[t[0]][t[1]]) {
+                        hits[t[0]][t[1]]++;
+                    }
+                }
+            }
+            return;
+        }
+        for (int k = from; k <= covered.size() - left; k++) {
+            int[] t = covered.get(k);
+            mine[t[0]][t[1]] = true;
+            choose(game, covered, k + 1, left - 1, mine, hits, total);
+            mine[t[0]][t[1]] = false;
+        }
+    }
+
+    private static boolean consistent(Minesweeper game, boolean[][] mine) {
+        for (int r = 0; r < game.getRows(); r++) {
+            for (int c = 0; c < game.getCols(); c++) {
+                int v = game.getCell(r, c);
+                if (v < 0) {
+                    continue;
+                }
+                int count = 0;
+                for (int dr = -1; dr <= 1; dr++) {
+                    for (int dc = -1; dc <= 1; dc++) {
+                        int nr = r + dr;
+                        int nc = c + dc;
+                        if (nr >= 0 && nr < game.getRows() && nc >= 0 && nc < game.getCols()
+                                && (mine[nr][nc] || game.getCell(nr, nc) == -1)) {
+                            count++;
+                        }
+                    }
+                }
+                if (count != v) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    @Test
+    public void testFiftyFifty() {
+        /*
+         -1  .     row 0 covered
+          1  1
+          0  0
+         */
+        int[][] layout = new int[3][2];
+        layout[0][0] = -1;
+        Minesweeper minesweeper = new Minesweeper();
+        minesweeper.setBoard(layout);
+        minesweeper.setFirstTurn(false);
+        minesweeper.playTurn(2, 0, true);
+
+        ProbabilityEngine.Result result = new ProbabilityEngine().compute(minesweeper);
+        assertTrue(result.isExact());
+        assertEquals(1, result.getComponentCount());
+        assertEquals(0.5, result.getProbability(0, 0), 1e-12);
+        assertEquals(0.5, result.getProbability(0, 1), 1e-12);
+        assertEquals(0, result.getProbability(1, 0));
+    }
+
+    @Test
+    public void testMatchesBruteForce() {
+        SplittableRandom random = new SplittableRandom(25);
+        int checked = 0;
+        for (int g = 0; g < 60; g++) {
+            Minesweeper minesweeper = new Minesweeper(5, 6, 7, g);
+            minesweeper.playTurn(random.nextInt(5), random.nextInt(6), true);
+            int[][] board = minesweeper.getBoard();
+            for (int extra = random.nextInt(3); extra > 0; extra--) {
+                int r = random.nextInt(5);
+                int c = random.nextInt(6);
+                if (board[r][c] != -1 && minesweeper.getCell(r, c) == -2) {
+                    minesweeper.playTurn(r, c, true);
+                }
+            }
+            if (!minesweeper.getActive()) {
+                continue;
+            }
+            checked++;
+            ProbabilityEngine.Result result = new ProbabilityEngine().compute(minesweeper);
+            assertTrue(result.isExact());
+            double[][] expected = bruteForce(minesweeper);
+            for (int r = 0; r < 5; r++) {
+                for (int c = 0; c < 6; c++) {
+                    assertEquals(expected[r][c], result.getProbability(r, c), 1e-9,
+                            "game " + g + " at " + r + ", " + c);
+                }
+            }
+        }
+        assertTrue(checked > 20);
+    }
+
+    @Test
+    public void testComponentsAreCachedAcrossMoves() {
+        Minesweeper minesweeper = new Minesweeper(30, 30, 150, 6L);
+        minesweeper.playTurn(15, 15, true);
+        ProbabilityEngine engine = new ProbabilityEngine();
+        ProbabilityEngine.Result first = engine.compute(minesweeper);
+        assertEquals(2, first.getComponentCount());
+        assertEquals(0, engine.getCacheHits());
+        int cached = engine.getCacheSize();
+        assertTrue(cached > 0);
+
+        // flags are not trusted, so flagging a tile leaves every component as it was
+        assertEquals(-2, minesweeper.getCell(0, 0));
+        minesweeper.playFlag(0, 0);
+        ProbabilityEngine.Result again = engine.compute(minesweeper);
+        assertEquals(first.getComponentCount(), engine.getCacheHits());
+        assertEquals(cached, engine.getCacheSize());
+        for (int r = 0; r < 30; r++) {
+            for (int c = 0; c < 30; c++) {
+                assertEquals(first.getProbability(r, c), again.getProbability(r, c));
+            }
+        }
+    }
+
+    @Test
+    public void testLargeComponentsAreSampled() {
+        // a column of 1s beside a covered column is one long component
+        int rows = 300;
+        int[][] layout = new int[rows][3];
+        for (int r = 0; r < rows; r += 3) {
+            layout[r][0] = -1;
+        }
+        Minesweeper minesweeper = new Minesweeper();
+        minesweeper.setBoard(layout);
+        minesweeper.setFirstTurn(false);
+        minesweeper.playTurn(0, 2, true);
+        assertTrue(minesweeper.getFrontierSize() > ProbabilityEngine.EXACT_LIMIT);
+
+        ProbabilityEngine.Result result = new ProbabilityEngine().compute(minesweeper);
+        assertFalse(result.isExact());
+        double sum = 0;
+        for (int r = 0; r < rows; r++) {
+            double p = result.getProbability(r, 0);
+            assertTrue(p >= 0 && p <= 1);
+            sum += p;
+        }
+        assertEquals(minesweeper.getNumMines(), sum, 1e-6);
+        assertEquals(0, result.getProbability(0, 1));
+    }
+
+    @Test
+    public void testSolverGuessesSafestTile() {
+        Minesweeper minesweeper = new Minesweeper(16, 30, 99, 4L);
+        minesweeper.playTurn(8, 15, true);
+        Solver solver = new Solver(minesweeper);
+        Move move = solver.nextSafeMove();
+        while (move != null) {
+            move.applyTo(minesweeper);
+            solver.observe(move.getRow(), move.getCol());
+            move = solver.nextSafeMove();
+        }
+        Assumptions.assumeTrue(minesweeper.getActive());
+
+        ProbabilityEngine engine = new ProbabilityEngine();
+        solver.setProbabilityEngine(engine);
+        Move guess = solver.guess(new SplittableRandom(1));
+        ProbabilityEngine.Result result = engine.compute(minesweeper);
+        double best = 1;
+        for (int r = 0; r < 16; r++) {
+            for (int c = 0; c < 30; c++) {
+                if (minesweeper.getCell(r, c) == -2) {
+                    best = Math.min(best, result.getProbability(r, c));
+                }
+            }
+        }
+        assertEquals(best, result.getProbability(guess.getRow(), guess.getCol()));
+    }
+}
@@ -0,0 +1,165 @@
+package org.cis1200.minesweeper;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+
+public class SharedMinesweeperTest {
+
+    private static final int PLAYERS = 4;
+
+    /**
+     * lets every player make random reveals and flag toggles at once
+     */
+    private static void playTogether(SharedMinesweeper game, int movesEach)
+            throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < PLAYERS; p++) {
+            int player = p;
+            Thread thread = new Thread(() -> {
+                SplittableRandom random = new SplittableRandom(player);
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < movesEach; i++) {
+                    int r = random.nextInt(game.getRows());
+                    int c = random.nextInt(game.getCols());
+                    if (random.nextInt(4) == 0) {
+                        game.toggleFlag(player, r % 8, c % 8); // crowd a few tiles
+                    } else if (!game.isMine(r, c)) {
+                        game.reveal(player, r, c);
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    private static void assertSameBoard(SharedMinesweeper expected, SharedMinesweeper actual) {
+        for (int r = 0; r < expected.getRows(); r++) {
+            for (int c = 0; c < expected.getCols(); c++) {
+                assertEquals(expected.getCell(r, c), actual.getCell(r, c), r + ", " + c);
+            }
+        }
+        assertEquals(expected.getFlagCount(), actual.getFlagCount());
+        assertEquals(expected.getSafeCellsRemaining(), actual.getSafeCellsRemaining());
+        for (int p = 0; p < expected.getPlayers(); p++) {
+            assertEquals(expected.getScore(p), actual.getScore(p));
+        }
+    }
+
+    @Test
+    public void testEachTileIsClaimedOnce() throws InterruptedException {
+        SharedMinesweeper game = new SharedMinesweeper(200, 200, 4000, PLAYERS, 9L);
+        playTogether(game, 2000);
+
+        int uncovered = 0;
+        int flags = 0;
+        for (int r = 0; r < 200; r++) {
+            for (int c = 0; c < 200; c++) {
+                int cell = game.getCell(r, c);
+                if (cell >= 0) {
+                    uncovered++;
+                } else if (cell == -3) {
+                    flags++;
+                }
+            }
+        }
+        long scored = 0;
+        for (int p = 0; p < PLAYERS; p++) {
+            scored += game.getScore(p);
+            assertEquals(0, game.getMinesHit(p));
+        }
+        assertEquals(uncovered, scored);
+        assertEquals(200 * 200 - 4000 - uncovered, game.getSafeCellsRemaining());
+        assertEquals(flags, game.getFlagCount());
+
+        boolean[] seen = new boolean[200 * 200];
+        for (SharedMinesweeper.Event e : game.getEvents()) {
+            if (e.getMove().getType() == Move.Type.REVEAL) {
+                for (int k = 0; k < e.getChangedCellCount(); k++) {
+                    assertFalse(seen[e.getChangedTile(k)], "tile claimed twice");
+                    seen[e.getChangedTile(k)] = true;
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testEventsReplayInSequenceOrder() throws InterruptedException {
+        SharedMinesweeper game = new SharedMinesweeper(64, 64, 400, PLAYERS, 3L);
+        playTogether(game, 3000);
+        List<SharedMinesweeper.Event> log = game.getEvents();
+        for (int k = 1; k < log.size(); k++) {
+            assertTrue(log.get(k - 1).getSequence() < log.get(k).getSequence());
+        }
+
+        SharedMinesweeper copy = new SharedMinesweeper(64, 64, 400, PLAYERS, 3L);
+        copy.replay(log);
+        assertSameBoard(game, copy);
+    }
+
+    @Test
+    public void testUndoToRevertsLaterEvents() throws InterruptedException {
+        SharedMinesweeper game = new SharedMinesweeper(64, 64, 400, PLAYERS, 5L);
+        playTogether(game, 1000);
+        List<SharedMinesweeper.Event> log = game.getEvents();
+        long middle = log.get(log.size() / 2).getSequence();
+
+        SharedMinesweeper prefix = new SharedMinesweeper(64, 64, 400, PLAYERS, 5L);
+        prefix.replay(log.subList(0, log.size() / 2 + 1));
+        game.undoTo(middle);
+        assertSameBoard(prefix, game);
+
+        game.undoTo(0);
+        assertTrue(game.getEvents().isEmpty());
+        assertSameBoard(new SharedMinesweeper(64, 64, 400, PLAYERS, 5L), game);
+
+        // play continues after an undo, with fresh sequence numbers
+        assertTrue(game.toggleFlag(0, 0, 0));
+        assertTrue(game.getEvents().get(0).getSequence() > middle);
+    }
+
+    @Test
+    public void testMineCountsAgainstPlayer() {
+        SharedMinesweeper game = new SharedMinesweeper(9, 9, 10, 2, 1L);
+        int mineR = -1;
+        int mineC = -1;
+        for (int r = 0; r < 9 && mineR < 0; r++) {
+            for (int c = 0; c < 9; c++) {
+                if (game.isMine(r, c)) {
+                    mineR = r;
+                    mineC = c;
+                    break;
+                }
+            }
+        }
+        assertEquals(0, game.reveal(1, mineR, mineC));
+        assertEquals(1, game.getMinesHit(1));
+        assertEquals(-1, game.getCell(mineR, mineC));
+        assertEquals(0, game.reveal(0, mineR, mineC)); // already uncovered
+        assertFalse(game.isFinished());
+
+        for (int r = 0; r < 9; r++) {
+            for (int c = 0; c < 9; c++) {
+                if (!game.isMine(r, c)) {
+                    game.reveal(0, r, c);
+                }
+            }
+        }
+        assertTrue(game.isFinished());
+        assertEquals(71, game.getScore(0));
+    }
+}
@@ -0,0 +1,48 @@
+package org.cis1200.minesweeper;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SimulationRunnerTest {
+
+    @Test
+    public void testRunPlaysEveryGame() {
+        SimulationRunner runner = new SimulationRunner(9, 9, 10, RandomMoveStrategy::new);
+        runner.setParallelism(4);
+        SimulationReport report = runner.run(500);
+
+        assertEquals(500, report.getGames());
+        assertTrue(report.getWins() <= report.getGames());
+        assertTrue(report.getMoves() >= report.getGames());
+        assertEquals(report.getMoves(), report.getMoveLatency().getCount());
+        assertTrue(report.getGamesPerSecond() > 0);
+    }
+
+    @Test
+    public void testRunIsReproducible() {
+        SimulationRunner first = new SimulationRunner(9, 9, 10, RandomMoveStrategy::new);
+        first.setParallelism(3);
+        SimulationRunner second = new SimulationRunner(9, 9, 10, RandomMoveStrategy::new);
+        second.setParallelism(1);
+
+        SimulationReport a = first.run(300);
+        SimulationReport b = second.run(300);
+        assertEquals(a.getWins(), b.getWins());
+        assertEquals(a.getMoves(), b.getMoves());
+    }
+
+    @Test
+    public void testHistogramPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int v = 1; v <= 1000; v++) {
+            histogram.record(v);
+        }
+        assertEquals(1000, histogram.getCount());
+        assertEquals(1000, histogram.getMax());
+        assertEquals(500.5, histogram.getMean(), 1e-9);
+        long p50 = histogram.valueAtPercentile(50);
+        assertTrue(p50 >= 500 && p50 <= 516, "p50 was " + p50);
+        assertEquals(1000, histogram.valueAtPercentile(100));
+        assertEquals(1, histogram.valueAtPercentile(0));
+    }
+}
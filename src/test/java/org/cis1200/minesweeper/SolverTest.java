@@ -0,0 +1,167 @@
+package org.cis1200.minesweeper;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.SplittableRandom;
+
+public class SolverTest {
+
+    @Test
+    public void testSinglePointRule() {
+        /*
+        -1  1  0
+         1  1  0
+         0  0  0
+         */
+        int[][] layout = new int[3][3];
+        layout[0][0] = -1;
+        Minesweeper minesweeper = new Minesweeper();
+        minesweeper.setBoard(layout);
+        minesweeper.setFirstTurn(false);
+        minesweeper.playTurn(2, 2, true);
+
+        Solver solver = new Solver(minesweeper);
+        assertTrue(solver.isMine(0, 0));
+        assertEquals(1, solver.getDeducedMines());
+        assertNull(solver.nextSafeMove());
+        assertEquals(Move.Type.FLAG, solver.nextMineFlag().getType());
+    }
+
+    @Test
+    public void testSubsetRule() {
+        /*
+         row 0 covered, row 1 shows 1 2 2 1 → mines at (0, 1) and (0, 2)
+         */
+        int[][] layout = new int[3][4];
+        layout[0][1] = -1;
+        layout[0][2] = -1;
+        Minesweeper minesweeper = new Minesweeper();
+        minesweeper.setBoard(layout);
+        minesweeper.setFirstTurn(false);
+        minesweeper.playTurn(2, 0, true);
+
+        Solver solver = new Solver(minesweeper);
+        assertTrue(solver.isSafe(0, 0));
+        assertTrue(solver.isSafe(0, 3));
+        assertTrue(solver.isMine(0, 1));
+        assertTrue(solver.isMine(0, 2));
+    }
+
+    @Test
+    public void testDeductionsAreSound() {
+        SplittableRandom random = new SplittableRandom(5);
+        for (int g = 0; g < 200; g++) {
+            Minesweeper minesweeper = new Minesweeper(16, 16, 40, g);
+            Solver solver = new Solver(minesweeper);
+            while (minesweeper.getActive()) {
+                Move move = solver.nextSafeMove();
+                boolean certain = move != null;
+                if (!certain) {
+                    move = solver.guess(random);
+                }
+                if (certain) {
+                    int[][] board = minesweeper.getBoard();
+                    assertNotEquals(-1, board[move.getRow()][move.getCol()]);
+                }
+                move.applyTo(minesweeper);
+                solver.observe(move.getRow(), move.getCol());
+            }
+            int[][] board = minesweeper.getBoard();
+            for (int r = 0; r < 16; r++) {
+                for (int c = 0; c < 16; c++) {
+                    if (solver.isMine(r, c)) {
+                        assertEquals(-1, board[r][c]);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testObserveMatchesResync() {
+        Minesweeper minesweeper = new Minesweeper(30, 30, 120, 3L);
+        Solver incremental = new Solver(minesweeper);
+        SplittableRandom random = new SplittableRandom(3);
+        Move move = null;
+        for (int moves = 0; moves < 20 && minesweeper.getActive(); moves++) {
+            move = incremental.guess(random);
+            move.applyTo(minesweeper);
+            incremental.observe(move.getRow(), move.getCol());
+        }
+        minesweeper.undo();
+        incremental.observe(move.getRow(), move.getCol());
+        Solver fresh = new Solver(minesweeper);
+        for (int r = 0; r < 30; r++) {
+            for (int c = 0; c < 30; c++) {
+                if (fresh.isMine(r, c)) {
+                    assertTrue(incremental.isMine(r, c));
+                }
+                if (fresh.isSafe(r, c) && minesweeper.getCell(r, c) == -2) {
+                    assertTrue(incremental.isSafe(r, c));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testSolverBeatsRandom() {
+        SimulationRunner solved = new SimulationRunner(9, 9, 10, SolverStrategy::new);
+        SimulationRunner random = new SimulationRunner(9, 9, 10, RandomMoveStrategy::new);
+        double solvedRate = solved.run(400).getWinRate();
+        double randomRate = random.run(400).getWinRate();
+        assertTrue(solvedRate > 0.5, "solver win rate " + solvedRate);
+        assertTrue(solvedRate > randomRate);
+    }
+
+    @Test
+    public void testNoGuessLayoutIsSolvableByLogic() {
+        long seed = NoGuessGenerator.findSeed(16, 30, 99, 8, 15, 99L,
+                java.util.SplittableRandom::new, 10_000_000_000L).getAsLong();
+        assertTrue(NoGuessGenerator.isSolvable(16, 30, 99, 8, 15, seed,
+                java.util.SplittableRandom::new));
+
+        Minesweeper minesweeper = new Minesweeper(16, 30, 99, seed);
+        minesweeper.playTurn(8, 15, true);
+        Solver solver = new Solver(minesweeper);
+        Move move = solver.nextSafeMove();
+        while (move != null) {
+            move.applyTo(minesweeper);
+            solver.observe(move.getRow(), move.getCol());
+            move = solver.nextSafeMove();
+        }
+        assertTrue(minesweeper.checkWinner());
+    }
+
+    @Test
+    public void testNoGuessGameRecordsLayoutSeed() {
+        Minesweeper minesweeper = new Minesweeper(16, 30, 99, 7L);
+        minesweeper.setNoGuess(true);
+        assertTrue(minesweeper.isNoGuess());
+        minesweeper.playTurn(0, 0, true);
+        assertTrue(minesweeper.isGuaranteedSolvable());
+
+        Minesweeper replay = new Minesweeper(16, 30, 99, minesweeper.getSeed());
+        replay.playTurn(0, 0, true);
+        assertArrayEquals(minesweeper.getBoard(), replay.getBoard());
+    }
+
+    @Test
+    public void testNoGuessFallbackIsReported() {
+        // two mines on a 2x2 board leave a 2 beside three covered tiles, which
+        // always needs a guess
+        assertTrue(NoGuessGenerator.findSeed(2, 2, 2, 0, 0, 5L,
+                java.util.SplittableRandom::new, 0).isEmpty());
+
+        Minesweeper minesweeper = new Minesweeper(2, 2, 2, 5L);
+        minesweeper.setNoGuess(true);
+        assertFalse(minesweeper.isGuaranteedSolvable());
+        minesweeper.playTurn(0, 0, true);
+        assertEquals(5L, minesweeper.getSeed()); // the game's own layout is kept
+        assertTrue(minesweeper.getActive());
+        assertFalse(minesweeper.isGuaranteedSolvable());
+
+        minesweeper.reset();
+        assertFalse(minesweeper.isGuaranteedSolvable());
+    }
+}